@@ -0,0 +1,23 @@
+package org.mekluppie.evaluation;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+/**
+ * Command line entry point for the golden-set replay harness, e.g.
+ * <pre>
+ * java -jar mekluppie-evaluation.jar --mekluppie.evaluation.golden-set=golden-set/v1.json
+ * </pre>
+ * Replays against the recordings by default, so it runs offline; record them once with
+ * {@code --mekluppie.evaluation.upstream=record} and real credentials.
+ */
+@SpringBootApplication(scanBasePackages = "org.mekluppie")
+@EnableConfigurationProperties(EvaluationProperties.class)
+public class EvaluationApplication {
+
+	public static void main(String[] args) {
+		System.exit(SpringApplication.exit(SpringApplication.run(EvaluationApplication.class, args)));
+	}
+
+}
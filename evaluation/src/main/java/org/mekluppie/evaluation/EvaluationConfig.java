@@ -0,0 +1,18 @@
+package org.mekluppie.evaluation;
+
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class EvaluationConfig {
+
+    /** Takes the place of the OpenAI chat model in the chat client the recommendation services share. */
+    @Bean
+    @Primary
+    public RecordingChatModel recordingChatModel(OpenAiChatModel openAiChatModel, EvaluationProperties properties) {
+        return new RecordingChatModel(openAiChatModel, properties.getUpstream(),
+                Recordings.open(properties.getRecordings().resolve("chat.jsonl"), RecordingChatModel.Exchange.class));
+    }
+}
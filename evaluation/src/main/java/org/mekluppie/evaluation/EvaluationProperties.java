@@ -0,0 +1,122 @@
+package org.mekluppie.evaluation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for an evaluation run, usually given on the command line as {@code --mekluppie.evaluation.*}.
+ */
+@ConfigurationProperties(prefix = "mekluppie.evaluation")
+public class EvaluationProperties {
+
+    public enum Upstream {
+        /** Call OpenAI and Weaviate and leave the recordings alone. */
+        LIVE,
+        /** Call OpenAI and Weaviate and record their answers for later replays. */
+        RECORD,
+        /** Answer from the recordings only; a call that was never recorded fails its case. */
+        REPLAY
+    }
+
+    /** Prices in US dollars, used to put a cost on the tokens a mode uses. */
+    public static class Pricing {
+
+        private double inputPerMillion = 0.40;
+
+        private double outputPerMillion = 1.60;
+
+        public double getInputPerMillion() {
+            return inputPerMillion;
+        }
+
+        public void setInputPerMillion(double inputPerMillion) {
+            this.inputPerMillion = inputPerMillion;
+        }
+
+        public double getOutputPerMillion() {
+            return outputPerMillion;
+        }
+
+        public void setOutputPerMillion(double outputPerMillion) {
+            this.outputPerMillion = outputPerMillion;
+        }
+    }
+
+    private Path goldenSet;
+
+    /** Directory with the recorded upstream answers. */
+    private Path recordings = Path.of("recordings");
+
+    /** Defaults to the golden set path with a {@code .report.json} suffix. */
+    private Path report;
+
+    private Upstream upstream = Upstream.REPLAY;
+
+    /** Modes to evaluate, see {@link RecommendationModes}. */
+    private List<String> modes = new ArrayList<>(List.of(
+            RecommendationModes.LLM_DATASETS, RecommendationModes.LLM_SOURCES, RecommendationModes.WEAVIATE_DATASETS));
+
+    /** Number of nearest datasets the Weaviate mode recommends. */
+    private int weaviateLimit = 5;
+
+    private Pricing pricing = new Pricing();
+
+    public Path getGoldenSet() {
+        return goldenSet;
+    }
+
+    public void setGoldenSet(Path goldenSet) {
+        this.goldenSet = goldenSet;
+    }
+
+    public Path getRecordings() {
+        return recordings;
+    }
+
+    public void setRecordings(Path recordings) {
+        this.recordings = recordings;
+    }
+
+    public Path getReport() {
+        return report != null ? report : goldenSet.resolveSibling(goldenSet.getFileName() + ".report.json");
+    }
+
+    public void setReport(Path report) {
+        this.report = report;
+    }
+
+    public Upstream getUpstream() {
+        return upstream;
+    }
+
+    public void setUpstream(Upstream upstream) {
+        this.upstream = upstream;
+    }
+
+    public List<String> getModes() {
+        return modes;
+    }
+
+    public void setModes(List<String> modes) {
+        this.modes = modes;
+    }
+
+    public int getWeaviateLimit() {
+        return weaviateLimit;
+    }
+
+    public void setWeaviateLimit(int weaviateLimit) {
+        this.weaviateLimit = weaviateLimit;
+    }
+
+    public Pricing getPricing() {
+        return pricing;
+    }
+
+    public void setPricing(Pricing pricing) {
+        this.pricing = pricing;
+    }
+}
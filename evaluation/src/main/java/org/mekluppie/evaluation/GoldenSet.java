@@ -0,0 +1,39 @@
+package org.mekluppie.evaluation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Queries with the datasets and sources a good answer contains, matched on dataset title and source name.
+ * The version goes into the report, so results are only compared between runs of the same set.
+ */
+public record GoldenSet(String version, List<Case> cases) {
+
+    public record Case(String query, List<String> expectedDatasets, List<String> expectedSources) {
+
+        public Case {
+            expectedDatasets = expectedDatasets != null ? expectedDatasets : List.of();
+            expectedSources = expectedSources != null ? expectedSources : List.of();
+        }
+
+        public List<String> expected(RecommendationMode.Target target) {
+            return target == RecommendationMode.Target.DATASETS ? expectedDatasets : expectedSources;
+        }
+    }
+
+    public static GoldenSet load(Path path) throws IOException {
+        GoldenSet goldenSet = new ObjectMapper().readValue(path.toFile(), GoldenSet.class);
+        if (goldenSet.version() == null || goldenSet.cases() == null || goldenSet.cases().isEmpty()) {
+            throw new IOException("Golden set " + path + " needs a version and at least one case");
+        }
+        for (Case goldenCase : goldenSet.cases()) {
+            if (goldenCase.query() == null || goldenCase.query().isBlank()) {
+                throw new IOException("Golden set " + path + " has a case without a query");
+            }
+        }
+        return goldenSet;
+    }
+}
@@ -0,0 +1,128 @@
+package org.mekluppie.evaluation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the golden set against each configured {@link RecommendationMode}, one query at a time, and writes a
+ * report with the p50/p95 latency, tokens, cost, precision and recall of every mode next to the golden set.
+ * <p>
+ * Latency is the wall time of the call plus, when replaying, the upstream latency recorded with the answers.
+ * Cases that fail, or need an answer that was never recorded, are listed in the report but left out of the
+ * figures, and make the run exit with 1.
+ */
+@Component
+public class GoldenSetReplay implements ApplicationRunner, ExitCodeGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(GoldenSetReplay.class);
+
+    public record CaseResult(String query, long latencyMs, long promptTokens, long completionTokens,
+                             double precision, double recall, List<String> recommended, List<String> missed,
+                             String error) { }
+
+    public record ModeSummary(String mode, RecommendationMode.Target target, int cases, int failed,
+                              long p50LatencyMs, long p95LatencyMs, long promptTokens, long completionTokens,
+                              double costUsd, double precision, double recall) { }
+
+    private final EvaluationProperties properties;
+    private final RecommendationModes modes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int exitCode;
+
+    public GoldenSetReplay(EvaluationProperties properties, RecommendationModes modes) {
+        this.properties = properties;
+        this.modes = modes;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (properties.getGoldenSet() == null) {
+            logger.error("mekluppie.evaluation.golden-set is required");
+            exitCode = 2;
+            return;
+        }
+
+        GoldenSet goldenSet = GoldenSet.load(properties.getGoldenSet());
+        logger.info("Replaying golden set {} ({} cases) with upstream {}", goldenSet.version(),
+                goldenSet.cases().size(), properties.getUpstream());
+
+        List<ModeSummary> summaries = new ArrayList<>();
+        Map<String, List<CaseResult>> results = new LinkedHashMap<>();
+        for (String name : properties.getModes()) {
+            RecommendationMode mode = modes.get(name);
+            List<CaseResult> caseResults = goldenSet.cases().stream()
+                    .map(goldenCase -> replay(mode, goldenCase))
+                    .toList();
+            ModeSummary summary = summarize(mode, caseResults);
+            logger.info("{}", summary);
+            summaries.add(summary);
+            results.put(name, caseResults);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("goldenSet", goldenSet.version());
+        report.put("upstream", properties.getUpstream());
+        report.put("modes", summaries);
+        report.put("cases", results);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(properties.getReport().toFile(), report);
+        logger.info("Report written to {}", properties.getReport());
+        exitCode = summaries.stream().anyMatch(summary -> summary.failed() > 0) ? 1 : 0;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    private CaseResult replay(RecommendationMode mode, GoldenSet.Case goldenCase) {
+        UpstreamTally tally = UpstreamTally.start();
+        long start = System.nanoTime();
+        try {
+            List<String> recommended = mode.recommend(goldenCase.query());
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + tally.replayedMs();
+
+            Set<String> labels = Scores.labels(recommended);
+            List<String> expected = goldenCase.expected(mode.target());
+            Set<String> expectedLabels = Scores.labels(expected);
+            List<String> missed = expected.stream()
+                    .filter(label -> !labels.contains(Scores.label(label)))
+                    .toList();
+            return new CaseResult(goldenCase.query(), latencyMs, tally.promptTokens(), tally.completionTokens(),
+                    Scores.precision(labels, expectedLabels), Scores.recall(labels, expectedLabels), recommended,
+                    missed, null);
+        } catch (RuntimeException e) {
+            logger.warn("Mode {} failed on '{}': {}", mode.name(), goldenCase.query(), e.getMessage());
+            return new CaseResult(goldenCase.query(), 0, tally.promptTokens(), tally.completionTokens(), 0, 0,
+                    List.of(), List.of(), String.valueOf(e.getMessage()));
+        } finally {
+            UpstreamTally.finish();
+        }
+    }
+
+    private ModeSummary summarize(RecommendationMode mode, List<CaseResult> caseResults) {
+        List<CaseResult> answered = caseResults.stream().filter(result -> result.error() == null).toList();
+        List<Long> latencies = answered.stream().map(CaseResult::latencyMs).toList();
+        long promptTokens = caseResults.stream().mapToLong(CaseResult::promptTokens).sum();
+        long completionTokens = caseResults.stream().mapToLong(CaseResult::completionTokens).sum();
+        EvaluationProperties.Pricing pricing = properties.getPricing();
+        double costUsd = (promptTokens * pricing.getInputPerMillion()
+                + completionTokens * pricing.getOutputPerMillion()) / 1_000_000;
+        return new ModeSummary(mode.name(), mode.target(), caseResults.size(),
+                caseResults.size() - answered.size(),
+                Scores.percentile(latencies, 50), Scores.percentile(latencies, 95),
+                promptTokens, completionTokens, Math.round(costUsd * 1e6) / 1e6,
+                Scores.mean(answered.stream().map(CaseResult::precision).toList()),
+                Scores.mean(answered.stream().map(CaseResult::recall).toList()));
+    }
+}
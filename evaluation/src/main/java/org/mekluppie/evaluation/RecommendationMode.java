@@ -0,0 +1,20 @@
+package org.mekluppie.evaluation;
+
+import java.util.List;
+
+/**
+ * One way of answering a recommendation query that the golden set is replayed against.
+ */
+public interface RecommendationMode {
+
+    enum Target { DATASETS, SOURCES }
+
+    String name();
+
+    Target target();
+
+    /**
+     * @return titles of the recommended datasets, or names of the recommended sources
+     */
+    List<String> recommend(String query);
+}
@@ -0,0 +1,99 @@
+package org.mekluppie.evaluation;
+
+import org.mekluppie.services.DatasetSuggestionService;
+import org.mekluppie.services.InitializeWeaviate;
+import org.mekluppie.services.SourcesSuggestionService;
+import org.mekluppie.services.model.DatasetResponse;
+import org.mekluppie.services.model.SourceResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The recommendation modes known to the harness. A faster alternative is added here under a name of its own, so
+ * it can be replayed against the same golden set as the modes it should replace.
+ * <p>
+ * The LLM modes reach OpenAI through the {@link RecordingChatModel}. The Weaviate mode records its search results
+ * itself, keyed on query and limit only, so it has to be recorded again after the collection changes.
+ */
+@Component
+public class RecommendationModes {
+
+    public static final String LLM_DATASETS = "llm-datasets";
+    public static final String LLM_SOURCES = "llm-sources";
+    public static final String WEAVIATE_DATASETS = "weaviate-datasets";
+
+    public record WeaviateAnswer(List<String> titles, long latencyMs) { }
+
+    private record Mode(String name, Target target, Function<String, List<String>> recommender)
+            implements RecommendationMode {
+
+        @Override
+        public List<String> recommend(String query) {
+            return recommender.apply(query);
+        }
+    }
+
+    private final EvaluationProperties properties;
+    private final InitializeWeaviate weaviate;
+    private final Recordings<WeaviateAnswer> weaviateRecordings;
+    private final Map<String, RecommendationMode> modes;
+
+    public RecommendationModes(EvaluationProperties properties, DatasetSuggestionService datasetSuggestionService,
+                               SourcesSuggestionService sourcesSuggestionService, InitializeWeaviate weaviate) {
+        this.properties = properties;
+        this.weaviate = weaviate;
+        this.weaviateRecordings = Recordings.open(properties.getRecordings().resolve("weaviate.jsonl"),
+                WeaviateAnswer.class);
+        this.modes = Map.of(
+                LLM_DATASETS, new Mode(LLM_DATASETS, RecommendationMode.Target.DATASETS,
+                        query -> titles(datasetSuggestionService.suggestDataset(query))),
+                LLM_SOURCES, new Mode(LLM_SOURCES, RecommendationMode.Target.SOURCES,
+                        query -> names(sourcesSuggestionService.recommendSources(query))),
+                WEAVIATE_DATASETS, new Mode(WEAVIATE_DATASETS, RecommendationMode.Target.DATASETS,
+                        this::nearestTitles));
+    }
+
+    public RecommendationMode get(String name) {
+        RecommendationMode mode = modes.get(name);
+        if (mode == null) {
+            throw new IllegalArgumentException("Unknown recommendation mode " + name + ", expected one of "
+                    + modes.keySet());
+        }
+        return mode;
+    }
+
+    private List<String> nearestTitles(String query) {
+        int limit = properties.getWeaviateLimit();
+        String key = Recordings.key(List.of(WEAVIATE_DATASETS, String.valueOf(limit), query));
+        if (properties.getUpstream() == EvaluationProperties.Upstream.REPLAY) {
+            WeaviateAnswer answer = weaviateRecordings.find(key)
+                    .orElseThrow(() -> new Recordings.MissingRecordingException("weaviate", key));
+            UpstreamTally.add(0, 0, answer.latencyMs());
+            return answer.titles();
+        }
+
+        long start = System.nanoTime();
+        List<String> titles = weaviate.queryDatasets(query, limit).stream()
+                .map(InitializeWeaviate.QueryResult::title)
+                .toList();
+        if (properties.getUpstream() == EvaluationProperties.Upstream.RECORD) {
+            weaviateRecordings.record(key, new WeaviateAnswer(titles,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+        return titles;
+    }
+
+    private static List<String> titles(DatasetResponse response) {
+        return response == null || response.datasets() == null ? List.of()
+                : response.datasets().stream().map(DatasetResponse.DatasetItem::title).toList();
+    }
+
+    private static List<String> names(SourceResponse response) {
+        return response == null || response.sources() == null ? List.of()
+                : response.sources().stream().map(SourceResponse.SourceItem::source).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package org.mekluppie.evaluation;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat model in front of the real one that records its answers, or replays them without calling it.
+ * <p>
+ * Answers are keyed on the model and the full prompt, which embeds the catalog, so replays only return answers
+ * to exactly the prompt that is sent now. Token usage is reported to the {@link UpstreamTally} in every mode,
+ * the recorded latency only when replaying, because otherwise the real call already took that long.
+ */
+public class RecordingChatModel implements ChatModel {
+
+    public record Exchange(String text, int promptTokens, int completionTokens, long latencyMs) { }
+
+    private final ChatModel delegate;
+    private final EvaluationProperties.Upstream upstream;
+    private final Recordings<Exchange> recordings;
+
+    public RecordingChatModel(ChatModel delegate, EvaluationProperties.Upstream upstream,
+                              Recordings<Exchange> recordings) {
+        this.delegate = delegate;
+        this.upstream = upstream;
+        this.recordings = recordings;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        String key = key(prompt);
+        if (upstream == EvaluationProperties.Upstream.REPLAY) {
+            Exchange exchange = recordings.find(key)
+                    .orElseThrow(() -> new Recordings.MissingRecordingException("chat", key));
+            UpstreamTally.add(exchange.promptTokens(), exchange.completionTokens(), exchange.latencyMs());
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(exchange.text()))),
+                    ChatResponseMetadata.builder()
+                            .usage(new DefaultUsage(exchange.promptTokens(), exchange.completionTokens()))
+                            .build());
+        }
+
+        long start = System.nanoTime();
+        ChatResponse response = delegate.call(prompt);
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Usage usage = response.getMetadata().getUsage();
+        int promptTokens = usage != null && usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+        int completionTokens = usage != null && usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0;
+        UpstreamTally.add(promptTokens, completionTokens, 0);
+        if (upstream == EvaluationProperties.Upstream.RECORD && response.getResult() != null) {
+            recordings.record(key, new Exchange(response.getResult().getOutput().getText(), promptTokens,
+                    completionTokens, latencyMs));
+        }
+        return response;
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    private String key(Prompt prompt) {
+        List<String> parts = new ArrayList<>();
+        ChatOptions options = prompt.getOptions() != null ? prompt.getOptions() : delegate.getDefaultOptions();
+        parts.add(options != null ? options.getModel() : null);
+        for (Message message : prompt.getInstructions()) {
+            parts.add(message.getMessageType().getValue());
+            parts.add(message.getText());
+        }
+        return Recordings.key(parts);
+    }
+}
@@ -0,0 +1,93 @@
+package org.mekluppie.evaluation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Upstream answers recorded under a hash of the request, one JSON line per answer. Keys hash everything the
+ * answer depends on, so a changed prompt or catalog simply misses instead of replaying a stale answer; a
+ * re-recorded answer is appended and wins over earlier lines.
+ */
+public class Recordings<T> {
+
+    /** Thrown when replaying a request that was never recorded. */
+    public static class MissingRecordingException extends IllegalStateException {
+
+        public MissingRecordingException(String upstream, String key) {
+            super("No recorded " + upstream + " answer for request " + key + "; record the golden set again");
+        }
+    }
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, T> entries = new ConcurrentHashMap<>();
+
+    private Recordings(Path file) {
+        this.file = file;
+    }
+
+    public static <T> Recordings<T> open(Path file, Class<T> type) {
+        Recordings<T> recordings = new Recordings<>(file);
+        if (Files.exists(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        JsonNode node = recordings.objectMapper.readTree(line);
+                        recordings.entries.put(node.path("key").asText(),
+                                recordings.objectMapper.treeToValue(node.path("value"), type));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read recordings " + file, e);
+            }
+        }
+        return recordings;
+    }
+
+    public Optional<T> find(String key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    public synchronized void record(String key, T value) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            String line = objectMapper.writeValueAsString(Map.of("key", key, "value", value)) + "\n";
+            Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            entries.put(key, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to record into " + file, e);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** SHA-256 of the parts, separated so that moving text between parts changes the key. */
+    public static String key(List<String> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
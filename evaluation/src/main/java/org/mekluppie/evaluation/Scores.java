@@ -0,0 +1,56 @@
+package org.mekluppie.evaluation;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Quality and latency figures of a replay. Recommendations are compared with the expected ones as sets of
+ * labels, ignoring case, accents and whitespace.
+ */
+final class Scores {
+
+    private Scores() { }
+
+    static Set<String> labels(Collection<String> values) {
+        return values.stream().map(Scores::label).filter(label -> !label.isEmpty()).collect(Collectors.toSet());
+    }
+
+    /** Share of the recommendations that were expected; an empty recommendation is only right if nothing was. */
+    static double precision(Set<String> recommended, Set<String> expected) {
+        if (recommended.isEmpty()) {
+            return expected.isEmpty() ? 1.0 : 0.0;
+        }
+        return (double) recommended.stream().filter(expected::contains).count() / recommended.size();
+    }
+
+    /** Share of the expected labels that were recommended. */
+    static double recall(Set<String> recommended, Set<String> expected) {
+        if (expected.isEmpty()) {
+            return 1.0;
+        }
+        return (double) expected.stream().filter(recommended::contains).count() / expected.size();
+    }
+
+    /** Nearest-rank percentile, so the figure is always one of the measured values. */
+    static long percentile(List<Long> values, double percentile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = values.stream().sorted().toList();
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    static double mean(Collection<Double> values) {
+        return values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+    }
+
+    static String label(String value) {
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,60 @@
+package org.mekluppie.evaluation;
+
+import io.micrometer.context.ContextRegistry;
+
+/**
+ * What the upstream calls made on this thread cost while a case is replayed: the tokens used and, for replayed
+ * answers, the latency the upstream had when the answer was recorded.
+ * <p>
+ * Kept per thread and propagated like the {@code Deadline}, so it follows calls onto context-propagating
+ * executors. Micro-batching hands calls to a thread shared by several callers, so the evaluation configuration
+ * turns it off.
+ */
+final class UpstreamTally {
+
+    private static final ThreadLocal<UpstreamTally> current = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor("mekluppie.evaluation.upstream-tally",
+                current::get, current::set, current::remove);
+    }
+
+    private long promptTokens;
+    private long completionTokens;
+    private long replayedMs;
+
+    private UpstreamTally() { }
+
+    static UpstreamTally start() {
+        UpstreamTally tally = new UpstreamTally();
+        current.set(tally);
+        return tally;
+    }
+
+    static void finish() {
+        current.remove();
+    }
+
+    static void add(long promptTokens, long completionTokens, long replayedMs) {
+        UpstreamTally tally = current.get();
+        if (tally != null) {
+            synchronized (tally) {
+                tally.promptTokens += promptTokens;
+                tally.completionTokens += completionTokens;
+                tally.replayedMs += replayedMs;
+            }
+        }
+    }
+
+    synchronized long promptTokens() {
+        return promptTokens;
+    }
+
+    synchronized long completionTokens() {
+        return completionTokens;
+    }
+
+    synchronized long replayedMs() {
+        return replayedMs;
+    }
+}
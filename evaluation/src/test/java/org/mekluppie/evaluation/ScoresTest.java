@@ -0,0 +1,41 @@
+package org.mekluppie.evaluation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScoresTest {
+
+    @Test
+    void comparesLabelsIgnoringCaseAccentsAndWhitespace() {
+        Set<String> recommended = Scores.labels(List.of("Molens ", "CAFÉ  de Zon", "Kerken"));
+        Set<String> expected = Scores.labels(List.of("molens", "Cafe de Zon"));
+
+        assertEquals(2.0 / 3, Scores.precision(recommended, expected), 1e-9);
+        assertEquals(1.0, Scores.recall(recommended, expected), 1e-9);
+    }
+
+    @Test
+    void scoresEmptyAnswers() {
+        Set<String> none = Set.of();
+        Set<String> some = Scores.labels(List.of("Molens"));
+
+        assertEquals(1.0, Scores.precision(none, none));
+        assertEquals(0.0, Scores.precision(none, some));
+        assertEquals(0.0, Scores.recall(none, some));
+        assertEquals(1.0, Scores.recall(some, none));
+    }
+
+    @Test
+    void takesNearestRankPercentiles() {
+        List<Long> latencies = List.of(40L, 10L, 30L, 20L, 100L, 50L, 60L, 70L, 80L, 90L);
+
+        assertEquals(50, Scores.percentile(latencies, 50));
+        assertEquals(100, Scores.percentile(latencies, 95));
+        assertEquals(10, Scores.percentile(List.of(10L), 95));
+        assertEquals(0, Scores.percentile(List.of(), 50));
+    }
+}
@@ -0,0 +1,13 @@
+package org.mekluppie.pipeline;
+
+import org.mekluppie.services.model.SourceResponse;
+import org.mekluppie.services.model.TermsSuggestResponse;
+
+import java.util.List;
+
+/**
+ * One line of pipeline output. {@code error} is set when the record could not be annotated.
+ */
+public record AnnotatedRecord(long number, String id, List<TermsSuggestResponse.TermsSuggestItem> terms,
+                              List<SourceResponse.SourceItem> sources, String error) {
+}
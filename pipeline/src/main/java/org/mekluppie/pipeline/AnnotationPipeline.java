@@ -0,0 +1,291 @@
+package org.mekluppie.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mekluppie.services.SourcesSuggestionService;
+import org.mekluppie.services.TermsSuggestionService;
+import org.mekluppie.services.model.SourceResponse;
+import org.mekluppie.services.model.TermsSuggestResponse;
+import org.mekluppie.services.ratelimit.LlmPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enriches a collection export with terms from {@link TermsSuggestionService} and source recommendations from
+ * {@link SourcesSuggestionService}.
+ * <p>
+ * Records are streamed from the input and processed on virtual threads, at most {@code concurrency} at a time.
+ * Each result is appended to the NDJSON output as soon as it is ready. A checkpoint is written every
+ * {@code checkpoint-every} records; on restart the pipeline loads it, recovers any records written after it from
+ * the output, and carries on with the records that are not done yet. Records written with an {@code error} are
+ * tried again on every restart, so a record can appear more than once in the output; its last line counts.
+ */
+@Component
+public class AnnotationPipeline implements ApplicationRunner, ExitCodeGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(AnnotationPipeline.class);
+
+    private final PipelineProperties properties;
+    private final TermsSuggestionService termsSuggestionService;
+    private final SourcesSuggestionService sourcesSuggestionService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private final Set<Long> retry = new HashSet<>();
+    private int exitCode;
+
+    private CompletionTracker tracker;
+    private OutputStream output;
+    private long outputBytes;
+    private long sinceCheckpoint;
+    private Checkpoint previous = Checkpoint.EMPTY;
+
+    public AnnotationPipeline(PipelineProperties properties, TermsSuggestionService termsSuggestionService,
+                              SourcesSuggestionService sourcesSuggestionService) {
+        this.properties = properties;
+        this.termsSuggestionService = termsSuggestionService;
+        this.sourcesSuggestionService = sourcesSuggestionService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (properties.getInput() == null || properties.getOutput() == null) {
+            logger.error("Both mekluppie.pipeline.input and mekluppie.pipeline.output are required");
+            exitCode = 2;
+            return;
+        }
+
+        resume();
+        long start = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long interval = properties.getReportInterval().toMillis();
+        reporter.scheduleAtFixedRate(() -> report(start, false), interval, interval, TimeUnit.MILLISECONDS);
+
+        Semaphore permits = new Semaphore(properties.getConcurrency());
+        List<Future<?>> pending = new ArrayList<>();
+        try (RecordReader records = RecordReader.open(properties.getInput(), properties);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (records.hasNext() && lost.get() == 0) {
+                InputRecord record = records.next();
+                if (isDone(record.number())) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                permits.acquire();
+                checkCompleted(pending);
+                pending.add(executor.submit(() -> {
+                    try {
+                        write(LlmPriority.callAs(LlmPriority.BATCH, () -> annotate(record)));
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        } finally {
+            reporter.shutdownNow();
+            synchronized (this) {
+                output.close();
+                checkpoint();
+            }
+        }
+        pending.forEach(this::check);
+
+        Map<String, Object> summary = report(start, true);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(
+                properties.getOutput().resolveSibling(properties.getOutput().getFileName() + ".report.json").toFile(),
+                summary);
+        exitCode = failed.get() > 0 || lost.get() > 0 ? 1 : 0;
+    }
+
+    private synchronized boolean isDone(long number) {
+        return tracker.isDone(number) && !retry.contains(number);
+    }
+
+    /**
+     * Checks the tasks that have finished so far and forgets them, so the list stays about {@code concurrency}
+     * long.
+     */
+    private void checkCompleted(List<Future<?>> pending) {
+        pending.removeIf(future -> future.isDone() && check(future));
+    }
+
+    /**
+     * A record whose result could not be written is lost for this run; it is not marked done, so the next run
+     * picks it up, and no new records are started after it.
+     */
+    private boolean check(Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            lost.incrementAndGet();
+            logger.error("Stopping: {}", e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    private AnnotatedRecord annotate(InputRecord record) {
+        if (record.text() == null || record.text().isBlank()) {
+            processed.incrementAndGet();
+            return new AnnotatedRecord(record.number(), record.id(), List.of(), List.of(), null);
+        }
+        try {
+            List<TermsSuggestResponse.TermsSuggestItem> terms = properties.getTermSources().isEmpty()
+                    ? List.of()
+                    : termsSuggestionService.fetchTerms(properties.getTermSources(), record.text(),
+                            properties.getLanguages()).terms();
+            SourceResponse sources = properties.isRecommendSources()
+                    ? sourcesSuggestionService.recommendSources(record.text())
+                    : null;
+            processed.incrementAndGet();
+            return new AnnotatedRecord(record.number(), record.id(), terms,
+                    sources != null && sources.sources() != null ? sources.sources() : List.of(), null);
+        } catch (Exception e) {
+            logger.warn("Record {} ({}) failed: {}", record.number(), record.id(), e.getMessage());
+            failed.incrementAndGet();
+            return new AnnotatedRecord(record.number(), record.id(), List.of(), List.of(), String.valueOf(e.getMessage()));
+        }
+    }
+
+    private synchronized void write(AnnotatedRecord record) {
+        try {
+            byte[] line = objectMapper.writeValueAsBytes(record);
+            output.write(line);
+            output.write('\n');
+            output.flush();
+            outputBytes += line.length + 1;
+            tracker.markDone(record.number());
+            if (record.error() != null) {
+                retry.add(record.number());
+            } else {
+                retry.remove(record.number());
+            }
+            if (++sinceCheckpoint >= properties.getCheckpointEvery()) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write record " + record.number(), e);
+        }
+    }
+
+    private void checkpoint() {
+        try {
+            new Checkpoint(tracker.watermark(), tracker.doneAboveWatermark(), outputBytes,
+                    previous.processed() + processed.get(), previous.failed() + failed.get(), List.copyOf(retry))
+                    .save(properties.getCheckpoint());
+            sinceCheckpoint = 0;
+        } catch (IOException e) {
+            logger.error("Failed to write checkpoint {}", properties.getCheckpoint(), e);
+        }
+    }
+
+    /**
+     * Loads the checkpoint, then scans the output written after it: complete lines count as done, a torn last
+     * line from a crash is cut off.
+     */
+    private void resume() throws IOException {
+        Path outputPath = properties.getOutput();
+        previous = Checkpoint.load(properties.getCheckpoint());
+        List<Long> done = new ArrayList<>(previous.done());
+        retry.addAll(previous.retry());
+
+        long validBytes = 0;
+        if (Files.exists(outputPath)) {
+            try (RandomAccessFile file = new RandomAccessFile(outputPath.toFile(), "rw")) {
+                long offset = Math.min(previous.outputBytes(), file.length());
+                validBytes = offset;
+                file.seek(offset);
+                String line;
+                while ((line = file.readLine()) != null) {
+                    if (file.getFilePointer() == file.length() && !endsWithNewline(file)) {
+                        break;
+                    }
+                    JsonNode node = objectMapper.readTree(new String(line.getBytes(StandardCharsets.ISO_8859_1),
+                            StandardCharsets.UTF_8));
+                    long number = node.path("number").asLong();
+                    done.add(number);
+                    if (node.path("error").isTextual()) {
+                        retry.add(number);
+                    } else {
+                        retry.remove(number);
+                    }
+                    validBytes = file.getFilePointer();
+                }
+                if (validBytes < file.length()) {
+                    logger.warn("Truncating incomplete output after byte {}", validBytes);
+                    file.setLength(validBytes);
+                }
+            }
+        }
+
+        tracker = new CompletionTracker(previous.watermark(), done);
+        outputBytes = validBytes;
+        output = new BufferedOutputStream(Files.newOutputStream(outputPath, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND));
+        if (tracker.watermark() > 0 || !done.isEmpty()) {
+            logger.info("Resuming: records below {} and {} later records are already done; retrying {} failed records",
+                    tracker.watermark(), tracker.doneAboveWatermark().size(), retry.size());
+        }
+    }
+
+    private static boolean endsWithNewline(RandomAccessFile file) throws IOException {
+        long length = file.length();
+        if (length == 0) {
+            return true;
+        }
+        long position = file.getFilePointer();
+        file.seek(length - 1);
+        boolean newline = file.read() == '\n';
+        file.seek(position);
+        return newline;
+    }
+
+    private Map<String, Object> report(long start, boolean last) {
+        double seconds = Math.max(1e-3, (System.nanoTime() - start) / 1e9);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("processed", processed.get());
+        stats.put("failed", failed.get());
+        stats.put("skippedAsDone", skipped.get());
+        stats.put("lost", lost.get());
+        stats.put("watermark", tracker.watermark());
+        stats.put("elapsedSeconds", Math.round(seconds));
+        stats.put("recordsPerSecond", Math.round((processed.get() + failed.get()) / seconds * 100) / 100.0);
+        logger.info("{} {}", last ? "Finished:" : "Progress:", stats);
+        return stats;
+    }
+}
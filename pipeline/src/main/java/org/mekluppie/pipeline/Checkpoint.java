@@ -0,0 +1,44 @@
+package org.mekluppie.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Progress of a pipeline run.
+ *
+ * @param watermark   every record numbered below this is done
+ * @param done        records above the watermark that are done as well
+ * @param outputBytes length of the output file when the checkpoint was taken; records written after that
+ *                    point are recovered by scanning the output on resume
+ * @param retry       records written with an error; they count as done for the watermark but run again on resume
+ */
+public record Checkpoint(long watermark, List<Long> done, long outputBytes, long processed, long failed,
+                         List<Long> retry) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final Checkpoint EMPTY = new Checkpoint(0, List.of(), 0, 0, 0, List.of());
+
+    public Checkpoint {
+        // checkpoints written before retries were tracked lack the field
+        retry = retry != null ? retry : List.of();
+    }
+
+    public static Checkpoint load(Path path) throws IOException {
+        return Files.exists(path) ? MAPPER.readValue(path.toFile(), Checkpoint.class) : EMPTY;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and moves it into place, so a crash never leaves a torn checkpoint.
+     */
+    public void save(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        MAPPER.writeValue(temp.toFile(), this);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,44 @@
+package org.mekluppie.pipeline;
+
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Tracks which records are done when they complete out of order. Keeps a watermark below which everything
+ * is done plus the (small) set of completed records above it.
+ */
+final class CompletionTracker {
+
+    private long watermark;
+    private final TreeSet<Long> done = new TreeSet<>();
+
+    CompletionTracker(long watermark, List<Long> done) {
+        this.watermark = watermark;
+        this.done.addAll(done);
+        advance();
+    }
+
+    synchronized void markDone(long number) {
+        done.add(number);
+        advance();
+    }
+
+    synchronized boolean isDone(long number) {
+        return number < watermark || done.contains(number);
+    }
+
+    synchronized long watermark() {
+        return watermark;
+    }
+
+    synchronized List<Long> doneAboveWatermark() {
+        return List.copyOf(done);
+    }
+
+    private void advance() {
+        while (done.remove(watermark)) {
+            watermark++;
+        }
+        done.headSet(watermark).clear();
+    }
+}
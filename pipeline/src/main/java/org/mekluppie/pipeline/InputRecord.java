@@ -0,0 +1,8 @@
+package org.mekluppie.pipeline;
+
+/**
+ * One record of the input export. {@code number} is its zero-based position in the input and identifies
+ * it in checkpoints and output.
+ */
+public record InputRecord(long number, String id, String text) {
+}
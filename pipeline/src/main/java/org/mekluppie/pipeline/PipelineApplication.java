@@ -0,0 +1,22 @@
+package org.mekluppie.pipeline;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+/**
+ * Command line entry point for the bulk annotation pipeline, e.g.
+ * <pre>
+ * java -jar mekluppie-pipeline.jar --mekluppie.pipeline.input=objects.jsonl --mekluppie.pipeline.output=annotated.ndjson
+ * </pre>
+ * Re-running with the same arguments resumes from the last checkpoint.
+ */
+@SpringBootApplication(scanBasePackages = "org.mekluppie")
+@EnableConfigurationProperties(PipelineProperties.class)
+public class PipelineApplication {
+
+	public static void main(String[] args) {
+		System.exit(SpringApplication.exit(SpringApplication.run(PipelineApplication.class, args)));
+	}
+
+}
@@ -0,0 +1,144 @@
+package org.mekluppie.pipeline;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for a pipeline run, usually given on the command line as {@code --mekluppie.pipeline.*}.
+ */
+@ConfigurationProperties(prefix = "mekluppie.pipeline")
+public class PipelineProperties {
+
+    public enum Format { JSONL, CSV }
+
+    private Path input;
+
+    /** NDJSON file the annotated records are appended to. */
+    private Path output;
+
+    /** Defaults to the output path with a {@code .checkpoint} suffix. */
+    private Path checkpoint;
+
+    private Format format = Format.JSONL;
+
+    private String idField = "id";
+
+    /** Field holding the object description that is annotated. */
+    private String textField = "description";
+
+    /** Number of records processed at the same time. */
+    private int concurrency = 16;
+
+    /** Write a checkpoint after this many completed records. */
+    private int checkpointEvery = 100;
+
+    private Duration reportInterval = Duration.ofSeconds(30);
+
+    /** Termennetwerk sources to fetch terms from; no terms are fetched when empty. */
+    private List<String> termSources = new ArrayList<>();
+
+    private List<String> languages = new ArrayList<>(List.of("nl", "en"));
+
+    /** Also ask the LLM which terminology sources fit each record. */
+    private boolean recommendSources = true;
+
+    public Path getInput() {
+        return input;
+    }
+
+    public void setInput(Path input) {
+        this.input = input;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public void setOutput(Path output) {
+        this.output = output;
+    }
+
+    public Path getCheckpoint() {
+        return checkpoint != null ? checkpoint : output.resolveSibling(output.getFileName() + ".checkpoint");
+    }
+
+    public void setCheckpoint(Path checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public String getIdField() {
+        return idField;
+    }
+
+    public void setIdField(String idField) {
+        this.idField = idField;
+    }
+
+    public String getTextField() {
+        return textField;
+    }
+
+    public void setTextField(String textField) {
+        this.textField = textField;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getCheckpointEvery() {
+        return checkpointEvery;
+    }
+
+    public void setCheckpointEvery(int checkpointEvery) {
+        this.checkpointEvery = checkpointEvery;
+    }
+
+    public Duration getReportInterval() {
+        return reportInterval;
+    }
+
+    public void setReportInterval(Duration reportInterval) {
+        this.reportInterval = reportInterval;
+    }
+
+    public List<String> getTermSources() {
+        return termSources;
+    }
+
+    public void setTermSources(List<String> termSources) {
+        this.termSources = termSources;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public void setLanguages(List<String> languages) {
+        this.languages = languages;
+    }
+
+    public boolean isRecommendSources() {
+        return recommendSources;
+    }
+
+    public void setRecommendSources(boolean recommendSources) {
+        this.recommendSources = recommendSources;
+    }
+}
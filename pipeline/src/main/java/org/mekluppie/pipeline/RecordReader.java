@@ -0,0 +1,153 @@
+package org.mekluppie.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams records from a JSONL or CSV export one at a time, so memory use does not depend on the input size.
+ */
+public abstract class RecordReader implements Iterator<InputRecord>, Closeable {
+
+    protected long number;
+
+    public static RecordReader open(Path input, PipelineProperties properties) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+        return switch (properties.getFormat()) {
+            case JSONL -> new Jsonl(reader, properties.getIdField(), properties.getTextField());
+            case CSV -> new Csv(reader, properties.getIdField(), properties.getTextField());
+        };
+    }
+
+    private static final class Jsonl extends RecordReader {
+        private final MappingIterator<JsonNode> lines;
+        private final String idField;
+        private final String textField;
+
+        private Jsonl(Reader reader, String idField, String textField) throws IOException {
+            this.lines = new ObjectMapper().readerFor(JsonNode.class).readValues(reader);
+            this.idField = idField;
+            this.textField = textField;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return lines.hasNext();
+        }
+
+        @Override
+        public InputRecord next() {
+            JsonNode line = lines.next();
+            return new InputRecord(number++, line.path(idField).asText(null), line.path(textField).asText(""));
+        }
+
+        @Override
+        public void close() throws IOException {
+            lines.close();
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, first row is the header, fields may be quoted and quoted
+     * fields may contain commas, doubled quotes and line breaks.
+     */
+    private static final class Csv extends RecordReader {
+        private final Reader reader;
+        private final int idColumn;
+        private final int textColumn;
+        private List<String> nextRow;
+
+        private Csv(Reader reader, String idField, String textField) throws IOException {
+            this.reader = reader;
+            List<String> header = readRow();
+            if (header == null) {
+                throw new IOException("CSV input is empty");
+            }
+            this.idColumn = header.indexOf(idField);
+            this.textColumn = header.indexOf(textField);
+            if (textColumn < 0) {
+                throw new IOException("CSV header has no column '" + textField + "'");
+            }
+            this.nextRow = readRow();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextRow != null;
+        }
+
+        @Override
+        public InputRecord next() {
+            if (nextRow == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> row = nextRow;
+            try {
+                nextRow = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new InputRecord(number++, column(row, idColumn), column(row, textColumn));
+        }
+
+        private static String column(List<String> row, int column) {
+            return column >= 0 && column < row.size() ? row.get(column) : null;
+        }
+
+        private List<String> readRow() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.mekluppie.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionTrackerTest {
+
+    @Test
+    void advancesWatermarkOverContiguousRecords() {
+        CompletionTracker tracker = new CompletionTracker(0, List.of());
+        tracker.markDone(1);
+        tracker.markDone(3);
+        assertEquals(0, tracker.watermark());
+        assertEquals(List.of(1L, 3L), tracker.doneAboveWatermark());
+
+        tracker.markDone(0);
+        assertEquals(2, tracker.watermark());
+        assertEquals(List.of(3L), tracker.doneAboveWatermark());
+        assertTrue(tracker.isDone(3));
+        assertFalse(tracker.isDone(2));
+    }
+
+    @Test
+    void resumesFromCheckpointAndRecoveredRecords() {
+        CompletionTracker tracker = new CompletionTracker(5, List.of(7L, 5L, 6L, 2L));
+        assertEquals(8, tracker.watermark());
+        assertEquals(List.of(), tracker.doneAboveWatermark());
+    }
+}
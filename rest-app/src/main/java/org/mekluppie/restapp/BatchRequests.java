@@ -0,0 +1,30 @@
+package org.mekluppie.restapp;
+
+import org.mekluppie.restapp.model.BatchRecommendRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+final class BatchRequests {
+
+    private BatchRequests() {
+    }
+
+    /**
+     * Rejects empty and oversized batches, and blank queries, up front, before the streamed response has been
+     * committed.
+     */
+    static void validate(BatchRecommendRequest request, int maxQueries) {
+        if (request.queries() == null || request.queries().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "queries must not be empty");
+        }
+        if (request.queries().size() > maxQueries) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch may contain at most " + maxQueries + " queries");
+        }
+        for (int i = 0; i < request.queries().size(); i++) {
+            String query = request.queries().get(i);
+            if (query == null || query.isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "queries[" + i + "] must not be blank");
+            }
+        }
+    }
+}
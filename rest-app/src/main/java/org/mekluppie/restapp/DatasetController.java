@@ -1,15 +1,28 @@
 package org.mekluppie.restapp;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mekluppie.restapp.model.BatchRecommendRequest;
 import org.mekluppie.restapp.model.RecommendDatasetRequest;
+import org.mekluppie.restapp.model.SparqlPageRequest;
 import org.mekluppie.restapp.model.SparqlRequest;
-import org.mekluppie.services.DatasetSuggestionService;
+import org.mekluppie.restapp.web.NdjsonStream;
+import org.mekluppie.services.BatchRecommendationService;
 import org.mekluppie.services.SparqlEndpointService;
+import org.mekluppie.services.hotqueries.HotQueryService;
 import org.mekluppie.services.model.AuthorQueryResponse;
+import org.mekluppie.services.model.BatchResult;
 import org.mekluppie.services.model.DatasetResponse;
 import org.mekluppie.services.model.ImageQueryResponse;
+import org.mekluppie.services.model.Page;
+import org.mekluppie.services.model.PageRequest;
+import org.mekluppie.services.model.PersonLookupResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,17 +30,29 @@ import java.util.List;
 public class DatasetController {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatasetController.class);
 
-    private final DatasetSuggestionService datasetSuggestionService;
+    private final HotQueryService hotQueryService;
     private final SparqlEndpointService sparqlEndpointService;
+    private final BatchRecommendationService batchService;
+    private final ObjectMapper objectMapper;
 
-    public DatasetController(DatasetSuggestionService datasetSuggestionService, SparqlEndpointService sparqlEndpointService) {
-        this.datasetSuggestionService = datasetSuggestionService;
+    public DatasetController(HotQueryService hotQueryService, SparqlEndpointService sparqlEndpointService,
+                             BatchRecommendationService batchService, ObjectMapper objectMapper) {
+        this.hotQueryService = hotQueryService;
         this.sparqlEndpointService = sparqlEndpointService;
+        this.batchService = batchService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/api/datasets/recommend")
     public DatasetResponse recommendDatasets(@RequestBody RecommendDatasetRequest userQuery) {
-        return datasetSuggestionService.suggestDataset(userQuery.userQuery());
+        return hotQueryService.suggestDataset(userQuery.userQuery());
+    }
+
+    @PostMapping("/api/datasets/recommend/batch")
+    public ResponseEntity<StreamingResponseBody> recommendDatasetsBatch(@RequestBody BatchRecommendRequest request) {
+        BatchRequests.validate(request, batchService.maxQueries());
+        return NdjsonStream.<BatchResult<DatasetResponse>>of(objectMapper,
+                sink -> batchService.suggestDatasets(request.queries(), sink));
     }
 
     @PostMapping("/api/datasets/author")
@@ -39,4 +64,36 @@ public class DatasetController {
     public List<ImageQueryResponse> findImageInfo(@RequestBody SparqlRequest query) {
         return sparqlEndpointService.executeImageQuery(query.query());
     }
+
+    /**
+     * Books and images of a person from both endpoints at once, for the UI's person search.
+     */
+    @PostMapping("/api/datasets/person")
+    public PersonLookupResponse findPersonInfo(@RequestBody SparqlRequest query) {
+        return sparqlEndpointService.executePersonLookup(query.query());
+    }
+
+    @PostMapping("/api/datasets/author/page")
+    public Page<AuthorQueryResponse> findAuthorInfoPage(@RequestBody SparqlPageRequest query) {
+        return sparqlEndpointService.executeAuthorQuery(query.query(), toPageRequest(query));
+    }
+
+    @PostMapping("/api/datasets/images/page")
+    public Page<ImageQueryResponse> findImageInfoPage(@RequestBody SparqlPageRequest query) {
+        return sparqlEndpointService.executeImageQuery(query.query(), toPageRequest(query));
+    }
+
+    /**
+     * @throws ResponseStatusException 400 if the limit or offset is out of range
+     */
+    private static PageRequest toPageRequest(SparqlPageRequest request) {
+        try {
+            return new PageRequest(
+                    request.limit() != null ? request.limit() : 30,
+                    request.offset() != null ? request.offset() : 0,
+                    request.after());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
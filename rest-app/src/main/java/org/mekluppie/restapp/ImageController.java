@@ -0,0 +1,105 @@
+package org.mekluppie.restapp;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mekluppie.services.config.ImageProxyProperties;
+import org.mekluppie.services.images.ImageProxyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thumbnails of Beeldbank {@code widgetImage} URLs. Cached files are handed to Tomcat's sendfile support, so the
+ * body goes from the page cache to the socket without passing through the JVM.
+ */
+@RestController
+public class ImageController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageController.class);
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageProxyService imageProxyService;
+    private final CacheControl cacheControl;
+
+    public ImageController(ImageProxyService imageProxyService, ImageProxyProperties properties) {
+        this.imageProxyService = imageProxyService;
+        this.cacheControl = CacheControl.maxAge(properties.getCacheMaxAge().toSeconds(), TimeUnit.SECONDS)
+                .cachePublic()
+                .immutable();
+    }
+
+    @GetMapping("/api/images/thumbnail")
+    public void thumbnail(@RequestParam(name = "url") String url,
+                          @RequestParam(name = "size", defaultValue = "320") int size,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageProxyService.Thumbnail thumbnail;
+        try {
+            thumbnail = imageProxyService.thumbnail(url, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (UncheckedIOException e) {
+            LOGGER.warn("Thumbnail of {} unavailable: {}", url, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Image could not be retrieved");
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ETAG, thumbnail.etag());
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), thumbnail.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(thumbnail.length());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, thumbnail.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, thumbnail.length());
+            return;
+        }
+        try (FileChannel file = FileChannel.open(thumbnail.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < thumbnail.length()) {
+                position += file.transferTo(position, thumbnail.length() - position, out);
+            }
+        }
+    }
+
+    /**
+     * Weak comparison against an {@code If-None-Match} list, where {@code *} matches any current representation.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
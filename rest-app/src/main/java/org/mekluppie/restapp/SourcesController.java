@@ -1,23 +1,42 @@
 package org.mekluppie.restapp;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mekluppie.restapp.model.BatchRecommendRequest;
 import org.mekluppie.restapp.model.RecommendSourceRequest;
-import org.mekluppie.services.SourcesSuggestionService;
+import org.mekluppie.restapp.web.NdjsonStream;
+import org.mekluppie.services.BatchRecommendationService;
+import org.mekluppie.services.hotqueries.HotQueryService;
+import org.mekluppie.services.model.BatchResult;
 import org.mekluppie.services.model.SourceResponse;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 public class SourcesController {
-    private final SourcesSuggestionService service;
+    private final HotQueryService hotQueryService;
+    private final BatchRecommendationService batchService;
+    private final ObjectMapper objectMapper;
 
-    public SourcesController(SourcesSuggestionService service) {
-        this.service = service;
+    public SourcesController(HotQueryService hotQueryService, BatchRecommendationService batchService,
+                             ObjectMapper objectMapper) {
+        this.hotQueryService = hotQueryService;
+        this.batchService = batchService;
+        this.objectMapper = objectMapper;
     }
 
 
     @PostMapping("/api/sources/recommend")
     public SourceResponse recommendSources(@RequestBody RecommendSourceRequest userQuery) {
-        return service.recommendSources(userQuery.userQuery());
+        return hotQueryService.recommendSources(userQuery.userQuery());
+    }
+
+    @PostMapping("/api/sources/recommend/batch")
+    public ResponseEntity<StreamingResponseBody> recommendSourcesBatch(@RequestBody BatchRecommendRequest request) {
+        BatchRequests.validate(request, batchService.maxQueries());
+        return NdjsonStream.<BatchResult<SourceResponse>>of(objectMapper,
+                sink -> batchService.recommendSources(request.queries(), sink));
     }
 }
@@ -1,18 +1,27 @@
 package org.mekluppie.restapp;
 
 import org.mekluppie.restapp.model.RecommendTermsRequest;
+import org.mekluppie.services.TermsSourceMonitor;
 import org.mekluppie.services.TermsSuggestionService;
 import org.mekluppie.services.model.TermsSuggestResponse;
+import org.mekluppie.services.model.TypeaheadResponse;
+import org.mekluppie.services.typeahead.TypeaheadService;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 public class TermsController {
     private final TermsSuggestionService termsSuggestionService;
+    private final TypeaheadService typeaheadService;
 
-    public TermsController(TermsSuggestionService termsSuggestionService) {
+    public TermsController(TermsSuggestionService termsSuggestionService, TypeaheadService typeaheadService) {
         this.termsSuggestionService = termsSuggestionService;
+        this.typeaheadService = typeaheadService;
     }
 
     @PostMapping("/api/terms/recommend")
@@ -24,4 +33,15 @@ public class TermsController {
                 recommendTermsRequest.languages()
         );
     }
+
+    @GetMapping("/api/terms/sources/stats")
+    public List<TermsSourceMonitor.SourceStats> sourceStats() {
+        return termsSuggestionService.sourceStats();
+    }
+
+    @GetMapping("/api/terms/typeahead")
+    public TypeaheadResponse typeahead(@RequestParam(name = "q") String query,
+                                       @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return typeaheadService.suggest(query, limit);
+    }
 }
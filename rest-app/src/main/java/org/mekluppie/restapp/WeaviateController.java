@@ -1,11 +1,16 @@
 package org.mekluppie.restapp;
 
+import org.mekluppie.restapp.model.VectorSearchRequest;
 import org.mekluppie.services.InitializeWeaviate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -25,4 +30,26 @@ public class WeaviateController {
         results.forEach(r -> log.info("Found: {} (distance: {})", r.title(), r.distance()));
         return results;
     }
+
+    @PostMapping("/api/weaviate/query/batch")
+    public List<InitializeWeaviate.ConceptResults> doBatchQuery(@RequestBody VectorSearchRequest request) {
+        if (request.concepts() == null || request.concepts().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "concepts must not be empty");
+        }
+        if (request.concepts().size() > initializeWeaviate.maxConcepts()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch may contain at most " + initializeWeaviate.maxConcepts() + " concepts");
+        }
+        int limit = request.limit() != null ? request.limit() : 5;
+        int offset = request.offset() != null ? request.offset() : 0;
+        int maxResults = initializeWeaviate.maxResults();
+        if (limit < 1 || limit > maxResults) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxResults);
+        }
+        if (offset < 0 || offset > maxResults - limit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "offset must be at least 0, and offset + limit at most " + maxResults);
+        }
+        return initializeWeaviate.queryDatasets(request.concepts(), limit, offset);
+    }
 }
@@ -0,0 +1,103 @@
+package org.mekluppie.restapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits per endpoint group. Configure under {@code mekluppie.web.admission} in
+ * application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.web.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Lower bound of the {@code Retry-After} sent with rejections; the observed latency is used when longer. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /** Samples after which a group forgets its no-load latency and measures it again. */
+    private int probeInterval = 500;
+
+    /** Endpoint groups in matching order; a request belongs to the first group with a matching path prefix. */
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    public static class Group {
+
+        private List<String> paths = new ArrayList<>();
+
+        private int initialLimit = 20;
+
+        private int minLimit = 2;
+
+        private int maxLimit = 200;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public int getProbeInterval() {
+        return probeInterval;
+    }
+
+    public void setProbeInterval(int probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    public Map<String, Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, Group> groups) {
+        this.groups = groups;
+    }
+}
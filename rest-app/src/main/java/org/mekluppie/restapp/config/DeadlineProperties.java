@@ -0,0 +1,69 @@
+package org.mekluppie.restapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request deadlines on {@code /api/**}. Configure under {@code mekluppie.web.deadline} in application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.web.deadline")
+public class DeadlineProperties {
+
+    /** Request header in which clients state how long they will wait, e.g. {@code 5000} (ms) or {@code 5s}. */
+    private String header = "X-Request-Timeout";
+
+    /** Deadline for endpoints without their own default. */
+    private Duration defaultTimeout = Duration.ofSeconds(30);
+
+    /** Lower bound on deadlines requested through the header. */
+    private Duration minTimeout = Duration.ofMillis(100);
+
+    /** Upper bound on deadlines requested through the header. */
+    private Duration maxTimeout = Duration.ofMinutes(2);
+
+    /** Default deadline per endpoint path. */
+    private Map<String, Duration> endpoints = new LinkedHashMap<>();
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getMinTimeout() {
+        return minTimeout;
+    }
+
+    public void setMinTimeout(Duration minTimeout) {
+        this.minTimeout = minTimeout;
+    }
+
+    public Duration getMaxTimeout() {
+        return maxTimeout;
+    }
+
+    public void setMaxTimeout(Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+
+    public Map<String, Duration> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Duration> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
@@ -0,0 +1,39 @@
+package org.mekluppie.restapp.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.mekluppie.restapp.web.ResponseEncodingFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Adds CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) next to JSON, selected
+ * through the {@code Accept} header, and registers the compressing, caching {@link ResponseEncodingFilter}.
+ */
+@Configuration
+@EnableConfigurationProperties(EncodingProperties.class)
+public class EncodingConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseEncodingFilter> responseEncodingFilter(EncodingProperties properties) {
+        FilterRegistrationBean<ResponseEncodingFilter> registration =
+                new FilterRegistrationBean<>(new ResponseEncodingFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,68 @@
+package org.mekluppie.restapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for response compression and the cache of encoded responses on {@code /api/**}.
+ * Configure under {@code mekluppie.web.encoding} in application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.web.encoding")
+public class EncodingProperties {
+
+    /** Responses smaller than this are sent uncompressed. */
+    private int minCompressSize = 1024;
+
+    /** GET endpoints whose encoded responses are cached and reused. */
+    private List<String> cacheablePaths = new ArrayList<>();
+
+    /** Endpoints that stream their response and must not be buffered for compression. */
+    private List<String> streamingPaths = new ArrayList<>();
+
+    private Duration cacheTtl = Duration.ofMinutes(5);
+
+    private int cacheMaxEntries = 1000;
+
+    public int getMinCompressSize() {
+        return minCompressSize;
+    }
+
+    public void setMinCompressSize(int minCompressSize) {
+        this.minCompressSize = minCompressSize;
+    }
+
+    public List<String> getCacheablePaths() {
+        return cacheablePaths;
+    }
+
+    public void setCacheablePaths(List<String> cacheablePaths) {
+        this.cacheablePaths = cacheablePaths;
+    }
+
+    public List<String> getStreamingPaths() {
+        return streamingPaths;
+    }
+
+    public void setStreamingPaths(List<String> streamingPaths) {
+        this.streamingPaths = streamingPaths;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+}
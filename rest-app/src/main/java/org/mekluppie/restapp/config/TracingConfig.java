@@ -0,0 +1,37 @@
+package org.mekluppie.restapp.config;
+
+import org.mekluppie.restapp.tracing.FileSpanExporter;
+import org.mekluppie.restapp.tracing.PayloadSizeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+
+/**
+ * Tracing additions on top of Spring Boot's OpenTelemetry support: request and response sizes on the HTTP server
+ * spans, and an optional exporter that writes spans to a local file.
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "mekluppie.tracing", name = "file")
+    public FileSpanExporter fileSpanExporter(TracingProperties properties) throws IOException {
+        return new FileSpanExporter(properties.getFile());
+    }
+
+    /**
+     * Runs just inside the server observation filter, so it measures the bytes actually sent after compression.
+     */
+    @Bean
+    public FilterRegistrationBean<PayloadSizeFilter> payloadSizeFilter() {
+        FilterRegistrationBean<PayloadSizeFilter> registration = new FilterRegistrationBean<>(new PayloadSizeFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
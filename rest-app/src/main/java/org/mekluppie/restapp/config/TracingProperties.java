@@ -0,0 +1,27 @@
+package org.mekluppie.restapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Local span export. Configure under {@code mekluppie.tracing} in application.yaml; OTLP export is configured
+ * with Spring Boot's {@code management.otlp.tracing.*} properties.
+ */
+@ConfigurationProperties(prefix = "mekluppie.tracing")
+public class TracingProperties {
+
+    /**
+     * File that finished spans are appended to as JSON lines; no file export when unset. The file grows without
+     * rotation, so set it only while collecting spans for an analysis.
+     */
+    private Path file;
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+}
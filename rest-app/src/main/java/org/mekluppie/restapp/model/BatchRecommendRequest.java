@@ -0,0 +1,6 @@
+package org.mekluppie.restapp.model;
+
+import java.util.List;
+
+public record BatchRecommendRequest(List<String> queries) {
+}
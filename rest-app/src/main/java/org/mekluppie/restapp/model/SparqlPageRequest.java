@@ -0,0 +1,4 @@
+package org.mekluppie.restapp.model;
+
+public record SparqlPageRequest(String query, Integer limit, Integer offset, String after) {
+}
@@ -0,0 +1,154 @@
+package org.mekluppie.restapp.tracing;
+
+import io.micrometer.common.KeyValue;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Optional;
+
+/**
+ * Adds the request and response body sizes to the current HTTP server observation. The response size is left
+ * out for asynchronous (streamed) responses, which are still being written when the filter chain returns.
+ * Bodies written through either the output stream or the writer are counted.
+ */
+public class PayloadSizeFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<ServerRequestObservationContext> context = ServerHttpObservationFilter.findObservationContext(request);
+        if (context.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CountingResponse counting = new CountingResponse(response);
+        try {
+            chain.doFilter(request, counting);
+        } finally {
+            counting.flushWriter();
+            if (request.getContentLengthLong() >= 0) {
+                context.get().addHighCardinalityKeyValue(
+                        KeyValue.of("http.request.body.size", String.valueOf(request.getContentLengthLong())));
+            }
+            if (!request.isAsyncStarted()) {
+                context.get().addHighCardinalityKeyValue(
+                        KeyValue.of("http.response.body.size", String.valueOf(counting.bytes())));
+            }
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private CountingOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        /**
+         * Encodes text through the counting stream, so bodies written as characters are counted too.
+         */
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called for this response");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            flushWriter();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            flushWriter();
+            super.reset();
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        long bytes() {
+            return outputStream != null ? outputStream.count : 0;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private long count;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.mekluppie.restapp.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to latency, after TCP Vegas.
+ * <p>
+ * The limiter keeps the lowest latency seen as the no-load latency and estimates from every sample how many
+ * requests are queueing: {@code limit * (1 - noLoad / latency)}. A short queue means the upstreams have room and
+ * the limit grows; a long queue, or a failed request, shrinks it. Growth only happens while the limit is
+ * actually being used, so an idle group does not build up a limit it never tested. The no-load latency is
+ * measured afresh every {@code probeInterval} samples, so the limiter follows upstreams that became slower.
+ */
+class AdaptiveLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeInterval;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private long noLoadNanos = Long.MAX_VALUE;
+    private long smoothedNanos;
+    private int samples;
+
+    AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, int probeInterval) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return whether the request may proceed; if so, {@link #release} must follow
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends a request admitted by {@link #tryAcquire}.
+     *
+     * @param latencyNanos time the request took, or a negative value when it says nothing about upstream health
+     * @param failed       whether the request failed in a way that points at overload
+     */
+    void release(long latencyNanos, boolean failed) {
+        int concurrent = inFlight.getAndDecrement();
+        if (latencyNanos >= 0) {
+            sample(latencyNanos, concurrent, failed);
+        }
+    }
+
+    private synchronized void sample(long latencyNanos, int concurrent, boolean failed) {
+        if (++samples % probeInterval == 0) {
+            noLoadNanos = latencyNanos;
+        }
+        noLoadNanos = Math.min(noLoadNanos, latencyNanos);
+        smoothedNanos = smoothedNanos == 0 ? latencyNanos : (smoothedNanos * 7 + latencyNanos) / 8;
+
+        double current = limit;
+        double step = Math.max(1.0, Math.log10(current));
+        double next = current;
+        if (failed) {
+            next = current - step;
+        } else {
+            double queue = current * (1.0 - (double) noLoadNanos / latencyNanos);
+            double alpha = 3 * step;
+            double beta = 6 * step;
+            if (queue < alpha && concurrent * 2 >= current) {
+                next = current + step;
+            } else if (queue > beta) {
+                next = current - step;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /** Recent latency, used to tell rejected clients when to come back. */
+    synchronized long smoothedLatencyNanos() {
+        return smoothedNanos;
+    }
+}
@@ -0,0 +1,151 @@
+package org.mekluppie.restapp.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mekluppie.restapp.config.AdmissionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load per endpoint group before it reaches the controllers. Each group has an {@link AdaptiveLimiter};
+ * requests beyond its current limit are rejected at once with 503 and {@code Retry-After} instead of queueing
+ * for threads, so a slow upstream only degrades the endpoints that depend on it.
+ * <p>
+ * Streamed responses hold their slot until they complete, but their duration is not fed back into the limit.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private record Group(String name, List<String> paths, AdaptiveLimiter limiter, Counter rejected) { }
+
+    private final AdmissionProperties properties;
+    private final List<Group> groups = new ArrayList<>();
+
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (Map.Entry<String, AdmissionProperties.Group> entry : properties.getGroups().entrySet()) {
+            AdmissionProperties.Group config = entry.getValue();
+            AdaptiveLimiter limiter = new AdaptiveLimiter(config.getInitialLimit(), config.getMinLimit(),
+                    config.getMaxLimit(), properties.getProbeInterval());
+            Gauge.builder("mekluppie.admission.limit", limiter, AdaptiveLimiter::limit)
+                    .tag("group", entry.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("mekluppie.admission.inflight", limiter, AdaptiveLimiter::inFlight)
+                    .tag("group", entry.getKey())
+                    .register(meterRegistry);
+            Counter rejected = Counter.builder("mekluppie.admission.rejected")
+                    .tag("group", entry.getKey())
+                    .register(meterRegistry);
+            groups.add(new Group(entry.getKey(), config.getPaths(), limiter, rejected));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || group(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Group group = group(request);
+        AdaptiveLimiter limiter = group.limiter();
+        if (!limiter.tryAcquire()) {
+            reject(group, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limiter));
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                limiter.release(System.nanoTime() - start, isOverloadFailure(request, response.getStatus()));
+            }
+        }
+    }
+
+    private void reject(Group group, HttpServletResponse response) throws IOException {
+        group.rejected().increment();
+        long latencySeconds = TimeUnit.NANOSECONDS.toSeconds(group.limiter().smoothedLatencyNanos());
+        long retryAfter = Math.max(properties.getRetryAfter().toSeconds(), latencySeconds);
+        logger.debug("Rejecting {} request: {} in flight, limit {}", group.name(), group.limiter().inFlight(),
+                group.limiter().limit());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter)));
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many concurrent " + group.name() + " requests");
+    }
+
+    /**
+     * 502-504 are what a struggling upstream produces; 500 is as likely to be a bug. A 504 on a deadline the client
+     * chose itself says nothing about the server.
+     */
+    private static boolean isOverloadFailure(HttpServletRequest request, int status) {
+        if (status == HttpServletResponse.SC_GATEWAY_TIMEOUT) {
+            return !Boolean.TRUE.equals(request.getAttribute(DeadlineFilter.CLIENT_DEADLINE_EXPIRED));
+        }
+        return status == HttpServletResponse.SC_BAD_GATEWAY || status == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+    }
+
+    private Group group(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (Group group : groups) {
+            for (String prefix : group.paths()) {
+                if (path.startsWith(prefix)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+        private final AdaptiveLimiter limiter;
+        private boolean released;
+
+        ReleaseOnComplete(AdaptiveLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public synchronized void onComplete(AsyncEvent event) {
+            if (!released) {
+                released = true;
+                limiter.release(-1, false);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onComplete(event);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
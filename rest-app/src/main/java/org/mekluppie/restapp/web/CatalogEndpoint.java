@@ -0,0 +1,37 @@
+package org.mekluppie.restapp.web;
+
+import org.mekluppie.services.catalog.CatalogSnapshot;
+import org.mekluppie.services.catalog.CatalogSnapshots;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shows which catalog this node is serving, to check that a reload reached every node. Not exposed over HTTP
+ * unless added to {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "catalog")
+public class CatalogEndpoint {
+
+    private final CatalogSnapshots catalogs;
+
+    public CatalogEndpoint(CatalogSnapshots catalogs) {
+        this.catalogs = catalogs;
+    }
+
+    @ReadOperation
+    public Map<String, Object> current() {
+        CatalogSnapshot catalog = catalogs.current();
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("version", catalog.version());
+        details.put("bundled", catalog.bundled());
+        details.put("datasets", catalog.datasets().size());
+        details.put("sources", catalog.sources().size());
+        details.put("createdAt", catalog.createdAt().toString());
+        return details;
+    }
+}
@@ -0,0 +1,71 @@
+package org.mekluppie.restapp.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mekluppie.restapp.config.DeadlineProperties;
+import org.mekluppie.services.deadline.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Binds a {@link Deadline} to every API request. The budget comes from the client's timeout header, kept
+ * between {@code min-timeout} and {@code max-timeout}, or else from the endpoint's configured default; upstream
+ * calls made while handling the request are bounded by what is left of it.
+ * <p>
+ * A request whose client-chosen budget ran out is marked with {@link #CLIENT_DEADLINE_EXPIRED}, so the timeout
+ * is not mistaken for the server being overloaded.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    /** Request attribute set when the deadline from the client's header expired while handling the request. */
+    public static final String CLIENT_DEADLINE_EXPIRED = DeadlineFilter.class.getName() + ".CLIENT_DEADLINE_EXPIRED";
+
+    private final DeadlineProperties properties;
+
+    public DeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration requested = requestedBudget(request);
+        Duration budget = requested != null ? requested
+                : properties.getEndpoints().getOrDefault(request.getRequestURI(), properties.getDefaultTimeout());
+        Deadline deadline = Deadline.after(budget);
+        try (Deadline.Scope scope = deadline.enter()) {
+            chain.doFilter(request, response);
+        } finally {
+            if (requested != null && deadline.isExpired()) {
+                request.setAttribute(CLIENT_DEADLINE_EXPIRED, true);
+            }
+        }
+    }
+
+    /** The budget from the client's header, clamped to the configured bounds, or {@code null} without one. */
+    private Duration requestedBudget(HttpServletRequest request) {
+        String requested = request.getHeader(properties.getHeader());
+        if (requested != null && !requested.isBlank()) {
+            try {
+                Duration budget = DurationStyle.detectAndParse(requested.strip());
+                if (!budget.isNegative()) {
+                    if (budget.compareTo(properties.getMinTimeout()) < 0) {
+                        return properties.getMinTimeout();
+                    }
+                    return budget.compareTo(properties.getMaxTimeout()) > 0 ? properties.getMaxTimeout() : budget;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.debug("Ignoring invalid {} header: {}", properties.getHeader(), requested);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package org.mekluppie.restapp.web;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU cache of fully encoded (serialised and, where applicable, compressed) response bodies.
+ */
+class EncodedResponseCache {
+
+    record EncodedResponse(byte[] body, String contentType, String contentEncoding, String etag, long createdAt) { }
+
+    private final long ttlMillis;
+    private final Map<String, EncodedResponse> entries;
+
+    EncodedResponseCache(Duration ttl, int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EncodedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized EncodedResponse get(String key) {
+        EncodedResponse response = entries.get(key);
+        if (response != null && System.currentTimeMillis() - response.createdAt() > ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return response;
+    }
+
+    synchronized void put(String key, EncodedResponse response) {
+        entries.put(key, response);
+    }
+}
@@ -0,0 +1,69 @@
+package org.mekluppie.restapp.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mekluppie.services.deadline.Deadline;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Streams objects to the client as newline-delimited JSON, flushing after every line.
+ * <p>
+ * The producer runs within the request's {@link Deadline}, which is cancelled as soon as a write fails because
+ * the client went away, so the producer stops starting new upstream work.
+ */
+public final class NdjsonStream {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private NdjsonStream() {
+    }
+
+    /**
+     * @param producer called with a sink that writes one JSON line per object; it may be called from any thread
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Consumer<Consumer<T>> producer) {
+        Deadline deadline = Deadline.current().orElse(null);
+        StreamingResponseBody body = out -> {
+            Consumer<T> sink = item -> {
+                try {
+                    writeLine(objectMapper, out, item);
+                } catch (UncheckedIOException e) {
+                    if (deadline != null) {
+                        deadline.cancel();
+                    }
+                    throw e;
+                }
+            };
+            if (deadline == null) {
+                producer.accept(sink);
+                return;
+            }
+            try (Deadline.Scope scope = deadline.enter()) {
+                producer.accept(sink);
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Lines of one stream never interleave; other streams are not held up by a slow client.
+     */
+    private static void writeLine(ObjectMapper objectMapper, OutputStream out, Object item) {
+        try {
+            byte[] line = objectMapper.writeValueAsBytes(item);
+            synchronized (out) {
+                out.write(line);
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.mekluppie.restapp.web;
+
+import org.mekluppie.services.cache.DistributedCaches;
+import org.mekluppie.services.cache.NearCache;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lists the near-caches of this node and invalidates one on all nodes. Not exposed over HTTP unless added to
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "nearcaches")
+public class NearCachesEndpoint {
+
+    private final DistributedCaches caches;
+
+    public NearCachesEndpoint(DistributedCaches caches) {
+        this.caches = caches;
+    }
+
+    @ReadOperation
+    public Map<String, Integer> localSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (String name : caches.names()) {
+            caches.find(name).ifPresent(cache -> sizes.put(name, cache.localSize()));
+        }
+        return sizes;
+    }
+
+    @DeleteOperation
+    public boolean invalidate(@Selector String name) {
+        return caches.find(name).map(cache -> {
+            cache.invalidateAll();
+            return true;
+        }).orElse(false);
+    }
+}
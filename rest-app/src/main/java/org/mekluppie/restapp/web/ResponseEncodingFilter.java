@@ -0,0 +1,183 @@
+package org.mekluppie.restapp.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mekluppie.restapp.config.EncodingProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses {@code /api/**} responses with gzip when the client accepts it and the body is at least
+ * {@code min-compress-size} bytes, and caches the encoded bytes of GET endpoints listed under
+ * {@code cacheable-paths} so repeated requests skip both serialisation and compression.
+ * <p>
+ * Streaming responses (NDJSON, server-sent events, {@code streaming-paths}) are passed through untouched. Only
+ * successful responses that may be stored get an ETag.
+ */
+public class ResponseEncodingFilter extends OncePerRequestFilter {
+
+    private static final List<String> COMPRESSIBLE_TYPES = List.of(
+            "application/json", "application/cbor", "application/x-jackson-smile", "text/");
+    private static final List<String> STREAMING_TYPES = List.of("application/x-ndjson", "text/event-stream");
+
+    private final EncodingProperties properties;
+    private final EncodedResponseCache cache;
+
+    public ResponseEncodingFilter(EncodingProperties properties) {
+        this.properties = properties;
+        this.cache = new EncodedResponseCache(properties.getCacheTtl(), properties.getCacheMaxEntries());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (properties.getStreamingPaths().contains(request.getRequestURI())) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && STREAMING_TYPES.stream().anyMatch(accept::contains);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String cacheKey = isCacheable(request) ? cacheKey(request, gzip) : null;
+
+        if (cacheKey != null) {
+            EncodedResponseCache.EncodedResponse cached = cache.get(cacheKey);
+            if (cached != null) {
+                write(cached, request, response);
+                return;
+            }
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (request.isAsyncStarted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        String contentType = wrapper.getContentType();
+        boolean compress = gzip
+                && body.length >= properties.getMinCompressSize()
+                && isCompressible(contentType)
+                && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+
+        if (!compress && cacheKey == null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] payload = compress ? gzip(body) : body;
+        String etag = isTaggable(wrapper) ? '"' + DigestUtils.md5DigestAsHex(payload) + '"' : null;
+        EncodedResponseCache.EncodedResponse encoded = new EncodedResponseCache.EncodedResponse(payload, contentType,
+                compress ? "gzip" : null, etag, System.currentTimeMillis());
+        if (cacheKey != null && etag != null && wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            cache.put(cacheKey, encoded);
+        }
+        wrapper.resetBuffer();
+        write(encoded, request, response);
+    }
+
+    private void write(EncodedResponseCache.EncodedResponse encoded, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        if (encoded.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, encoded.etag());
+            if (encoded.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        if (encoded.contentType() != null) {
+            response.setContentType(encoded.contentType());
+        }
+        if (encoded.contentEncoding() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoded.contentEncoding());
+        }
+        response.setContentLength(encoded.body().length);
+        response.getOutputStream().write(encoded.body());
+    }
+
+    private boolean isCacheable(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) && properties.getCacheablePaths().contains(request.getRequestURI());
+    }
+
+    private static String cacheKey(HttpServletRequest request, boolean gzip) {
+        return request.getRequestURI() + '?' + request.getQueryString()
+                + '|' + request.getHeader(HttpHeaders.ACCEPT)
+                + '|' + gzip;
+    }
+
+    /**
+     * Errors and {@code no-store} responses are not worth revalidating, so they get no ETag.
+     */
+    private static boolean isTaggable(HttpServletResponse response) {
+        String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+        return response.getStatus() >= 200 && response.getStatus() < 300
+                && (cacheControl == null || !cacheControl.toLowerCase(Locale.ROOT).contains("no-store"));
+    }
+
+    /**
+     * True if gzip, or else {@code *}, is listed with a quality above zero; an explicit {@code gzip;q=0} wins
+     * over {@code *}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality(parameters);
+            } else if (name.equals("*")) {
+                any = quality(parameters);
+            }
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
+
+    /** A malformed quality counts as zero, so the coding is not used. */
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType != null && COMPRESSIBLE_TYPES.stream().anyMatch(contentType::startsWith);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,28 @@
+package org.mekluppie.restapp.tracing;
+
+import io.micrometer.common.KeyValue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PayloadSizeFilterTest {
+
+    @Test
+    void countsBodiesWrittenAsText() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/status");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+        ServerRequestObservationContext context = new ServerRequestObservationContext(request, response);
+        request.setAttribute(ServerHttpObservationFilter.CURRENT_OBSERVATION_CONTEXT_ATTRIBUTE, context);
+
+        new PayloadSizeFilter().doFilter(request, response, (req, res) -> res.getWriter().write("Café"));
+
+        assertEquals("Café", response.getContentAsString());
+        assertEquals(KeyValue.of("http.response.body.size", "5"),
+                context.getHighCardinalityKeyValue("http.response.body.size"));
+    }
+}
@@ -0,0 +1,98 @@
+package org.mekluppie.restapp.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void rejectsBeyondTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 10, 1000);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(-1, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsWhileTheLimitIsUsedAndLatencyStaysLow() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 10, 1000);
+
+        for (int round = 0; round < 20; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(FAST, false);
+            }
+        }
+
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void doesNotGrowWhileIdle() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 10, 1000);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void backsOffWhenLatencyShowsQueueing() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(40, 2, 100, 1000);
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, false);
+        }
+
+        assertTrue(limiter.limit() < 30, "limit " + limiter.limit());
+    }
+
+    @Test
+    void backsOffOnFailuresDownToTheMinimum() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(5, 2, 10, 1000);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(4, limiter.limit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, true);
+        }
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void ignoresRequestsWithoutLatency() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(5, 2, 10, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(-1, true);
+        }
+
+        assertEquals(5, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+}
@@ -0,0 +1,101 @@
+package org.mekluppie.restapp.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.mekluppie.restapp.config.AdmissionProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(properties(), registry);
+
+    @Test
+    void rejectsRequestsBeyondTheGroupLimitWithRetryAfter() throws Exception {
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+
+        MockHttpServletResponse outer = send("/api/terms/suggest", (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("POST", "/api/terms/suggest"), inner, new MockFilterChain()));
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, inner.getStatus());
+        assertEquals("3", inner.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, registry.get("mekluppie.admission.rejected").tag("group", "terms").counter().count());
+    }
+
+    @Test
+    void otherGroupsAndUngroupedPathsAreNotHeldUp() throws Exception {
+        MockHttpServletResponse otherGroup = new MockHttpServletResponse();
+        MockHttpServletResponse ungrouped = new MockHttpServletResponse();
+
+        send("/api/terms/suggest", (request, response) -> {
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/datasets/recommend"), otherGroup, new MockFilterChain());
+            filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), ungrouped, new MockFilterChain());
+        });
+
+        assertEquals(200, otherGroup.getStatus());
+        assertEquals(200, ungrouped.getStatus());
+    }
+
+    @Test
+    void releasesTheSlotWhenTheRequestEnds() throws Exception {
+        send("/api/terms/suggest", new MockFilterChain());
+        MockHttpServletResponse next = send("/api/terms/suggest", new MockFilterChain());
+
+        assertEquals(200, next.getStatus());
+        assertEquals(0.0, registry.get("mekluppie.admission.inflight").tag("group", "terms").gauge().value());
+    }
+
+    @Test
+    void timeoutsOfTheClientsOwnDeadlineDoNotShrinkTheLimit() throws Exception {
+        AdmissionProperties properties = properties();
+        properties.getGroups().get("terms").setInitialLimit(10);
+        properties.getGroups().get("terms").setMaxLimit(20);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, registry);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/terms/suggest"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    request.setAttribute(DeadlineFilter.CLIENT_DEADLINE_EXPIRED, true);
+                    ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                });
+        assertEquals(10.0, registry.get("mekluppie.admission.limit").tag("group", "terms").gauge().value());
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/terms/suggest"), new MockHttpServletResponse(),
+                (request, response) -> ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT));
+        assertEquals(9.0, registry.get("mekluppie.admission.limit").tag("group", "terms").gauge().value());
+    }
+
+    private MockHttpServletResponse send(String path, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", path), response, chain);
+        return response;
+    }
+
+    private static AdmissionProperties properties() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setRetryAfter(Duration.ofSeconds(3));
+        properties.getGroups().put("terms", group("/api/terms"));
+        properties.getGroups().put("datasets", group("/api/datasets"));
+        return properties;
+    }
+
+    private static AdmissionProperties.Group group(String path) {
+        AdmissionProperties.Group group = new AdmissionProperties.Group();
+        group.setPaths(List.of(path));
+        group.setInitialLimit(1);
+        group.setMinLimit(1);
+        group.setMaxLimit(1);
+        return group;
+    }
+}
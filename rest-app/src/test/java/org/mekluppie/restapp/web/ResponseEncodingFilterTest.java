@@ -0,0 +1,82 @@
+package org.mekluppie.restapp.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.mekluppie.restapp.config.EncodingProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseEncodingFilterTest {
+
+    private static final String BODY = "{\"datasets\":[" + "{\"title\":\"Kadaster\"},".repeat(100) + "{}]}";
+
+    @Test
+    void honoursQualityValues() {
+        assertTrue(ResponseEncodingFilter.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseEncodingFilter.acceptsGzip("br;q=1.0, gzip;q=0.5"));
+        assertTrue(ResponseEncodingFilter.acceptsGzip("*"));
+        assertFalse(ResponseEncodingFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseEncodingFilter.acceptsGzip("gzip;q=0.0, *;q=1"));
+        assertFalse(ResponseEncodingFilter.acceptsGzip("br, *;q=0"));
+        assertFalse(ResponseEncodingFilter.acceptsGzip("identity"));
+        assertFalse(ResponseEncodingFilter.acceptsGzip(null));
+    }
+
+    @Test
+    void compressesAndTagsSuccessfulResponses() throws Exception {
+        MockHttpServletResponse response = filter("gzip", (request, res) -> write(res, 200, null));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void leavesBodyUncompressedWhenGzipIsRefused() throws Exception {
+        MockHttpServletResponse response = filter("gzip;q=0", (request, res) -> write(res, 200, null));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, response.getContentAsString());
+    }
+
+    @Test
+    void doesNotTagErrorsOrNoStoreResponses() throws Exception {
+        MockHttpServletResponse error = filter("gzip", (request, res) -> write(res, 500, null));
+        MockHttpServletResponse noStore = filter("gzip", (request, res) -> write(res, 200, "no-store"));
+
+        assertEquals(500, error.getStatus());
+        assertEquals("gzip", error.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(error.getHeader(HttpHeaders.ETAG));
+        assertNull(noStore.getHeader(HttpHeaders.ETAG));
+    }
+
+    private static MockHttpServletResponse filter(String acceptEncoding, FilterChain chain) throws Exception {
+        EncodingProperties properties = new EncodingProperties();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/datasets/recommend");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new ResponseEncodingFilter(properties).doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void write(ServletResponse response, int status, String cacheControl) throws IOException {
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(status);
+        if (cacheControl != null) {
+            http.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        http.setContentType("application/json");
+        http.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+    }
+}
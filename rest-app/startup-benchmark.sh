@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request of the rest app: from starting the JVM until /actuator/health answers.
+#
+# Build first, from the repository root:
+#   ./mvnw -pl rest-app -am -Pcds package            # plain and CDS
+#   ./mvnw -pl rest-app -am -Pcds,aot package        # plus AOT; the archive is then trained with AOT enabled
+#
+# Usage: rest-app/startup-benchmark.sh [runs] [port]
+# The app is started with the current environment, so set OPENAI_API_KEY, WEAVIATE_* etc. as for a real start.
+set -euo pipefail
+
+runs=${1:-5}
+port=${2:-18080}
+dir=$(cd "$(dirname "$0")/target/cds" && pwd)
+jar=$(ls "$dir"/*.jar | head -n 1)
+archive="$dir/application.jsa"
+aot=$(unzip -l "$jar" | grep -c '__ApplicationContextInitializer' > /dev/null && echo true || echo false)
+
+now_ms() {
+  date +%s%3N
+}
+
+# Prints the milliseconds until the first response, whatever its status.
+time_to_first_request() {
+  local start pid
+  start=$(now_ms)
+  java "$@" -jar "$jar" --server.port="$port" > /dev/null 2>&1 &
+  pid=$!
+  until curl -s -o /dev/null "http://localhost:$port/actuator/health"; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "failed"
+      return
+    fi
+    sleep 0.05
+  done
+  echo $(( $(now_ms) - start ))
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+}
+
+benchmark() {
+  local name=$1
+  shift
+  local times=()
+  for _ in $(seq "$runs"); do
+    times+=("$(time_to_first_request "$@")")
+  done
+  printf '%-10s median %6s ms   runs: %s\n' "$name" \
+    "$(printf '%s\n' "${times[@]}" | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')" "${times[*]}"
+}
+
+benchmark plain
+if [[ $aot == true ]]; then
+  benchmark aot -Dspring.aot.enabled=true
+fi
+if [[ -f $archive ]]; then
+  if [[ $aot == true ]]; then
+    benchmark aot+cds -XX:SharedArchiveFile="$archive" -Dspring.aot.enabled=true
+  else
+    benchmark cds -XX:SharedArchiveFile="$archive"
+  fi
+fi
@@ -0,0 +1,163 @@
+package org.mekluppie.services;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.observation.annotation.Observed;
+import org.mekluppie.services.config.BatchProperties;
+import org.mekluppie.services.model.BatchResult;
+import org.mekluppie.services.model.DatasetResponse;
+import org.mekluppie.services.model.SourceResponse;
+import org.mekluppie.services.ratelimit.LlmPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs source and dataset recommendations for many queries at once.
+ * <p>
+ * Queries are packed into as few LLM calls as the per-call query and token budgets allow, and those calls run
+ * in parallel with bounded concurrency. Results are handed to the sink as soon as their call finishes, each
+ * tagged with its input position. Queries a packed call leaves unanswered are retried on their own. All calls
+ * run at {@link LlmPriority#BATCH} so interactive requests are served first.
+ */
+@Service
+public class BatchRecommendationService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchRecommendationService.class);
+
+    private final SourcesSuggestionService sourcesSuggestionService;
+    private final DatasetSuggestionService datasetSuggestionService;
+    private final BatchProperties properties;
+
+    public BatchRecommendationService(SourcesSuggestionService sourcesSuggestionService,
+                                      DatasetSuggestionService datasetSuggestionService,
+                                      BatchProperties properties) {
+        this.sourcesSuggestionService = sourcesSuggestionService;
+        this.datasetSuggestionService = datasetSuggestionService;
+        this.properties = properties;
+    }
+
+    @Observed(name = "mekluppie.batch.sources", contextualName = "batch sources recommend")
+    public void recommendSources(List<String> queries, Consumer<BatchResult<SourceResponse>> sink) {
+        run(queries, sourcesSuggestionService::recommendSources, sourcesSuggestionService::recommendSources, sink);
+    }
+
+    @Observed(name = "mekluppie.batch.datasets", contextualName = "batch datasets suggest")
+    public void suggestDatasets(List<String> queries, Consumer<BatchResult<DatasetResponse>> sink) {
+        run(queries, datasetSuggestionService::suggestDataset, datasetSuggestionService::suggestDatasets, sink);
+    }
+
+    public int maxQueries() {
+        return properties.getMaxQueries();
+    }
+
+    private <R> void run(List<String> queries, Function<String, R> single, Function<List<String>, List<R>> packed,
+                         Consumer<BatchResult<R>> sink) {
+        if (queries.size() > properties.getMaxQueries()) {
+            throw new IllegalArgumentException("A batch may contain at most " + properties.getMaxQueries() + " queries");
+        }
+        List<List<Integer>> chunks = pack(queries);
+        logger.info("Running batch of {} queries as {} calls", queries.size(), chunks.size());
+
+        Semaphore permits = new Semaphore(properties.getConcurrency());
+        Consumer<BatchResult<R>> synchronizedSink = result -> {
+            synchronized (sink) {
+                sink.accept(result);
+            }
+        };
+        try (ExecutorService executor = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Integer> chunk : chunks) {
+                futures.add(executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        LlmPriority.callAs(LlmPriority.BATCH, () -> {
+                            runChunk(queries, chunk, single, packed, synchronizedSink);
+                            return null;
+                        });
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    logger.error("Batch chunk failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers are emitted only after the calls that produced them, so a failing sink ends the chunk instead of
+     * sending its queries through the fallback again.
+     */
+    private <R> void runChunk(List<String> queries, List<Integer> chunk, Function<String, R> single,
+                              Function<List<String>, List<R>> packed, Consumer<BatchResult<R>> sink) {
+        List<Integer> retry = chunk;
+        if (chunk.size() > 1) {
+            List<BatchResult<R>> answered = new ArrayList<>();
+            List<Integer> unanswered = new ArrayList<>();
+            try {
+                List<R> answers = packed.apply(chunk.stream().map(queries::get).toList());
+                for (int i = 0; i < chunk.size(); i++) {
+                    int index = chunk.get(i);
+                    if (answers.get(i) != null) {
+                        answered.add(BatchResult.success(index, queries.get(index), answers.get(i)));
+                    } else {
+                        unanswered.add(index);
+                    }
+                }
+                retry = unanswered;
+            } catch (Exception e) {
+                logger.warn("Packed call for {} queries failed, retrying one by one: {}", chunk.size(), e.getMessage());
+                answered.clear();
+            }
+            answered.forEach(sink);
+        }
+        for (int index : retry) {
+            String query = queries.get(index);
+            BatchResult<R> result;
+            try {
+                result = BatchResult.success(index, query, single.apply(query));
+            } catch (Exception e) {
+                logger.warn("Recommendation for query {} failed: {}", index, e.getMessage());
+                result = BatchResult.failure(index, query, e.getMessage());
+            }
+            sink.accept(result);
+        }
+    }
+
+    /**
+     * Groups query positions into calls that respect both the per-call query limit and token budget.
+     */
+    private List<List<Integer>> pack(List<String> queries) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int tokens = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            int queryTokens = MultiQueryPrompt.estimateTokens(queries.get(i));
+            if (!current.isEmpty() && (current.size() >= properties.getMaxQueriesPerCall()
+                    || tokens + queryTokens > properties.getMaxQueryTokensPerCall())) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                tokens = 0;
+            }
+            current.add(i);
+            tokens += queryTokens;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+}
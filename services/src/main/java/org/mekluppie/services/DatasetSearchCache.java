@@ -0,0 +1,58 @@
+package org.mekluppie.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of the top-N nearest datasets per Weaviate class and concept. A cached list answers any request within
+ * its depth, and any request at all when the search returned fewer results than asked for.
+ */
+class DatasetSearchCache {
+
+    private record Key(String className, String concept) { }
+
+    private record Entry(List<InitializeWeaviate.QueryResult> results, int depth) { }
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    DatasetSearchCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized List<InitializeWeaviate.QueryResult> get(String className, String concept, int needed) {
+        Entry entry = entries.get(new Key(className, concept));
+        if (entry == null || (entry.depth() < needed && entry.results().size() >= entry.depth())) {
+            return null;
+        }
+        return entry.results();
+    }
+
+    synchronized void put(String className, String concept, List<InitializeWeaviate.QueryResult> results, int depth) {
+        entries.put(new Key(className, concept), new Entry(List.copyOf(results), depth));
+    }
+
+    /** The concepts of {@code className} used most recently, at most {@code max}. */
+    synchronized List<String> recentConcepts(String className, int max) {
+        List<String> concepts = new ArrayList<>();
+        for (Key key : entries.sequencedKeySet().reversed()) {
+            if (concepts.size() == max) {
+                break;
+            }
+            if (key.className().equals(className)) {
+                concepts.add(key.concept());
+            }
+        }
+        return concepts;
+    }
+
+    synchronized void clear(String className) {
+        entries.keySet().removeIf(key -> key.className().equals(className));
+    }
+}
@@ -1,25 +1,51 @@
 package org.mekluppie.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import io.weaviate.client.WeaviateClient;
 import io.weaviate.client.base.Result;
+import io.weaviate.client.v1.batch.model.ObjectGetResponse;
+import io.weaviate.client.v1.data.model.WeaviateObject;
 import io.weaviate.client.v1.graphql.model.GraphQLResponse;
+import io.weaviate.client.v1.graphql.query.Get;
+import io.weaviate.client.v1.graphql.query.argument.NearVectorArgument;
 import io.weaviate.client.v1.schema.model.DataType;
 import io.weaviate.client.v1.schema.model.Property;
 import io.weaviate.client.v1.schema.model.WeaviateClass;
-import jakarta.annotation.PostConstruct;
+import org.mekluppie.services.catalog.CatalogSnapshot;
+import org.mekluppie.services.catalog.CatalogSnapshots;
+import org.mekluppie.services.config.EmbeddingProperties;
+import org.mekluppie.services.config.IngestProperties;
+import org.mekluppie.services.config.VectorSearchProperties;
+import org.mekluppie.services.coordination.LeaseCoordinator;
+import org.mekluppie.services.ingest.DcatReader;
 import org.mekluppie.services.model.DatasetResponse;
+import org.mekluppie.services.resilience.Bulkhead;
+import org.mekluppie.services.resilience.Bulkheads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Service to initialize Weaviate cluster and create schema for DatasetResponse.
@@ -30,10 +56,24 @@ public class InitializeWeaviate {
 
     private static final Logger log = LoggerFactory.getLogger(InitializeWeaviate.class);
     private static final String CLASS_NAME = "Dataset";
+    /** Class of the import markers, one per class whose import completed. */
+    static final String IMPORT_CLASS = "MekluppieImport";
     
     private final WeaviateClient client;
     private final ObjectMapper objectMapper;
     private final ResourceLoader resourceLoader;
+    private final EmbeddingModel embeddingModel;
+    /** With local embeddings the vectors are computed here rather than by Weaviate's OpenAI vectorizer. */
+    private final boolean localVectors;
+    /** Class of the bundled catalog; other catalogs get a class of their own, see {@link CatalogSnapshot#vectorClass}. */
+    private final String baseClassName;
+    private final CatalogSnapshots catalogs;
+    private final VectorSearchProperties searchProperties;
+    private final IngestProperties ingestProperties;
+    private final ObservationRegistry observationRegistry;
+    private final DatasetSearchCache searchCache;
+    private final Bulkhead bulkhead;
+    private final LeaseCoordinator coordinator;
 
     /**
      * Constructor using Spring Boot's autoconfigured WeaviateClient.
@@ -42,35 +82,194 @@ public class InitializeWeaviate {
      * spring.ai.vectorstore.weaviate.scheme=http
      * spring.ai.vectorstore.weaviate.api-key= (optional)
      * 
+     * With {@code mekluppie.embedding.provider=onnx} the datasets live in a separate class without a vectorizer,
+     * because locally computed vectors are not comparable to OpenAI's.
+     * <p>
+     * Replicas starting together take turns through the {@link LeaseCoordinator}, so only the first creates and
+     * imports the schema. Which class is searched follows the current {@link CatalogSnapshots catalog snapshot}.
+     *
      * @param client Autowired WeaviateClient from Spring Boot starter
      */
-    public InitializeWeaviate(WeaviateClient client, ResourceLoader resourceLoader) {
+    public InitializeWeaviate(WeaviateClient client, ResourceLoader resourceLoader, EmbeddingModel embeddingModel,
+                              EmbeddingProperties embeddingProperties, VectorSearchProperties searchProperties,
+                              IngestProperties ingestProperties, Bulkheads bulkheads, LeaseCoordinator coordinator,
+                              CatalogSnapshots catalogs, ObjectProvider<ObservationRegistry> observationRegistry) {
         this.client = client;
         this.objectMapper = new ObjectMapper();
         this.resourceLoader = resourceLoader;
+        this.embeddingModel = embeddingModel;
+        this.localVectors = embeddingProperties.getProvider() == EmbeddingProperties.Provider.ONNX;
+        this.baseClassName = localVectors ? CLASS_NAME + "Onnx" : CLASS_NAME;
+        this.catalogs = catalogs;
+        this.searchProperties = searchProperties;
+        this.ingestProperties = ingestProperties;
+        this.observationRegistry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+        this.searchCache = new DatasetSearchCache(searchProperties.getCacheMaxEntries());
+        this.bulkhead = bulkheads.get(Bulkheads.WEAVIATE);
+        this.coordinator = coordinator;
     }
 
     /**
-     * Creates the schema for Dataset class in Weaviate based on DatasetResponse structure.
-     * 
-     * @return true if schema was created successfully, false otherwise
+     * Runs once the application is ready rather than while the context starts, so waiting for another replica's
+     * import does not hold up startup; the node reports itself ready to take traffic only after this returns.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (ingestProperties.isOnStartup()) {
+            createSchema();
+        } else {
+            log.info("Leaving the Weaviate schema alone, mekluppie.ingest.on-startup is off");
+        }
+    }
+
+    /**
+     * Creates the schema for Dataset class in Weaviate based on DatasetResponse structure, and imports the
+     * catalog into it. Only one replica at a time gets past the check for a completed import; the others wait for
+     * it and then find the import done.
+     *
+     * @return true if the schema exists or was created successfully, false otherwise
      */
-    @PostConstruct
     public boolean createSchema() {
+        return ensureClass(catalogs.current());
+    }
+
+    /**
+     * Creates and fills the Weaviate class of a catalog that is about to be swapped in, and searches the concepts
+     * searched most recently again in it, so the swap brings neither missing datasets nor a cold cache.
+     *
+     * @return true if the class is ready; the catalog must not be swapped in otherwise
+     */
+    public boolean prepare(CatalogSnapshot next, int warmConcepts) {
+        String current = className();
+        String className = next.vectorClass(baseClassName);
+        if (className.equals(current)) {
+            return true;
+        }
+        if (!ensureClass(next)) {
+            return false;
+        }
+        List<String> concepts = searchCache.recentConcepts(current, warmConcepts);
+        int batchSize = searchProperties.getMaxConcepts();
+        for (int from = 0; from < concepts.size(); from += batchSize) {
+            List<String> batch = concepts.subList(from, Math.min(concepts.size(), from + batchSize));
+            observe(className, "batch-query", batch.size(),
+                    () -> searchConcepts(className, batch, searchProperties.getCacheDepth()));
+        }
+        log.info("Class '{}' is ready, searched {} recent concepts in it", className, concepts.size());
+        return true;
+    }
+
+    /**
+     * Deletes the class of a catalog that has been replaced, unless it is the bundled catalog's or still in use.
+     */
+    public void retire(CatalogSnapshot previous) {
+        String className = previous.vectorClass(baseClassName);
+        if (!previous.bundled() && !className.equals(className())) {
+            deleteClass(className);
+        }
+    }
+
+    /** The class of the current catalog, read once per operation so an operation never spans two classes. */
+    private String className() {
+        return catalogs.current().vectorClass(baseClassName);
+    }
+
+    /**
+     * Makes sure the class of {@code catalog} exists and was filled completely. The class itself is no proof of
+     * that, because it is created before the import; an import marker is written once the import finishes. A class
+     * without one was left behind by an import that did not finish, and is rebuilt.
+     */
+    private boolean ensureClass(CatalogSnapshot catalog) {
+        String className = catalog.vectorClass(baseClassName);
+        if (isImported(className)) {
+            log.info("Schema '{}' already exists. Skipping creation.", className);
+            return true;
+        }
+        AtomicBoolean created = new AtomicBoolean();
+        try {
+            boolean ran = coordinator.runExclusively("weaviate-init-" + className, () -> {
+                if (isImported(className)) {
+                    log.info("Schema '{}' was created by another replica. Skipping creation.", className);
+                    created.set(true);
+                    return;
+                }
+                if (schemaExists(className)) {
+                    log.warn("Schema '{}' exists but its import never completed, rebuilding it", className);
+                    deleteClass(className);
+                }
+                created.set(createAndImport(className, catalog));
+            });
+            return ran ? created.get() : isImported(className);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isImported(String className) {
+        try {
+            Result<List<WeaviateObject>> marker = client.data().objectsGetter()
+                    .withClassName(IMPORT_CLASS)
+                    .withID(importId(className))
+                    .run();
+            return marker.getResult() != null && !marker.getResult().isEmpty();
+        } catch (Exception e) {
+            log.debug("No import marker for '{}': {}", className, e.getMessage());
+            return false;
+        }
+    }
+
+    /** Records that {@code className} was filled completely; import markers are not searched, so no vectorizer. */
+    private boolean markImported(String className, int datasets) {
+        if (client.schema().classGetter().withClassName(IMPORT_CLASS).run().getResult() == null) {
+            WeaviateClass markerClass = WeaviateClass.builder()
+                    .className(IMPORT_CLASS)
+                    .description("Weaviate classes whose catalog import completed")
+                    .vectorizer("none")
+                    .properties(List.of(
+                            Property.builder().name("className").dataType(List.of(DataType.TEXT)).build(),
+                            Property.builder().name("datasets").dataType(List.of(DataType.INT)).build()))
+                    .build();
+            Result<Boolean> created = client.schema().classCreator().withClass(markerClass).run();
+            // another replica may have created it in the meantime
+            if (created.hasErrors() && client.schema().classGetter().withClassName(IMPORT_CLASS).run().getResult() == null) {
+                log.error("Cannot create import marker class: {}", created.getError());
+                return false;
+            }
+        }
+        Result<WeaviateObject> marker = client.data().creator()
+                .withClassName(IMPORT_CLASS)
+                .withID(importId(className))
+                .withProperties(Map.of("className", className, "datasets", datasets))
+                .run();
+        if (marker.hasErrors()) {
+            log.error("Cannot mark the import of '{}' complete: {}", className, marker.getError());
+            return false;
+        }
+        return true;
+    }
+
+    private static String importId(String className) {
+        return UUID.nameUUIDFromBytes(("import:" + className).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private boolean schemaExists(String className) {
         try {
-            // Check if class already exists
             Result<WeaviateClass> existingClass = client.schema().classGetter()
-                .withClassName(CLASS_NAME)
+                .withClassName(className)
                 .run();
-            
-            if (existingClass.getResult() != null) {
-                log.info("Schema '{}' already exists. Skipping creation.", CLASS_NAME);
-                return true;
-            }
+            return existingClass.getResult() != null;
         } catch (Exception e) {
             log.debug("Class does not exist yet, will create: {}", e.getMessage());
+            return false;
         }
+    }
 
+    /**
+     * Creates the class and imports the catalog into it. A catalog other than the bundled one must arrive in full;
+     * otherwise the class is deleted again, to be rebuilt on the next attempt.
+     */
+    private boolean createAndImport(String className, CatalogSnapshot catalog) {
         // Define properties based on DatasetResponse.DatasetItem
         Property titleProperty = Property.builder()
             .name("title")
@@ -92,10 +291,10 @@ public class InitializeWeaviate {
 
         // Create the class
         WeaviateClass datasetClass = WeaviateClass.builder()
-            .className(CLASS_NAME)
+            .className(className)
             .description("A dataset representing cultural heritage and library data")
             .properties(Arrays.asList(titleProperty, descriptionProperty, publisherProperty))
-            .vectorizer("text2vec-openai") // Using OpenAI embeddings
+            .vectorizer(localVectors ? "none" : "text2vec-openai")
             .build();
 
         try {
@@ -108,9 +307,22 @@ public class InitializeWeaviate {
                 return false;
             }
 
-            log.info("Schema '{}' created successfully", CLASS_NAME);
-            importDataFromJson("list.json");
-            return true;
+            log.info("Schema '{}' created successfully", className);
+            if (catalog.bundled()) {
+                int imported = importCatalog(className);
+                if (imported == 0) {
+                    log.error("Imported no datasets into '{}'", className);
+                    return false;
+                }
+                return markImported(className, imported);
+            }
+            int imported = importData(className, catalog.datasets());
+            if (imported < catalog.datasets().size()) {
+                log.error("Imported only {} of {} datasets into '{}'", imported, catalog.datasets().size(), className);
+                deleteClass(className);
+                return false;
+            }
+            return markImported(className, imported);
         } catch (Exception e) {
             log.error("Exception while creating schema", e);
             return false;
@@ -123,9 +335,14 @@ public class InitializeWeaviate {
      * @return true if deletion was successful, false otherwise
      */
     public boolean deleteSchema() {
+        return deleteClass(className());
+    }
+
+    private boolean deleteClass(String className) {
         try {
+            client.data().deleter().withClassName(IMPORT_CLASS).withID(importId(className)).run();
             Result<Boolean> result = client.schema().classDeleter()
-                .withClassName(CLASS_NAME)
+                .withClassName(className)
                 .run();
 
             if (result.hasErrors()) {
@@ -133,7 +350,8 @@ public class InitializeWeaviate {
                 return false;
             }
 
-            log.info("Schema '{}' deleted successfully", CLASS_NAME);
+            searchCache.clear(className);
+            log.info("Schema '{}' deleted successfully", className);
             return true;
         } catch (Exception e) {
             log.error("Exception while deleting schema", e);
@@ -149,13 +367,54 @@ public class InitializeWeaviate {
      * @throws IOException if file cannot be read
      */
     public int importDataFromJson(String jsonFilePath) throws IOException {
+        return importDataFromJson(className(), jsonFilePath);
+    }
+
+    private int importDataFromJson(String className, String jsonFilePath) throws IOException {
         Resource resource = resourceLoader.getResource("classpath:" + jsonFilePath);
         DatasetResponse.DatasetItem[] items = objectMapper.readValue(
                 resource.getInputStream(),
                 DatasetResponse.DatasetItem[].class
         );
 
-        return importData(Arrays.asList(items));
+        return importData(className, Arrays.asList(items));
+    }
+
+    /**
+     * Imports the dataset catalog: the configured DCAT dump when there is one, otherwise the bundled list.json.
+     *
+     * @return Number of items imported
+     * @throws IOException if list.json cannot be read
+     */
+    public int importCatalog() throws IOException {
+        return importCatalog(className());
+    }
+
+    private int importCatalog(String className) throws IOException {
+        return ingestProperties.getDcatDump() != null
+                ? importDcat(className, ingestProperties.getDcatDump())
+                : importDataFromJson(className, "list.json");
+    }
+
+    /**
+     * Streams the datasets of a DCAT dump into Weaviate batch by batch, without loading the dump in memory.
+     *
+     * @param dump Path to the RDF file describing {@code dcat:Dataset}s
+     * @return Number of items imported
+     */
+    public int importDcat(Path dump) {
+        return importDcat(className(), dump);
+    }
+
+    private int importDcat(String className, Path dump) {
+        DcatReader reader = new DcatReader(ingestProperties.getBatchSize(), ingestProperties.getWindow(),
+                ingestProperties.getLanguages());
+        AtomicInteger imported = new AtomicInteger();
+        DcatReader.Stats stats = reader.read(dump, batch -> imported.addAndGet(importBatch(className, batch)));
+        searchCache.clear(className);
+        log.info("Imported {} of {} datasets from {} ({} duplicates, {} without title)",
+                imported.get(), stats.datasets(), dump, stats.duplicates(), stats.skipped());
+        return imported.get();
     }
 
     /**
@@ -165,32 +424,73 @@ public class InitializeWeaviate {
      * @return Number of items imported successfully
      */
     public int importData(List<DatasetResponse.DatasetItem> items) {
+        return importData(className(), items);
+    }
+
+    private int importData(String className, List<DatasetResponse.DatasetItem> items) {
         int successCount = 0;
+        for (int from = 0; from < items.size(); from += ingestProperties.getBatchSize()) {
+            successCount += importBatch(className,
+                    items.subList(from, Math.min(items.size(), from + ingestProperties.getBatchSize())));
+        }
+
+        searchCache.clear(className);
+        log.info("Imported {} out of {} items", successCount, items.size());
+        return successCount;
+    }
+
+    /**
+     * Sends one batch of items to Weaviate in a single batch request.
+     */
+    private int importBatch(String className, List<DatasetResponse.DatasetItem> items) {
+        return observe(className, "import", items.size(), () -> sendBatch(className, items));
+    }
 
-        for (DatasetResponse.DatasetItem item : items) {
-            try {
+    private int sendBatch(String className, List<DatasetResponse.DatasetItem> items) {
+        try {
+            List<float[]> vectors = localVectors
+                    ? embeddingModel.embed(items.stream().map(item -> item.title() + ". " + item.description()).toList())
+                    : null;
+
+            WeaviateObject[] objects = new WeaviateObject[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                DatasetResponse.DatasetItem item = items.get(i);
                 Map<String, Object> dataObject = new HashMap<>();
                 dataObject.put("title", item.title());
                 dataObject.put("description", item.description());
                 dataObject.put("publisher", item.publisher());
 
-                Result<io.weaviate.client.v1.data.model.WeaviateObject> result = client.data().creator()
-                    .withClassName(CLASS_NAME)
-                    .withProperties(dataObject)
-                    .run();
+                WeaviateObject.WeaviateObjectBuilder object = WeaviateObject.builder()
+                    .className(className)
+                    .properties(dataObject);
+                if (vectors != null) {
+                    object = object.vector(boxed(vectors.get(i)));
+                }
+                objects[i] = object.build();
+            }
+
+            Result<ObjectGetResponse[]> result = client.batch().objectsBatcher()
+                .withObjects(objects)
+                .run();
+            if (result.hasErrors()) {
+                log.error("Error importing batch of {} items: {}", items.size(), result.getError());
+                return 0;
+            }
 
-                if (result.hasErrors()) {
-                    log.error("Error importing item '{}': {}", item.title(), result.getError());
+            int successCount = 0;
+            for (ObjectGetResponse response : result.getResult()) {
+                if (response.getResult() != null && response.getResult().getErrors() != null) {
+                    log.error("Error importing item '{}': {}", response.getProperties().get("title"),
+                            response.getResult().getErrors());
                 } else {
                     successCount++;
                 }
-            } catch (Exception e) {
-                log.error("Exception importing item '{}'", item.title(), e);
             }
+            return successCount;
+        } catch (Exception e) {
+            log.error("Exception importing batch of {} items", items.size(), e);
+            return 0;
         }
-
-        log.info("Imported {} out of {} items", successCount, items.size());
-        return successCount;
     }
 
     /**
@@ -225,6 +525,11 @@ public class InitializeWeaviate {
      * @return List of matching dataset items with their similarity scores
      */
     public List<QueryResult> queryDatasets(String query, int limit) {
+        String className = className();
+        return observe(className, "query", 1, () -> nearestDatasets(className, query, limit));
+    }
+
+    private List<QueryResult> nearestDatasets(String className, String query, int limit) {
         try {
             io.weaviate.client.v1.graphql.query.fields.Field[] fields = new io.weaviate.client.v1.graphql.query.fields.Field[]{
                 io.weaviate.client.v1.graphql.query.fields.Field.builder().name("title").build(),
@@ -233,21 +538,27 @@ public class InitializeWeaviate {
                 io.weaviate.client.v1.graphql.query.fields.Field.builder().name("_additional { distance }").build()
             };
             
-            Result<GraphQLResponse> result = client.graphQL().get()
-                    .withClassName(CLASS_NAME)
+            Get get = client.graphQL().get()
+                    .withClassName(className)
                     .withFields(fields)
-                    .withNearText(io.weaviate.client.v1.graphql.query.argument.NearTextArgument.builder()
-                            .concepts(new String[]{query})
-                            .build())
-                    .withLimit(limit)
-                    .run();
+                    .withLimit(limit);
+            if (localVectors) {
+                get = get.withNearVector(NearVectorArgument.builder()
+                        .vector(boxed(embeddingModel.embed(query)))
+                        .build());
+            } else {
+                get = get.withNearText(io.weaviate.client.v1.graphql.query.argument.NearTextArgument.builder()
+                        .concepts(new String[]{query})
+                        .build());
+            }
+            Result<GraphQLResponse> result = get.run();
 
             if (result.hasErrors()) {
                 log.error("Error querying datasets: {}", result.getError());
                 return List.of();
             }
 
-            return parseQueryResults(result.getResult());
+            return parseQueryResults(className, result.getResult());
         } catch (Exception e) {
             log.error("Exception while querying datasets", e);
             return List.of();
@@ -255,19 +566,128 @@ public class InitializeWeaviate {
     }
 
     /**
-     * Parses GraphQL response into QueryResult objects.
+     * Queries the Dataset collection for many concepts at once.
+     * <p>
+     * Concepts whose top-N is not cached are searched in a single GraphQL request with one aliased {@code Get}
+     * per concept; with local embeddings their vectors are computed in one batch. The top
+     * {@code max(offset + limit, cacheDepth)} results of every concept are cached, so later requests for smaller
+     * pages are served without a round-trip.
+     *
+     * @param concepts The search concepts; duplicates are searched once
+     * @param limit    Maximum number of results per concept
+     * @param offset   Number of nearest results to skip per concept
+     * @return The results per concept, in the order of {@code concepts}
+     * @throws IllegalArgumentException if {@code offset + limit} is beyond {@link #maxResults()}
      */
-    private List<QueryResult> parseQueryResults(io.weaviate.client.v1.graphql.model.GraphQLResponse response) {
-        List<QueryResult> results = new java.util.ArrayList<>();
+    public List<ConceptResults> queryDatasets(List<String> concepts, int limit, int offset) {
+        if (limit < 1 || offset < 0 || limit > maxResults() - offset) {
+            throw new IllegalArgumentException("limit must be at least 1, offset at least 0 and offset + limit at most "
+                    + maxResults());
+        }
+        String className = className();
+        int needed = offset + limit;
+        Map<String, List<QueryResult>> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String concept : new LinkedHashSet<>(concepts)) {
+            List<QueryResult> cached = searchCache.get(className, concept, needed);
+            if (cached != null) {
+                found.put(concept, cached);
+            } else {
+                missing.add(concept);
+            }
+        }
+        if (!missing.isEmpty()) {
+            int depth = Math.max(needed, searchProperties.getCacheDepth());
+            found.putAll(observe(className, "batch-query", missing.size(),
+                    () -> searchConcepts(className, missing, depth)));
+        }
 
+        return concepts.stream()
+                .map(concept -> {
+                    List<QueryResult> results = found.getOrDefault(concept, List.of());
+                    return new ConceptResults(concept, results.subList(Math.min(offset, results.size()),
+                            Math.min(needed, results.size())));
+                })
+                .toList();
+    }
+
+    public int maxConcepts() {
+        return searchProperties.getMaxConcepts();
+    }
+
+    /** The deepest result, {@code offset + limit}, a batched search may ask for per concept. */
+    public int maxResults() {
+        return searchProperties.getMaxResults();
+    }
+
+    /**
+     * Runs one GraphQL request with an aliased nearest-neighbour {@code Get} per concept and caches the results.
+     */
+    private Map<String, List<QueryResult>> searchConcepts(String className, List<String> concepts, int depth) {
+        try {
+            List<float[]> vectors = localVectors ? embeddingModel.embed(concepts) : null;
+            StringBuilder query = new StringBuilder("{ Get {");
+            for (int i = 0; i < concepts.size(); i++) {
+                query.append(" c").append(i).append(": ").append(className).append("(");
+                if (vectors != null) {
+                    query.append("nearVector: {vector: ").append(Arrays.toString(vectors.get(i))).append("}");
+                } else {
+                    query.append("nearText: {concepts: [").append(objectMapper.writeValueAsString(concepts.get(i)))
+                            .append("]}");
+                }
+                query.append(", limit: ").append(depth)
+                        .append(") { title description publisher _additional { distance } }");
+            }
+            query.append(" } }");
+
+            Result<GraphQLResponse> result = client.graphQL().raw().withQuery(query.toString()).run();
+            if (result.hasErrors()) {
+                log.error("Error querying datasets for {} concepts: {}", concepts.size(), result.getError());
+                return Map.of();
+            }
+            if (result.getResult().getErrors() != null && result.getResult().getErrors().length > 0) {
+                log.error("Error querying datasets for {} concepts: {}", concepts.size(),
+                        result.getResult().getErrors()[0].getMessage());
+                return Map.of();
+            }
+
+            Map<String, Object> data = (Map<String, Object>) result.getResult().getData();
+            Map<String, Object> get = data != null ? (Map<String, Object>) data.get("Get") : null;
+            Map<String, List<QueryResult>> found = new HashMap<>();
+            for (int i = 0; i < concepts.size(); i++) {
+                List<QueryResult> results = toQueryResults(get != null
+                        ? (List<Map<String, Object>>) get.get("c" + i)
+                        : null);
+                searchCache.put(className, concepts.get(i), results, depth);
+                found.put(concepts.get(i), results);
+            }
+            log.info("Searched {} concepts in one request", concepts.size());
+            return found;
+        } catch (Exception e) {
+            log.error("Exception while querying datasets for {} concepts", concepts.size(), e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Parses GraphQL response into QueryResult objects.
+     */
+    private List<QueryResult> parseQueryResults(String className,
+                                                io.weaviate.client.v1.graphql.model.GraphQLResponse response) {
         if (response.getData() == null) {
-            return results;
+            return new ArrayList<>();
         }
 
         Map<String, Object> data = (Map<String, Object>) response.getData();
         Map<String, Object> get = (Map<String, Object>) data.get("Get");
-        List<Map<String, Object>> datasets = (List<Map<String, Object>>) get.get(CLASS_NAME);
+        List<QueryResult> results = toQueryResults((List<Map<String, Object>>) get.get(className));
 
+        log.info("Found {} results for query", results.size());
+        return results;
+    }
+
+    private static List<QueryResult> toQueryResults(List<Map<String, Object>> datasets) {
+        List<QueryResult> results = new ArrayList<>();
         if (datasets != null) {
             for (Map<String, Object> dataset : datasets) {
                 String title = (String) dataset.get("title");
@@ -280,14 +700,34 @@ public class InitializeWeaviate {
                 results.add(new QueryResult(title, description, publisher, distance));
             }
         }
-
-        log.info("Found {} results for query", results.size());
         return results;
     }
 
+    private <T> T observe(String className, String operation, int objects, Supplier<T> call) {
+        return Observation.createNotStarted("mekluppie.weaviate", observationRegistry)
+                .contextualName("weaviate " + operation)
+                .lowCardinalityKeyValue("weaviate.operation", operation)
+                .lowCardinalityKeyValue("weaviate.class", className)
+                .highCardinalityKeyValue("weaviate.objects", String.valueOf(objects))
+                .observe(() -> bulkhead.call(call));
+    }
+
+    private static Float[] boxed(float[] vector) {
+        Float[] boxed = new Float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            boxed[i] = vector[i];
+        }
+        return boxed;
+    }
+
     /**
      * Result object for query responses.
      */
     public record QueryResult(String title, String description, String publisher, Double distance) {}
 
+    /**
+     * Nearest datasets for one concept of a batched query.
+     */
+    public record ConceptResults(String concept, List<QueryResult> results) {}
+
 }
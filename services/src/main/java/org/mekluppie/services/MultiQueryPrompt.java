@@ -0,0 +1,58 @@
+package org.mekluppie.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the user message for answering several independent queries in one LLM call, and maps the keyed
+ * answer back to input positions. Queries are keyed {@code q0, q1, ...}.
+ */
+public final class MultiQueryPrompt {
+
+    private MultiQueryPrompt() {
+    }
+
+    public static String key(int index) {
+        return "q" + index;
+    }
+
+    /**
+     * @param kind what is being recommended, e.g. "datasets" or "sources"
+     */
+    public static String userMessage(String kind, List<String> queries) {
+        StringBuilder keyed = new StringBuilder();
+        List<String> keys = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            keys.add(key(i));
+            keyed.append(key(i)).append(": ").append(queries.get(i).replace('\n', ' ')).append('\n');
+        }
+        return String.format("""
+                Here are several independent sets of terms to find %1$s for, one per line, each with its own key:
+                %2$s
+                Handle every key separately, exactly as if it were the only request.
+                Return all matching %1$s from the provided list that are relevant to each set of terms.
+                Match terms by meaning as well as by keywords.
+                Answer with one JSON object that has one property per key (%3$s), holding the result for that key.
+                Include every key, with an empty list when nothing matches.
+                """, kind, keyed, String.join(", ", keys));
+    }
+
+    /**
+     * Rough token estimate (about four characters per token), used to decide how many queries fit in one call.
+     */
+    public static int estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    /**
+     * @return the answers in input order, with {@code null} for keys the model did not answer
+     */
+    public static <T> List<T> inOrder(Map<String, T> answers, int count) {
+        List<T> ordered = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ordered.add(answers != null ? answers.get(key(i)) : null);
+        }
+        return ordered;
+    }
+}
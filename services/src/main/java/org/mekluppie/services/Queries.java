@@ -0,0 +1,26 @@
+package org.mekluppie.services;
+
+import java.util.Locale;
+
+/**
+ * Helpers for user queries.
+ */
+public final class Queries {
+
+    private Queries() {
+    }
+
+    /**
+     * Reduces a query to the form under which its results are cached: queries that differ only in case or spacing
+     * share results.
+     *
+     * @return the normalised query, or {@code null} for a missing or blank query
+     */
+    public static String normalize(String query) {
+        if (query == null) {
+            return null;
+        }
+        String normalized = query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+}
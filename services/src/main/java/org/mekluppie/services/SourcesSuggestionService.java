@@ -1,181 +1,54 @@
 package org.mekluppie.services;
 
+import io.micrometer.observation.annotation.Observed;
+import org.mekluppie.services.cache.DistributedCaches;
+import org.mekluppie.services.cache.NearCache;
+import org.mekluppie.services.catalog.CatalogSnapshot;
+import org.mekluppie.services.catalog.CatalogSnapshots;
+import org.mekluppie.services.kvstore.LlmResultStore;
 import org.mekluppie.services.model.SourceResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class SourcesSuggestionService {
     private static final Logger logger = LoggerFactory.getLogger(SourcesSuggestionService.class);
 
     private final ChatClient chatClient;
+    private final CatalogSnapshots catalogs;
+    private final LlmResultStore resultStore;
+    private final NearCache<SourceResponse> cache;
 
-    public SourcesSuggestionService(ChatClient chatClient) {
+    public SourcesSuggestionService(ChatClient chatClient, CatalogSnapshots catalogs, LlmResultStore resultStore,
+                                    DistributedCaches caches) {
         this.chatClient = chatClient;
+        this.catalogs = catalogs;
+        this.resultStore = resultStore;
+        this.cache = caches.get(DistributedCaches.SOURCES, SourceResponse.class);
+        // registered up front so the startup purge keeps the results of the current catalog
+        storedResults(catalogs.current());
     }
 
-    public SourceResponse recommendSources(String userQuery) {
-        logger.debug("SourcesSuggestionService handling request: {}", userQuery);
+    private LlmResultStore.Namespace<SourceResponse> storedResults(CatalogSnapshot catalog) {
+        return resultStore.namespace("sources", catalog.sourcesVersion(), SourceResponse.class);
+    }
 
-        String prompt = """
-                You are an intelligent agent specializing in the domain of terminology, heritage, and cultural data sources from the Netherlands’ National Heritage Network (Termennetwerk).
-                
-                Your core responsibility is to recommend the best matching terminology sources for user-provided search terms.
-                
-                You are provided with a static list of sources, each containing the following fields:
-                - `source`: the official name or label of the source
-                - `description`: a short summary describing what the source covers
-                - `url`: the web address of the source
-                
-                When you receive a user query:
-                1. Interpret the query semantically. Identify key concepts, categories, entities, or cultural domains implied by the terms.
-                2. Compare these concepts to both the `source` and `description` fields of each listed source.
-                3. Classify each source as either:
-                   - **Match:** if the source name or description clearly relates to the domain or terminology of the query.
-                   - **No Match:** otherwise.
-                4. Return **only** the matching sources in a valid JSON array.
-                   - Preserve the exact structure: `[{ "source": "...", "description": "...", "url": "..." }, ...]`
-                   - Maintain proper JSON formatting (no trailing commas or comments).
-                   - Do not summarize or explain results outside of JSON.
-                
-                If no sources are relevant, return an empty JSON array `[]`.
-                
-                Be concise, deterministic, and consistent. Do not invent or modify any of the listed data.
-                
-                Below is the complete list of 48 terminology sources:
+    @Observed(name = "mekluppie.sources.recommend", contextualName = "sources recommend")
+    public SourceResponse recommendSources(String userQuery) {
+        CatalogSnapshot catalog = catalogs.current();
+        LlmResultStore.Namespace<SourceResponse> storedResults = storedResults(catalog);
+        return cache.get(storedResults.cacheKey(userQuery),
+                () -> storedResults.getOrCompute(userQuery, () -> recommendUnstored(catalog, userQuery)));
+    }
 
-                # source
-                [
-                       {
-                         "source": "Adamlink: historical addresses in Amsterdam",
-                         "description": "Historical addresses in Amsterdam",
-                         "url": "https://adamlink.nl/geo/addresses/start/"
-                       },
-                       {
-                         "source": "Art & Architecture Thesaurus",
-                         "description": "Subjects for describing architectural, art and cultural-historical collections",
-                         "url": "http://vocab.getty.edu/aat"
-                       },
-                       {
-                         "source": "Brabants buildings",
-                         "description": "Buildings in the province of Gebouwen in de provincie of North Brabant, as yet with a religious function such as monasteries",
-                         "url": "https://data.brabantcloud.nl/gebouwen"
-                       },
-                       {
-                         "source": "Brinkman subjects",
-                         "description": "Subjects that the National Library of the Netherlands assigns to publications",
-                         "url": "http://data.bibliotheken.nl/id/dataset/brinkman"
-                       },
-                       {
-                         "source": "Colonial Past",
-                         "description": "Terms for describing museum collections about the colonial past",
-                         "url": "https://data.cultureelerfgoed.nl/koloniaalverleden/"
-                       },
-                       {
-                         "source": "Dutch East Indies Heritage Thesaurus",
-                         "description": "Terms for describing collections from the period 1930–1970 around the former Dutch East Indies, independent Indonesia and postcolonial migration of persons to the Netherlands",
-                         "url": "https://data.indischherinneringscentrum.nl/ied"
-                       },
-                       {
-                         "source": "Dutch National Thesaurus for Author Names",
-                         "description": "Names and other personal data of authors",
-                         "url": "http://data.bibliotheken.nl/id/dataset/persons"
-                       },
-                       {
-                         "source": "GeoNames: geographical names in The Netherlands, Belgium and Germany",
-                         "description": "Selection of geographical names such as places, administrative divisions (municipalities, provinces) and water bodies (rivers, streams, lakes etc.)",
-                         "url": "https://www.geonames.org#nl-be-de"
-                       },
-                       {
-                         "source": "GTAA: classification",
-                         "description": "Classifications for describing audiovisual material",
-                         "url": "http://data.beeldengeluid.nl/gtaa/Classificatie"
-                       },
-                       {
-                         "source": "GTAA: genres",
-                         "description": "Genres for describing audiovisual material",
-                         "url": "http://data.beeldengeluid.nl/gtaa/Genre"
-                       },
-                       {
-                         "source": "GTAA: geographical names",
-                         "description": "Geographical names for describing audiovisual material",
-                         "url": "http://data.beeldengeluid.nl/gtaa/GeografischeNamen"
-                       },
-                       {
-                         "source": "GTAA: names",
-                         "description": "Various types of proper names for describing audiovisual material",
-                         "url": "http://data.beeldengeluid.nl/gtaa/Namen"
-                       },
-                       {
-                         "source": "GTAA: personal names",
-                         "description": "Persons for describing audiovisual material",
-                         "url": "http://data.beeldengeluid.nl/gtaa/Persoonsnamen"
-                       },
-                       {
-                         "source": "GTAA: subjects",
-                         "description": "Subjects for describing audiovisual material",
-                         "url": "http://data.beeldengeluid.nl/gtaa/Onderwerpen"
-                       },
-                       {
-                         "source": "GTAA: subjects sound-vision",
-                         "description": "Subjects that are only applied to shots/clips/sounds for describing audiovisual material",
-                         "url": "http://data.beeldengeluid.nl/gtaa/OnderwerpenBenG"
-                       },
-                       {
-                         "source": "Homosaurus",
-                         "description": "Terms for describing LGBTIQ (Lesbian/Gay/Bisexual/Transgender/Intersex/Queer) publications and heritage",
-                         "url": "https://data.ihlia.nl/homosaurus"
-                       },
-                       {
-                         "source": "Iconclass",
-                         "description": "Terms for describing the content of images",
-                         "url": "https://iconclass.org"
-                       },
-                       {
-                         "source": "Rijksmonumentenregister",
-                         "description": "National monuments in the Netherlands",
-                         "url": "https://linkeddata.cultureelerfgoed.nl/cho-kennis/id/rijksmonument/"
-                       },
-                       {
-                         "source": "RKDartists",
-                         "description": "Biographical data of Dutch and foreign artists from the Middle Ages to the present",
-                         "url": "https://data.rkd.nl/rkdartists"
-                       },
-                       {
-                         "source": "STCN: printers",
-                         "description": "Printers, a subset of Short-Title Catalogue Netherlands (STCN)",
-                         "url": "http://data.bibliotheken.nl/id/dataset/stcn/printers"
-                       },
-                       {
-                         "source": "Thesaurus Camp Westerbork",
-                         "description": "Terms for describing and contextualising collections relating to the history of Camp Westerbork (1939–1971) and dealing with the historical site (1971–present)",
-                         "url": "https://data.kampwesterbork.nl/thesaurus"
-                       },
-                       {
-                         "source": "Thesaurus National Museum of World Cultures",
-                         "description": "Subjects divided over the facets Function, Culture, Geographical origin, Object, Material & Technique",
-                         "url": "https://data.colonialcollections.nl/nmvw/thesaurus"
-                       },
-                       {
-                         "source": "Thesaurus WW2",
-                         "description": "Events, places, concepts and objects from the Second World War",
-                         "url": "https://data.niod.nl/WO2_Thesaurus"
-                       },
-                       {
-                         "source": "Wikidata: persons",
-                         "description": "Persons",
-                         "url": "https://www.wikidata.org#entities-persons"
-                       },
-                       {
-                         "source": "WW2 biographies",
-                         "description": "Short biographies of persons who played a key role in World War II",
-                         "url": "https://data.niod.nl/WO2_biografieen"
-                       }
-                     ]
-                
-                """;
+    private SourceResponse recommendUnstored(CatalogSnapshot catalog, String userQuery) {
+        logger.debug("SourcesSuggestionService handling request: {}", userQuery);
 
         String userMessage = String.format("""
                 Here are the terms to find sources for:
@@ -187,9 +60,38 @@ public class SourcesSuggestionService {
                 """, userQuery);
 
         return chatClient.prompt()
-                .system(prompt)
+                .system(catalog.sourcesPrompt())
                 .user(userMessage)
                 .call()
                 .entity(SourceResponse.class);
     }
+
+    /**
+     * Recommends sources for several queries in a single call, so the shared system prompt is sent once.
+     *
+     * @return one response per query in input order; {@code null} where the model left a query unanswered
+     */
+    @Observed(name = "mekluppie.sources.recommend.multi", contextualName = "sources recommend multi")
+    public List<SourceResponse> recommendSources(List<String> userQueries) {
+        CatalogSnapshot catalog = catalogs.current();
+        return storedResults(catalog).getOrComputeAll(userQueries, queries -> recommendUnstored(catalog, queries));
+    }
+
+    private List<SourceResponse> recommendUnstored(CatalogSnapshot catalog, List<String> userQueries) {
+        logger.debug("SourcesSuggestionService handling {} queries in one call", userQueries.size());
+
+        Map<String, SourceResponse> answers = chatClient.prompt()
+                .system(catalog.sourcesPrompt())
+                .user(MultiQueryPrompt.userMessage("sources", userQueries))
+                .call()
+                .entity(new ParameterizedTypeReference<Map<String, SourceResponse>>() { });
+        return MultiQueryPrompt.inOrder(answers, userQueries.size());
+    }
+
+    /**
+     * Hash of the current system prompt, which embeds the catalog; changes whenever answers may change.
+     */
+    public String promptVersion() {
+        return catalogs.current().sourcesVersion();
+    }
 }
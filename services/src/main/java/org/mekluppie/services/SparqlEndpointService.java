@@ -2,84 +2,199 @@ package org.mekluppie.services;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.mekluppie.services.cache.DistributedCaches;
+import org.mekluppie.services.cache.NearCache;
+import org.mekluppie.services.deadline.Deadline;
 import org.mekluppie.services.model.AuthorQueryResponse;
 import org.mekluppie.services.model.ImageQueryResponse;
+import org.mekluppie.services.model.Page;
+import org.mekluppie.services.model.PageRequest;
+import org.mekluppie.services.model.PersonLookupResponse;
+import org.mekluppie.services.resilience.Bulkheads;
+import org.mekluppie.services.sparql.PersonJoin;
+import org.mekluppie.services.sparql.SparqlTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class SparqlEndpointService {
+    private static final Logger logger = LoggerFactory.getLogger(SparqlEndpointService.class);
 
-    private final RestTemplate restTemplate;
+    private static final String IMAGE_ENDPOINT = "https://lod.uba.uva.nl/_api/datasets/UB-UVA/Beeldbank/services/virtuoso/sparql";
+    private static final String AUTHOR_ENDPOINT = "https://data.bibliotheken.nl/_api/datasets/KB/Production/services/Production-VTS/sparql";
+
+    private static final int DEFAULT_IMAGE_LIMIT = 30;
+    private static final int DEFAULT_AUTHOR_LIMIT = 100;
+    private static final Duration MAX_QUERY_TIME = Duration.ofSeconds(60);
 
-    public SparqlEndpointService() {
-        this.restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final ObservationRegistry observationRegistry;
+    private final Bulkheads bulkheads;
+    private final NearCache<String> cache;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService executor = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor());
+    private final SparqlTemplate imageQuery = SparqlTemplate.fromClasspath("ImageQuery.rq", "image");
+    private final SparqlTemplate authorQuery = SparqlTemplate.fromClasspath("AuthorQuery.rq", "boek");
+
+    public SparqlEndpointService(Bulkheads bulkheads, DistributedCaches caches,
+                                 ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.bulkheads = bulkheads;
+        this.cache = caches.get(DistributedCaches.SPARQL, String.class);
+        this.observationRegistry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+        this.restTemplate = new RestTemplate(requestFactory());
+        this.restTemplate.setObservationRegistry(this.observationRegistry);
     }
 
     public List<ImageQueryResponse> executeImageQuery(String imageName) {
-        String endpoint = "https://lod.uba.uva.nl/_api/datasets/UB-UVA/Beeldbank/services/virtuoso/sparql";
-        String query = String.format("prefix dcmi: <http://purl.org/dc/dcmitype/>\nprefix rdfs: <http://www.w3.org/2000/01/rdf-schema#>\nprefix edm: <http://www.europeana.eu/schemas/edm/>\nselect * {\n  ?image a dcmi:Image .\n  ?image rdfs:label ?widgetLabel; edm:isShownBy ?widgetImage .\n  # filter(?image = <https://hdl.handle.net/11245/3.19290>)\n  filter(CONTAINS(LCASE(?widgetLabel), LCASE(\"%s\")))\n} LIMIT 30", imageName);
-
-        var response = executeQuery(query, endpoint);
+        return executeImageQuery(imageName, PageRequest.first(DEFAULT_IMAGE_LIMIT)).items();
+    }
 
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response);
+    public Page<ImageQueryResponse> executeImageQuery(String imageName, PageRequest page) {
+        return executePage(imageQuery, Map.of("imageName", NodeFactory.createLiteralString(imageName)), page,
+                IMAGE_ENDPOINT, binding -> new ImageQueryResponse(
+                        binding.path("image").asText(),
+                        binding.path("widgetLabel").asText(),
+                        binding.path("widgetImage").asText()));
+    }
 
-            List<ImageQueryResponse> results = new ArrayList<>();
-            for (JsonNode binding : root) {
-                String image = binding.path("image").asText();
-                String widgetLabel = binding.path("widgetLabel").asText();
-                String widgetImage = binding.path("widgetImage").asText();
-                results.add(new ImageQueryResponse(image, widgetLabel, widgetImage));
-            }
-            return results.subList(0, Math.min(results.size(), 30));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse SPARQL response", e);
-        }
+    public List<AuthorQueryResponse> executeAuthorQuery(String authorName) {
+        return executeAuthorQuery(authorName, PageRequest.first(DEFAULT_AUTHOR_LIMIT)).items();
+    }
 
+    public Page<AuthorQueryResponse> executeAuthorQuery(String authorName, PageRequest page) {
+        return executePage(authorQuery, Map.of("authorName", NodeFactory.createLiteralString(authorName)), page,
+                AUTHOR_ENDPOINT, binding -> new AuthorQueryResponse(
+                        binding.path("boek").asText(),
+                        binding.path("t").asText()));
     }
 
-    public List<AuthorQueryResponse> executeAuthorQuery(String authorName) {
-        String endpoint = "https://data.bibliotheken.nl/_api/datasets/KB/Production/services/Production-VTS/sparql";
-        String query = String.format("prefix schema: <http://schema.org/>\nprefix rdfs: <http://www.w3" +
-                ".org/2000/01/rdf-schema#>\nselect ?boek (sample(?titel) as ?t) where {\n  ?auteur schema:familyName " +
-                "?familyName .\n  ?boek schema:author ?auteur; schema:name ?titel; rdfs:label ?boekLabel .\n  filter" +
-                "(?familyName = \"Mulisch\")\n} group by ?boek", authorName);
+    /**
+     * Looks a person up in the KB and the Beeldbank at once, so the answer takes as long as the slower endpoint
+     * rather than both, and links the books and images found through {@link PersonJoin}. An endpoint that fails
+     * leaves its part empty and reports why in its timing.
+     */
+    public PersonLookupResponse executePersonLookup(String name) {
+        CompletableFuture<Lookup<AuthorQueryResponse>> books = CompletableFuture.supplyAsync(
+                () -> lookup("kb", () -> executeAuthorQuery(name)), executor);
+        CompletableFuture<Lookup<ImageQueryResponse>> images = CompletableFuture.supplyAsync(
+                () -> lookup("beeldbank", () -> executeImageQuery(name)), executor);
+
+        Lookup<AuthorQueryResponse> foundBooks = books.join();
+        Lookup<ImageQueryResponse> foundImages = images.join();
+        return new PersonLookupResponse(name, foundBooks.results(), foundImages.results(),
+                PersonJoin.links(name, foundBooks.results(), foundImages.results()),
+                List.of(foundBooks.timing(), foundImages.timing()));
+    }
 
-        var response = executeQuery(query, endpoint);
+    private record Lookup<T>(List<T> results, PersonLookupResponse.EndpointTiming timing) { }
 
+    private static <T> Lookup<T> lookup(String endpoint, Supplier<List<T>> query) {
+        long start = System.nanoTime();
+        List<T> results = List.of();
+        String error = null;
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response);
-
-            List<AuthorQueryResponse> results = new ArrayList<>();
-            for (JsonNode binding : root) {
-                String boek = binding.path("boek").asText();
-                String titel = binding.path("t").asText();
-                results.add(new AuthorQueryResponse(boek, titel));
-            }
-            return results;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse SPARQL response", e);
+            results = query.get();
+        } catch (RuntimeException e) {
+            logger.warn("Person lookup at {} failed: {}", endpoint, e.getMessage());
+            error = e.getMessage();
         }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Lookup<>(results, new PersonLookupResponse.EndpointTiming(endpoint, elapsedMs, results.size(), error));
     }
 
+    /**
+     * Runs a query, or answers it from the near-cache shared by all nodes.
+     */
     public String executeQuery(String queryStr, String endpoint) {
+        return cache.get(endpoint + "\n" + queryStr, () -> executeUncached(queryStr, endpoint));
+    }
+
+    private String executeUncached(String queryStr, String endpoint) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         Map<String, String> requestBody = Map.of("query", queryStr);
         HttpEntity<Map<String, String>> request = new HttpEntity<>(requestBody, headers);
 
-        return restTemplate.postForObject(endpoint, request, String.class);
+        return bulkheads.get(bulkheadFor(endpoint)).call(() ->
+                Deadline.bound("SPARQL query", () -> restTemplate.postForObject(endpoint, request, String.class)));
+    }
+
+    /** Every known endpoint has a bulkhead of its own; ad-hoc endpoints share one. */
+    private static String bulkheadFor(String endpoint) {
+        return switch (endpoint) {
+            case IMAGE_ENDPOINT -> "sparql-beeldbank";
+            case AUTHOR_ENDPOINT -> "sparql-kb";
+            default -> "sparql";
+        };
+    }
+
+    /**
+     * The JDK client aborts the exchange when its thread is interrupted, which is how {@link Deadline#bound}
+     * cancels queries whose caller has given up.
+     */
+    private static JdkClientHttpRequestFactory requestFactory() {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+        requestFactory.setReadTimeout(MAX_QUERY_TIME);
+        return requestFactory;
+    }
+
+    private <T> Page<T> executePage(SparqlTemplate template, Map<String, Node> parameters, PageRequest page,
+                                    String endpoint, Function<JsonNode, T> rowMapper) {
+        Query query = template.bind(parameters, page);
+        Observation observation = Observation.createNotStarted("mekluppie.sparql.query", observationRegistry)
+                .contextualName("sparql query")
+                .lowCardinalityKeyValue("sparql.endpoint", endpoint);
+        return observation.observe(() -> {
+            var response = executeQuery(query.serialize(), endpoint);
+            observation.highCardinalityKeyValue("sparql.response.size", String.valueOf(response != null ? response.length() : 0));
+            Page<T> result = parsePage(response, template, page, rowMapper);
+            observation.highCardinalityKeyValue("sparql.rows", String.valueOf(result.items().size()));
+            return result;
+        });
     }
 
+    private <T> Page<T> parsePage(String response, SparqlTemplate template, PageRequest page,
+                                  Function<JsonNode, T> rowMapper) {
+        try {
+            JsonNode root = mapper.readTree(response);
+
+            List<T> results = new ArrayList<>();
+            String lastKey = null;
+            for (JsonNode binding : root) {
+                if (results.size() == page.limit()) {
+                    return new Page<>(results, page.limit(), page.offset(), lastKey, true);
+                }
+                results.add(rowMapper.apply(binding));
+                lastKey = binding.path(template.keyVar()).asText(null);
+            }
+            return new Page<>(results, page.limit(), page.offset(), null, false);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse SPARQL response", e);
+        }
+    }
 }
@@ -0,0 +1,217 @@
+package org.mekluppie.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.mekluppie.services.model.TermsSuggestResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads a Termennetwerk GraphQL response token by token straight into {@link TermsSuggestResponse.TermsSuggestItem}s.
+ * <p>
+ * Only the source name, response time, and each term's uri, preferred label and scope note are read. Broader,
+ * narrower, related and matching terms, alternative labels and everything else are skipped without being
+ * materialised. Of several labels, the one in the language ranked highest in the request is kept as it streams
+ * past.
+ */
+public class TermsResponseDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String NOT_AVAILABLE = "N/A";
+
+    public record Decoded(List<TermsSuggestResponse.TermsSuggestItem> items, List<Long> responseTimesMs) { }
+
+    private record Partial(String uri, String prefLabel, String scopeNote) { }
+
+    private final List<String> languages;
+
+    public TermsResponseDecoder(List<String> languages) {
+        this.languages = languages == null ? List.of()
+                : languages.stream().map(language -> language.toLowerCase(Locale.ROOT)).toList();
+    }
+
+    /**
+     * @param source the requested source, named in the exception when the gateway reports it failed
+     * @throws IllegalStateException when the gateway returns an error instead of terms for the source
+     */
+    public Decoded decode(InputStream body, String source) throws IOException {
+        List<TermsSuggestResponse.TermsSuggestItem> items = new ArrayList<>();
+        List<Long> responseTimes = new ArrayList<>();
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new Decoded(items, responseTimes);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT && "data".equals(field)) {
+                    readData(parser, source, items, responseTimes);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new Decoded(items, responseTimes);
+    }
+
+    private void readData(JsonParser parser, String source, List<TermsSuggestResponse.TermsSuggestItem> items,
+                          List<Long> responseTimes) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "terms".equals(field)) {
+                while (nextObject(parser)) {
+                    readTermSource(parser, source, items, responseTimes);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /** One entry of {@code data.terms}; its source name may follow its terms, so items are built at the end. */
+    private void readTermSource(JsonParser parser, String source, List<TermsSuggestResponse.TermsSuggestItem> items,
+                                List<Long> responseTimes) throws IOException {
+        String sourceName = null;
+        List<Partial> terms = null;
+        String message = "empty result";
+        long responseTime = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "source" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        sourceName = readName(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "responseTimeMs" -> responseTime = value.isNumeric() ? parser.getLongValue() : 0;
+                case "result" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String resultField = parser.currentName();
+                        JsonToken resultValue = parser.nextToken();
+                        if ("terms".equals(resultField) && resultValue == JsonToken.START_ARRAY) {
+                            terms = readTerms(parser);
+                        } else if ("message".equals(resultField) && resultValue == JsonToken.VALUE_STRING) {
+                            message = parser.getText();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (terms == null) {
+            throw new IllegalStateException("Source " + source + " failed: " + message);
+        }
+        responseTimes.add(responseTime);
+        for (Partial term : terms) {
+            items.add(new TermsSuggestResponse.TermsSuggestItem(term.uri(), term.prefLabel(), term.scopeNote(),
+                    sourceName));
+        }
+    }
+
+    private static String readName(JsonParser parser) throws IOException {
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("name".equals(field) && value.isScalarValue()) {
+                name = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name;
+    }
+
+    private List<Partial> readTerms(JsonParser parser) throws IOException {
+        List<Partial> terms = new ArrayList<>();
+        while (nextObject(parser)) {
+            String uri = null;
+            String prefLabel = NOT_AVAILABLE;
+            String scopeNote = NOT_AVAILABLE;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "uri" -> uri = value.isScalarValue() ? parser.getValueAsString() : skip(parser, null);
+                    case "prefLabel" -> prefLabel = value == JsonToken.START_ARRAY ? bestLabel(parser) : skip(parser, NOT_AVAILABLE);
+                    case "scopeNote" -> scopeNote = value == JsonToken.START_ARRAY ? bestLabel(parser) : skip(parser, NOT_AVAILABLE);
+                    default -> parser.skipChildren();
+                }
+            }
+            terms.add(new Partial(uri, prefLabel, scopeNote));
+        }
+        return terms;
+    }
+
+    /** Keeps the value of the best-ranked label of an array of {@code {language, value}} objects. */
+    private String bestLabel(JsonParser parser) throws IOException {
+        String best = NOT_AVAILABLE;
+        int bestRank = Integer.MAX_VALUE;
+        while (nextObject(parser)) {
+            String language = null;
+            String value = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (!parser.nextToken().isScalarValue()) {
+                    parser.skipChildren();
+                } else if ("language".equals(field)) {
+                    language = parser.getValueAsString();
+                } else if ("value".equals(field)) {
+                    value = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            int rank = rank(language);
+            if (value != null && rank < bestRank) {
+                best = value;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Moves to the next object element of the array the parser is in, skipping {@code null}s, scalars and nested
+     * arrays on the way.
+     *
+     * @return false at the end of the array
+     */
+    private static boolean nextObject(JsonParser parser) throws IOException {
+        for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.END_ARRAY;
+             token = parser.nextToken()) {
+            if (token == JsonToken.START_OBJECT) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static String skip(JsonParser parser, String fallback) throws IOException {
+        parser.skipChildren();
+        return fallback;
+    }
+
+    private int rank(String language) {
+        if (language == null) {
+            return languages.size();
+        }
+        String normalized = language.toLowerCase(Locale.ROOT);
+        int index = languages.indexOf(normalized.contains("-") ? normalized.substring(0, normalized.indexOf('-')) : normalized);
+        return index >= 0 ? index : languages.size();
+    }
+}
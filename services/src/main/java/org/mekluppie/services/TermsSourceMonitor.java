@@ -0,0 +1,137 @@
+package org.mekluppie.services;
+
+import org.mekluppie.services.config.TermsProperties;
+import org.mekluppie.services.resilience.CircuitBreaker;
+import org.mekluppie.services.resilience.LatencyWindow;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a rolling latency distribution and a circuit breaker per Termennetwerk source, and derives
+ * per-source deadlines and hedge delays from them.
+ */
+@Component
+public class TermsSourceMonitor {
+
+    private final TermsProperties properties;
+    private final Map<String, SourceState> states = new ConcurrentHashMap<>();
+
+    public TermsSourceMonitor(TermsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return false if the source's circuit is open and the source should be skipped
+     */
+    public boolean tryAcquire(String source) {
+        return state(source).breaker.tryAcquire();
+    }
+
+    /**
+     * Records a successful call.
+     *
+     * @param observedMs round trip as measured by us
+     * @param reportedMs {@code responseTimeMs} reported by the gateway for this source
+     */
+    public void recordSuccess(String source, long observedMs, long reportedMs) {
+        SourceState state = state(source);
+        state.observed.record(observedMs);
+        if (reportedMs > 0) {
+            state.reported.record(reportedMs);
+        }
+        state.breaker.onSuccess();
+    }
+
+    public void recordFailure(String source) {
+        state(source).breaker.onFailure();
+    }
+
+    /**
+     * Records a call that ended for reasons of our own, such as a full bulkhead or the request's expired deadline.
+     * It does not count against the source, but frees the half-open probe it may have been.
+     */
+    public void recordIgnored(String source) {
+        state(source).breaker.onIgnored();
+    }
+
+    /**
+     * Deadline for the next call to a source: its p99 latency times the configured multiplier,
+     * clamped to the configured bounds. Falls back to the default deadline until enough samples exist.
+     */
+    public Duration deadlineFor(String source) {
+        LatencyWindow observed = state(source).observed;
+        if (observed.count() < properties.getMinSamples()) {
+            return properties.getDefaultDeadline();
+        }
+        long p99 = observed.percentile(99).orElse(properties.getDefaultDeadline().toMillis());
+        long deadline = (long) (p99 * properties.getDeadlineMultiplier());
+        deadline = Math.max(deadline, properties.getMinDeadline().toMillis());
+        deadline = Math.min(deadline, properties.getMaxDeadline().toMillis());
+        return Duration.ofMillis(deadline);
+    }
+
+    /**
+     * Delay after which a duplicate request is sent: the source's p95 latency.
+     * Empty when hedging is disabled or the source has too few samples.
+     */
+    public Optional<Duration> hedgeDelayFor(String source) {
+        LatencyWindow observed = state(source).observed;
+        if (!properties.isHedging() || observed.count() < properties.getMinSamples()) {
+            return Optional.empty();
+        }
+        OptionalLong p95 = observed.percentile(95);
+        return p95.isPresent() ? Optional.of(Duration.ofMillis(p95.getAsLong())) : Optional.empty();
+    }
+
+    public List<SourceStats> stats() {
+        return states.entrySet().stream()
+                .map(entry -> {
+                    SourceState state = entry.getValue();
+                    return new SourceStats(
+                            entry.getKey(),
+                            state.breaker.state(),
+                            state.observed.count(),
+                            toNullable(state.observed.percentile(50)),
+                            toNullable(state.observed.percentile(95)),
+                            toNullable(state.observed.percentile(99)),
+                            toNullable(state.reported.percentile(95)),
+                            deadlineFor(entry.getKey()).toMillis());
+                })
+                .sorted(Comparator.comparing(SourceStats::source))
+                .toList();
+    }
+
+    private SourceState state(String source) {
+        return states.computeIfAbsent(source, s -> new SourceState(properties));
+    }
+
+    private static Long toNullable(OptionalLong value) {
+        return value.isPresent() ? value.getAsLong() : null;
+    }
+
+    private static final class SourceState {
+        private final LatencyWindow observed;
+        private final LatencyWindow reported;
+        private final CircuitBreaker breaker;
+
+        private SourceState(TermsProperties properties) {
+            this.observed = new LatencyWindow(properties.getWindowSize());
+            this.reported = new LatencyWindow(properties.getWindowSize());
+            this.breaker = new CircuitBreaker(properties.getFailureThreshold(), properties.getOpenDuration());
+        }
+    }
+
+    /**
+     * Latency and circuit state of a single source. {@code reportedP95Ms} is based on the gateway's own
+     * {@code responseTimeMs}, the other percentiles on our round trips.
+     */
+    public record SourceStats(String source, CircuitBreaker.State circuit, int samples, Long p50Ms, Long p95Ms,
+                              Long p99Ms, Long reportedP95Ms, long deadlineMs) { }
+}
@@ -1,35 +1,273 @@
 package org.mekluppie.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import org.mekluppie.services.cache.DistributedCaches;
+import org.mekluppie.services.cache.NearCache;
+import org.mekluppie.services.config.TermsProperties;
+import org.mekluppie.services.deadline.Deadline;
+import org.mekluppie.services.deadline.DeadlineExceededException;
 import org.mekluppie.services.model.TermsResponse;
 import org.mekluppie.services.model.TermsSuggestResponse;
+import org.mekluppie.services.resilience.Bulkhead;
+import org.mekluppie.services.resilience.BulkheadFullException;
+import org.mekluppie.services.resilience.Bulkheads;
+import org.mekluppie.services.resilience.Hedging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
+/**
+ * Fetches term suggestions from the Termennetwerk gateway.
+ * <p>
+ * Every source is queried with its own request so that one slow or failing thesaurus cannot hold up the
+ * others. Each request gets a deadline derived from that source's latency history, capped by the remaining
+ * {@link Deadline} of the caller; slow requests are hedged, and sources whose circuit is open are skipped and
+ * reported in the response. Complete responses, those without skipped sources, are shared through a near-cache.
+ */
 @Service
 public class TermsSuggestionService {
     private static final Logger logger = LoggerFactory.getLogger(TermsSuggestionService.class);
 
+    private final TermsProperties properties;
+    private final TermsSourceMonitor monitor;
+    private final RestTemplate restTemplate;
+    private final ObservationRegistry observationRegistry;
+    private final Bulkhead bulkhead;
+    private final NearCache<TermsSuggestResponse> cache;
+    private final ExecutorService executor = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor());
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String graphqlQuery;
+
+    @Autowired
+    public TermsSuggestionService(TermsProperties properties, TermsSourceMonitor monitor, Bulkheads bulkheads,
+                                  DistributedCaches caches, ObjectProvider<ObservationRegistry> observationRegistry) {
+        this(properties, monitor, bulkheads, caches, observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    TermsSuggestionService(TermsProperties properties, TermsSourceMonitor monitor, Bulkheads bulkheads,
+                           DistributedCaches caches, ObservationRegistry observationRegistry) {
+        this.properties = properties;
+        this.monitor = monitor;
+        this.observationRegistry = observationRegistry;
+        this.bulkhead = bulkheads.get(Bulkheads.TERMENNETWERK);
+        this.cache = caches.get(DistributedCaches.TERMS, TermsSuggestResponse.class);
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getMaxDeadline());
+        requestFactory.setReadTimeout(properties.getMaxDeadline());
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.setObservationRegistry(observationRegistry);
+
+        try (InputStream in = new ClassPathResource("TermQuery.graphql").getInputStream()) {
+            this.graphqlQuery = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load TermQuery.graphql", e);
+        }
+    }
+
+    @Observed(name = "mekluppie.terms.fetch", contextualName = "terms fetch")
     public TermsSuggestResponse fetchTerms(List<String> sources, String query, List<String> languages) throws Exception {
+        String key = cacheKey(sources, query, languages);
+        Optional<TermsSuggestResponse> cached = key != null ? cache.get(key) : Optional.empty();
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        TermsSuggestResponse response = fetchUncached(sources, query, languages);
+        if (response.skippedSources().isEmpty()) {
+            cache.put(key, response);
+        }
+        return response;
+    }
+
+    private static String cacheKey(List<String> sources, String query, List<String> languages) {
+        String normalized = Queries.normalize(query);
+        if (normalized == null || sources == null || sources.isEmpty()) {
+            return null;
+        }
+        return String.join(" ", sources.stream().sorted().toList()) + "|" + normalized + "|"
+                + (languages != null ? String.join(" ", languages) : "");
+    }
+
+    private TermsSuggestResponse fetchUncached(List<String> sources, String query, List<String> languages) throws Exception {
         logger.info("Fetching terms with sources: {}, query: {}, languages: {}", sources, query, languages);
 
-        ClassPathResource resource = new ClassPathResource("TermQuery.graphql");
-        String graphqlQuery = Files.readString(resource.getFile().toPath(), StandardCharsets.UTF_8);
+        TermsResponseDecoder decoder = new TermsResponseDecoder(languages);
+        List<TermsSuggestResponse.SkippedSource> skipped = new ArrayList<>();
+        Map<String, CompletableFuture<SourceReply<TermsResponseDecoder.Decoded>>> pending = new LinkedHashMap<>();
+        for (String source : sources == null ? List.<String>of() : sources) {
+            if (!monitor.tryAcquire(source)) {
+                logger.info("Skipping source {}: circuit open", source);
+                skipped.add(new TermsSuggestResponse.SkippedSource(source, TermsSuggestResponse.SkipReason.CIRCUIT_OPEN));
+                continue;
+            }
+            pending.put(source, querySource(source, query, languages,
+                    response -> decoder.decode(response.getBody(), source), decoded -> decoded.items().size()));
+        }
+
+        List<TermsSuggestResponse.TermsSuggestItem> foundTerms = new ArrayList<>();
+        Optional<Deadline> requestDeadline = Deadline.current();
+        Optional<Deadline.Registration> cancellation = requestDeadline.map(deadline ->
+                deadline.onCancel(() -> pending.values().forEach(reply -> reply.cancel(true))));
+        try {
+            for (Map.Entry<String, CompletableFuture<SourceReply<TermsResponseDecoder.Decoded>>> entry : pending.entrySet()) {
+                String source = entry.getKey();
+                try {
+                    SourceReply<TermsResponseDecoder.Decoded> reply = entry.getValue().get();
+                    foundTerms.addAll(toItems(source, reply));
+                } catch (ExecutionException | CancellationException e) {
+                    Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+                    boolean timedOut = cause == null || cause instanceof TimeoutException
+                            || cause instanceof DeadlineExceededException;
+                    boolean overloaded = cause instanceof BulkheadFullException;
+                    recordFailure(source, cause, requestDeadline);
+                    logger.warn("Skipping source {}: {}", source, timedOut ? "deadline exceeded" : cause.getMessage());
+                    skipped.add(new TermsSuggestResponse.SkippedSource(source, overloaded
+                            ? TermsSuggestResponse.SkipReason.OVERLOADED
+                            : timedOut
+                            ? TermsSuggestResponse.SkipReason.TIMEOUT
+                            : TermsSuggestResponse.SkipReason.ERROR));
+                }
+            }
+        } catch (InterruptedException e) {
+            // the replies not read yet are dropped without an outcome; free any probes among them
+            pending.forEach((source, reply) -> {
+                if (reply.cancel(true)) {
+                    monitor.recordIgnored(source);
+                }
+            });
+            throw e;
+        } finally {
+            cancellation.ifPresent(Deadline.Registration::close);
+        }
+
+        if (foundTerms.isEmpty()) {
+            logger.warn("No terms found in the response");
+        } else {
+            logger.info("Fetched {} terms", foundTerms.size());
+        }
+        return new TermsSuggestResponse(foundTerms, skipped);
+    }
+
+    /**
+     * Fetches the raw terms of a single source, including alternative labels, honouring the source's
+     * circuit breaker and deadline. Returns an empty list when the circuit is open.
+     */
+    public List<TermsResponse.Term> fetchSourceTerms(String source, String query, List<String> languages) throws Exception {
+        if (!monitor.tryAcquire(source)) {
+            return List.of();
+        }
+        SourceReply<TermsResponse> reply;
+        try {
+            reply = querySource(source, query, languages, response -> readFully(response.getBody(), source),
+                    TermsSuggestionService::termCount).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            recordFailure(source, cause, Deadline.current());
+            throw e;
+        } catch (InterruptedException e) {
+            monitor.recordIgnored(source);
+            throw e;
+        }
+
+        TermsResponse termsResponse = reply.body();
+        if (termsResponse == null || termsResponse.data() == null || termsResponse.data().terms() == null) {
+            monitor.recordSuccess(source, reply.elapsedMs(), 0);
+            return List.of();
+        }
+        List<TermsResponse.Term> terms = new ArrayList<>();
+        for (TermsResponse.TermSource termSource : termsResponse.data().terms()) {
+            monitor.recordSuccess(source, reply.elapsedMs(), termSource.responseTimeMs());
+            terms.addAll(termSource.result().terms());
+        }
+        return terms;
+    }
+
+    /**
+     * Reports a failed call to the source's circuit breaker. Running out of the request's budget, or of bulkhead
+     * permits, says nothing about the source's health, so such calls only give up their probe slot.
+     */
+    private void recordFailure(String source, Throwable cause, Optional<Deadline> requestDeadline) {
+        boolean timedOut = cause == null || cause instanceof TimeoutException
+                || cause instanceof DeadlineExceededException;
+        if (cause instanceof BulkheadFullException || (timedOut && requestDeadline.filter(Deadline::isExpired).isPresent())) {
+            monitor.recordIgnored(source);
+        } else {
+            monitor.recordFailure(source);
+        }
+    }
+
+    public List<TermsSourceMonitor.SourceStats> sourceStats() {
+        return monitor.stats();
+    }
 
+    private <T> CompletableFuture<SourceReply<T>> querySource(String source, String query, List<String> languages,
+                                                              ResponseExtractor<T> reader, ToIntFunction<T> termCount) {
+        Duration deadline = Deadline.remainingOr(monitor.deadlineFor(source));
+        if (deadline.isZero()) {
+            return CompletableFuture.failedFuture(new TimeoutException());
+        }
+        Optional<Duration> hedgeDelay = monitor.hedgeDelayFor(source);
+        Supplier<SourceReply<T>> call = () -> callSource(source, query, languages, reader, termCount);
+        CompletableFuture<SourceReply<T>> reply = hedgeDelay
+                .map(delay -> Hedging.hedged(call, delay, executor))
+                .orElseGet(() -> CompletableFuture.supplyAsync(call, executor));
+        return reply.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private <T> SourceReply<T> callSource(String source, String query, List<String> languages,
+                                          ResponseExtractor<T> reader, ToIntFunction<T> termCount) {
+        Observation observation = Observation.createNotStarted("mekluppie.terms.source", observationRegistry)
+                .contextualName("termennetwerk source")
+                .lowCardinalityKeyValue("terms.source", source);
+        return observation.observe(() -> {
+            SourceReply<T> reply = bulkhead.call(() -> requestSource(source, query, languages, reader));
+            observation.highCardinalityKeyValue("terms.count", String.valueOf(termCount.applyAsInt(reply.body())));
+            return reply;
+        });
+    }
+
+    /**
+     * Posts the query for one source and hands the response stream to {@code reader}, so the suggestion path can
+     * decode it without building the full response graph.
+     */
+    private <T> SourceReply<T> requestSource(String source, String query, List<String> languages,
+                                             ResponseExtractor<T> reader) {
         Map<String, Object> variables = new HashMap<>();
-        variables.put("sources", sources);
+        variables.put("sources", List.of(source));
         variables.put("query", query);
         variables.put("languages", languages);
 
@@ -37,44 +275,46 @@ public class TermsSuggestionService {
         requestBody.put("query", graphqlQuery);
         requestBody.put("variables", variables);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<TermsResponse> response = restTemplate.postForEntity(
-                "https://termennetwerk-api.netwerkdigitaalerfgoed.nl/graphql",
-                entity,
-                TermsResponse.class
-        );
-
-        var termsResponse = response.getBody();
-        if (termsResponse != null && termsResponse.data() != null) {
-            var foundTerms = termsResponse.data().terms().stream()
-                    .flatMap(termSource -> termSource.result().terms().stream()
-                            .map(term -> {
-                                        String uri = term.uri();
-                                        String prefLabel = term.prefLabel().stream()
-                                                .map(TermsResponse.Label::value)
-                                                .findFirst()
-                                                .orElse("N/A");
-                                        String scopeNote = term.scopeNote().stream()
-                                                .map(TermsResponse.Label::value)
-                                                .findFirst()
-                                                .orElse("N/A");
-                                        String source = termSource.source().name();
-                                        return new TermsSuggestResponse.TermsSuggestItem(uri, prefLabel, scopeNote,
-                                                source);
-                                    }
-                            ))
-                    .toList();
+        long start = System.nanoTime();
+        T body = restTemplate.execute(properties.getEndpoint(), HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getBody().write(objectMapper.writeValueAsBytes(requestBody));
+        }, reader);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new SourceReply<>(body, elapsedMs);
+    }
 
-            logger.info("Fetched {} terms", foundTerms.size());
-            return new TermsSuggestResponse(foundTerms);
-        } else {
-            logger.warn("No terms found in the response");
-            return new TermsSuggestResponse(List.of());
+    /** Reads the complete response, alternative labels and related terms included, for the typeahead index. */
+    private TermsResponse readFully(InputStream body, String source) throws IOException {
+        TermsResponse response = objectMapper.readValue(body, TermsResponse.class);
+        if (response != null && response.data() != null && response.data().terms() != null) {
+            for (TermsResponse.TermSource termSource : response.data().terms()) {
+                if (termSource.result() == null || termSource.result().terms() == null) {
+                    String message = termSource.result() != null ? termSource.result().message() : "empty result";
+                    throw new IllegalStateException("Source " + source + " failed: " + message);
+                }
+            }
         }
+        return response;
     }
+
+    private List<TermsSuggestResponse.TermsSuggestItem> toItems(String source, SourceReply<TermsResponseDecoder.Decoded> reply) {
+        List<Long> responseTimes = reply.body().responseTimesMs();
+        if (responseTimes.isEmpty()) {
+            monitor.recordSuccess(source, reply.elapsedMs(), 0);
+        }
+        for (long responseTime : responseTimes) {
+            monitor.recordSuccess(source, reply.elapsedMs(), responseTime);
+        }
+        return reply.body().items();
+    }
+
+    private static int termCount(TermsResponse body) {
+        if (body == null || body.data() == null || body.data().terms() == null) {
+            return 0;
+        }
+        return body.data().terms().stream().mapToInt(termSource -> termSource.result().terms().size()).sum();
+    }
+
+    private record SourceReply<T>(T body, long elapsedMs) { }
 }
@@ -0,0 +1,111 @@
+package org.mekluppie.services.batching;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent requests into batches and hands each batch to a single batch function.
+ * <p>
+ * A batch is dispatched when it reaches {@code maxBatchSize}, when no new request arrived for {@code window},
+ * or at the latest {@code maxDelay} after its first request, whichever comes first. The batch function must
+ * return one result per request, in request order.
+ */
+public class MicroBatcher<Q, R> implements AutoCloseable {
+
+    private final long windowNanos;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final Function<List<Q>, List<R>> batchFunction;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<Pending<Q, R>> pending = new ArrayList<>();
+    private long firstArrival;
+    private ScheduledFuture<?> timer;
+
+    public MicroBatcher(String name, Duration window, Duration maxDelay, int maxBatchSize,
+                        Function<List<Q>, List<R>> batchFunction) {
+        this.windowNanos = window.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchFunction = batchFunction;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name(name + "-micro-batch").factory());
+    }
+
+    public CompletableFuture<R> submit(Q request) {
+        Pending<Q, R> entry = new Pending<>(request, new CompletableFuture<>());
+        List<Pending<Q, R>> ready = null;
+        synchronized (lock) {
+            long now = System.nanoTime();
+            if (pending.isEmpty()) {
+                firstArrival = now;
+            }
+            pending.add(entry);
+            if (pending.size() >= maxBatchSize) {
+                ready = drain();
+            } else {
+                long delay = Math.min(windowNanos, maxDelayNanos - (now - firstArrival));
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+                timer = scheduler.schedule(this::flush, Math.max(0, delay), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return entry.result();
+    }
+
+    private void flush() {
+        List<Pending<Q, R>> ready;
+        synchronized (lock) {
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            dispatch(ready);
+        }
+    }
+
+    private List<Pending<Q, R>> drain() {
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        List<Pending<Q, R>> ready = pending;
+        pending = new ArrayList<>();
+        return ready;
+    }
+
+    private void dispatch(List<Pending<Q, R>> batch) {
+        executor.execute(() -> {
+            try {
+                List<R> results = batchFunction.apply(batch.stream().map(Pending::request).toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result().complete(results.get(i));
+                }
+            } catch (Throwable e) {
+                batch.forEach(entry -> entry.result().completeExceptionally(e));
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private record Pending<Q, R>(Q request, CompletableFuture<R> result) { }
+}
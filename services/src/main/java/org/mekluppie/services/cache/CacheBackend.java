@@ -0,0 +1,36 @@
+package org.mekluppie.services.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Shared tier behind the {@link NearCache}s of all nodes: stores encoded entries and carries invalidations to
+ * every node, including the one that sent them.
+ */
+public interface CacheBackend extends AutoCloseable {
+
+    Optional<byte[]> get(String cache, String key);
+
+    void put(String cache, String key, byte[] value, Duration ttl);
+
+    /**
+     * Removes an entry, or every entry of the cache when {@code key} is {@code null}, and tells all nodes to drop
+     * their local copies.
+     */
+    void invalidate(String cache, String key);
+
+    void subscribe(InvalidationListener listener);
+
+    @Override
+    default void close() {
+    }
+
+    @FunctionalInterface
+    interface InvalidationListener {
+
+        /**
+         * @param key the invalidated key, or {@code null} when the whole cache was invalidated
+         */
+        void invalidated(String cache, String key);
+    }
+}
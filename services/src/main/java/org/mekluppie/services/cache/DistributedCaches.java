@@ -0,0 +1,67 @@
+package org.mekluppie.services.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mekluppie.services.config.DistributedCacheProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The named {@link NearCache}s of this node, and the listener that applies invalidations from other nodes to
+ * them.
+ */
+@Component
+public class DistributedCaches {
+
+    public static final String SOURCES = "sources";
+    public static final String DATASETS = "datasets";
+    public static final String TERMS = "terms";
+    public static final String SPARQL = "sparql";
+
+    private final CacheBackend backend;
+    private final DistributedCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DistributedCaches(CacheBackend backend, DistributedCacheProperties properties,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this(backend, properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public DistributedCaches(CacheBackend backend, DistributedCacheProperties properties, MeterRegistry meterRegistry) {
+        this.backend = backend;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        backend.subscribe((cache, key) -> {
+            NearCache<?> nearCache = caches.get(cache);
+            if (nearCache != null) {
+                nearCache.evictLocal(key);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> NearCache<V> get(String name, Class<V> type) {
+        return (NearCache<V>) caches.computeIfAbsent(name, n -> new NearCache<>(n, backend, objectMapper,
+                objectMapper.constructType(type), properties.getLocalMaxEntries(), properties.getLocalTtl(),
+                properties.ttlFor(n), meterRegistry));
+    }
+
+    public Set<String> names() {
+        return new TreeSet<>(caches.keySet());
+    }
+
+    public Optional<NearCache<?>> find(String name) {
+        return Optional.ofNullable(caches.get(name));
+    }
+}
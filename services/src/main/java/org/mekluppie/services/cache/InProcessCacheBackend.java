@@ -0,0 +1,110 @@
+package org.mekluppie.services.cache;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Backend that lives in the JVM. Nodes sharing one instance behave like replicas sharing a real backend, which is
+ * what tests need; a single deployed node gets a plain second cache tier.
+ * <p>
+ * Each cache keeps at most {@code maxEntries}, dropping the least recently used, and expired entries are swept
+ * out periodically rather than only when they are read again.
+ */
+public class InProcessCacheBackend implements CacheBackend {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private record Entry(byte[] value, long expiresAt) { }
+
+    private final int maxEntries;
+    private final Map<String, Map<String, Entry>> caches = new ConcurrentHashMap<>();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    public InProcessCacheBackend() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public InProcessCacheBackend(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Optional<byte[]> get(String cache, String key) {
+        Map<String, Entry> entries = caches.get(cache);
+        if (entries == null) {
+            return Optional.empty();
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (System.currentTimeMillis() > entry.expiresAt()) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(entry.value());
+        }
+    }
+
+    @Override
+    public void put(String cache, String key, byte[] value, Duration ttl) {
+        Map<String, Entry> entries = caches.computeIfAbsent(cache, name -> new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        synchronized (entries) {
+            entries.put(key, new Entry(value, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    @Override
+    public void invalidate(String cache, String key) {
+        Map<String, Entry> entries = caches.get(cache);
+        if (entries != null) {
+            synchronized (entries) {
+                if (key == null) {
+                    entries.clear();
+                } else {
+                    entries.remove(key);
+                }
+            }
+        }
+        listeners.forEach(listener -> listener.invalidated(cache, key));
+    }
+
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(initialDelayString = "${mekluppie.cache.sweep-interval:PT1M}",
+            fixedDelayString = "${mekluppie.cache.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Map<String, Entry> entries : caches.values()) {
+            synchronized (entries) {
+                entries.values().removeIf(entry -> now > entry.expiresAt());
+            }
+        }
+    }
+
+    int size(String cache) {
+        Map<String, Entry> entries = caches.get(cache);
+        if (entries == null) {
+            return 0;
+        }
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.mekluppie.services.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * One named cache: a small LRU in this node's memory in front of the shared {@link CacheBackend}.
+ * <p>
+ * Lookups try memory, then the backend, then compute. Invalidations go through the backend, which tells every
+ * node to drop its copy; the local ttl bounds how stale a node can get should such a message be lost.
+ */
+public class NearCache<V> {
+    private static final Logger logger = LoggerFactory.getLogger(NearCache.class);
+
+    private record Local(Object value, long expiresAt) { }
+
+    private final String name;
+    private final CacheBackend backend;
+    private final ObjectMapper objectMapper;
+    private final JavaType type;
+    private final int maxEntries;
+    private final Duration localTtl;
+    private final Duration remoteTtl;
+    private final Map<String, Local> local;
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+
+    NearCache(String name, CacheBackend backend, ObjectMapper objectMapper, JavaType type, int maxEntries,
+              Duration localTtl, Duration remoteTtl, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.backend = backend;
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.maxEntries = maxEntries;
+        this.localTtl = localTtl;
+        this.remoteTtl = remoteTtl;
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Local> eldest) {
+                return size() > NearCache.this.maxEntries;
+            }
+        };
+        this.localHits = counter(meterRegistry, "local");
+        this.remoteHits = counter(meterRegistry, "remote");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("mekluppie.cache.requests")
+                .tag("cache", name).tag("result", result).register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the cached value, or computes and caches it. A {@code null} key, or a {@code null} result, is
+     * not cached.
+     */
+    public V get(String key, Supplier<V> compute) {
+        if (key == null) {
+            return compute.get();
+        }
+        Optional<V> cached = get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        V value = compute.get();
+        put(key, value);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<V> get(String key) {
+        String hashed = hash(key);
+        synchronized (local) {
+            Local entry = local.get(hashed);
+            if (entry != null && System.currentTimeMillis() <= entry.expiresAt()) {
+                localHits.increment();
+                return Optional.of((V) entry.value());
+            }
+        }
+        Optional<V> remote = backend.get(name, hashed).flatMap(this::decode);
+        if (remote.isPresent()) {
+            remoteHits.increment();
+            putLocal(hashed, remote.get());
+        } else {
+            misses.increment();
+        }
+        return remote;
+    }
+
+    public void put(String key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        String hashed = hash(key);
+        putLocal(hashed, value);
+        try {
+            backend.put(name, hashed, objectMapper.writeValueAsBytes(value), remoteTtl);
+        } catch (IOException e) {
+            logger.warn("Could not encode {} entry: {}", name, e.getMessage());
+        }
+    }
+
+    /** Drops the entry on every node. */
+    public void invalidate(String key) {
+        backend.invalidate(name, hash(key));
+    }
+
+    /** Drops every entry on every node. */
+    public void invalidateAll() {
+        backend.invalidate(name, null);
+    }
+
+    public int localSize() {
+        synchronized (local) {
+            return local.size();
+        }
+    }
+
+    /** Applies an invalidation received from the backend. */
+    void evictLocal(String hashedKey) {
+        synchronized (local) {
+            if (hashedKey == null) {
+                local.clear();
+            } else {
+                local.remove(hashedKey);
+            }
+        }
+    }
+
+    private void putLocal(String hashed, V value) {
+        synchronized (local) {
+            local.put(hashed, new Local(value, System.currentTimeMillis() + localTtl.toMillis()));
+        }
+    }
+
+    private Optional<V> decode(byte[] bytes) {
+        try {
+            return Optional.ofNullable(objectMapper.readValue(bytes, type));
+        } catch (IOException e) {
+            logger.warn("Could not decode {} entry: {}", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Keys can be long prompts; the backend sees a fixed-length digest. */
+    private static String hash(String key) {
+        return DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,168 @@
+package org.mekluppie.services.cache;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Backend on Redis: entries are plain keys with an expiry, invalidations are published on one pub/sub channel
+ * that every node subscribes to. Redis being unreachable turns lookups into misses rather than failures, so the
+ * nodes fall back to their near-caches.
+ * <p>
+ * The connection is opened on first use rather than at startup, so a node starts while Redis is down. After a
+ * failed attempt the next one waits {@link #RECONNECT_DELAY}; commands wait at most {@code timeout}.
+ */
+public class RedisCacheBackend implements CacheBackend {
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheBackend.class);
+
+    private static final char SEPARATOR = '\u0000';
+    private static final String ALL = "\u0001";
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(10);
+
+    private final String prefix;
+    private final String channel;
+    private final RedisClient client;
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private StatefulRedisConnection<String, byte[]> connection;
+    private StatefulRedisPubSubConnection<String, String> subscription;
+    private long nextAttempt;
+
+    public RedisCacheBackend(String uri, String prefix, Duration timeout) {
+        this.prefix = prefix + ":";
+        this.channel = prefix + ":invalidations";
+        RedisURI redisUri = RedisURI.create(uri);
+        redisUri.setTimeout(timeout);
+        this.client = RedisClient.create(redisUri);
+        client.setOptions(ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(timeout).build())
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build());
+    }
+
+    /**
+     * The commands of the shared connection, connecting and subscribing to invalidations first if that has not
+     * happened yet.
+     *
+     * @throws RedisException if Redis cannot be reached
+     */
+    private synchronized RedisCommands<String, byte[]> commands() {
+        if (connection != null) {
+            return connection.sync();
+        }
+        if (System.currentTimeMillis() < nextAttempt) {
+            throw new RedisException("not connected, next attempt in "
+                    + (nextAttempt - System.currentTimeMillis()) + " ms");
+        }
+        try {
+            if (subscription == null) {
+                StatefulRedisPubSubConnection<String, String> pubSub = client.connectPubSub();
+                pubSub.addListener(new RedisPubSubAdapter<>() {
+                    @Override
+                    public void message(String from, String message) {
+                        int separator = message.indexOf(SEPARATOR);
+                        if (separator < 0) {
+                            return;
+                        }
+                        String cache = message.substring(0, separator);
+                        String key = message.substring(separator + 1);
+                        listeners.forEach(listener -> listener.invalidated(cache, ALL.equals(key) ? null : key));
+                    }
+                });
+                try {
+                    pubSub.sync().subscribe(channel);
+                } catch (RedisException e) {
+                    pubSub.close();
+                    throw e;
+                }
+                subscription = pubSub;
+            }
+            connection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+            logger.info("Connected to Redis for the shared cache");
+            return connection.sync();
+        } catch (RedisException e) {
+            nextAttempt = System.currentTimeMillis() + RECONNECT_DELAY.toMillis();
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<byte[]> get(String cache, String key) {
+        try {
+            return Optional.ofNullable(commands().get(redisKey(cache, key)));
+        } catch (RedisException e) {
+            logger.debug("Redis lookup of {} failed: {}", cache, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String cache, String key, byte[] value, Duration ttl) {
+        try {
+            commands().psetex(redisKey(cache, key), ttl.toMillis(), value);
+        } catch (RedisException e) {
+            logger.debug("Redis write to {} failed: {}", cache, e.getMessage());
+        }
+    }
+
+    @Override
+    public void invalidate(String cache, String key) {
+        try {
+            if (key == null) {
+                ScanArgs matching = ScanArgs.Builder.matches(prefix + cache + ":*").limit(500);
+                ScanCursor cursor = ScanCursor.INITIAL;
+                do {
+                    KeyScanCursor<String> page = commands().scan(cursor, matching);
+                    if (!page.getKeys().isEmpty()) {
+                        commands().unlink(page.getKeys().toArray(String[]::new));
+                    }
+                    cursor = page;
+                } while (!cursor.isFinished());
+            } else {
+                commands().unlink(redisKey(cache, key));
+            }
+            commands().publish(channel, (cache + SEPARATOR + (key != null ? key : ALL)).getBytes());
+        } catch (RedisException e) {
+            logger.warn("Redis invalidation of {} failed: {}", cache, e.getMessage());
+            listeners.forEach(listener -> listener.invalidated(cache, key));
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+        if (connection != null) {
+            connection.close();
+        }
+        client.shutdown();
+    }
+
+    private String redisKey(String cache, String key) {
+        return prefix + cache + ":" + key;
+    }
+}
@@ -0,0 +1,7 @@
+package org.mekluppie.services.catalog;
+
+/**
+ * Published after a new catalog snapshot has been swapped in, for state derived from answers rather than from
+ * the catalog itself, such as precomputed recommendations.
+ */
+public record CatalogChangedEvent(CatalogSnapshot previous, CatalogSnapshot current) { }
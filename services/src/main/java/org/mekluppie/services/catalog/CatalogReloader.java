@@ -0,0 +1,102 @@
+package org.mekluppie.services.catalog;
+
+import org.mekluppie.services.InitializeWeaviate;
+import org.mekluppie.services.config.CatalogProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolls out changes to the catalog files without a restart.
+ * <p>
+ * The files are read on every poll. When the catalog differs from the current snapshot, the next snapshot and
+ * everything derived from it are built off to the side: the prompts when the snapshot is made, then the Weaviate
+ * class, filled and warmed through {@link InitializeWeaviate#prepare}. Only then is it swapped in, in one step,
+ * so requests see either the old catalog or the new one in full. A catalog that cannot be read or indexed is
+ * not swapped in and is tried again on the next poll. The class of the replaced catalog is kept for
+ * {@code retire-after}, for requests and replicas still using it.
+ */
+@Component
+public class CatalogReloader {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogReloader.class);
+
+    private record Retiring(CatalogSnapshot snapshot, Instant due) { }
+
+    private final CatalogSnapshots catalogs;
+    private final CatalogProperties properties;
+    private final InitializeWeaviate weaviate;
+    private final ApplicationEventPublisher events;
+    private final List<Retiring> retiring = new ArrayList<>();
+    private String lastFailed;
+
+    public CatalogReloader(CatalogSnapshots catalogs, CatalogProperties properties, InitializeWeaviate weaviate,
+                           ApplicationEventPublisher events) {
+        this.catalogs = catalogs;
+        this.properties = properties;
+        this.weaviate = weaviate;
+        this.events = events;
+    }
+
+    @Scheduled(initialDelayString = "${mekluppie.catalog.poll-interval:PT30S}",
+            fixedDelayString = "${mekluppie.catalog.poll-interval:PT30S}")
+    public synchronized void poll() {
+        retireDue();
+        if (!properties.isWatched()) {
+            return;
+        }
+        try {
+            CatalogSnapshot next = CatalogSnapshot.read(properties.getDatasets(), properties.getSources());
+            if (!next.version().equals(catalogs.current().version()) && !reload(next)) {
+                warnOnce("catalog " + next.version() + " could not be indexed in Weaviate");
+            }
+        } catch (Exception e) {
+            warnOnce(String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Builds what {@code next} needs and swaps it in.
+     *
+     * @return false if it could not be prepared and the current catalog stays in use
+     */
+    public synchronized boolean reload(CatalogSnapshot next) {
+        long start = System.nanoTime();
+        if (!weaviate.prepare(next, properties.getWarmConcepts())) {
+            return false;
+        }
+        CatalogSnapshot previous = catalogs.swap(next);
+        lastFailed = null;
+        logger.info("Catalog {} replaced {}: {} datasets and {} sources, prepared in {} ms", next.version(),
+                previous.version(), next.datasets().size(), next.sources().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        retiring.add(new Retiring(previous, Instant.now().plus(properties.getRetireAfter())));
+        events.publishEvent(new CatalogChangedEvent(previous, next));
+        return true;
+    }
+
+    /** Repeats of the same failure on every poll are logged only once. */
+    private void warnOnce(String failure) {
+        if (!failure.equals(lastFailed)) {
+            logger.warn("Keeping catalog {}: {}", catalogs.current().version(), failure);
+            lastFailed = failure;
+        }
+    }
+
+    private void retireDue() {
+        Instant now = Instant.now();
+        retiring.removeIf(entry -> {
+            if (entry.due().isAfter(now)) {
+                return false;
+            }
+            weaviate.retire(entry.snapshot());
+            return true;
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package org.mekluppie.services.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mekluppie.services.model.DatasetResponse;
+import org.mekluppie.services.model.SourceResponse;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One immutable version of the dataset and source catalog, together with everything derived from it: the system
+ * prompts, their versions, and the name of the Weaviate class holding its vectors.
+ * <p>
+ * Versions hash the prompts, which are rendered from the parsed lists, so reformatting a file does not count as a
+ * change. They are also the catalog versions under which the {@code LlmResultStore} keeps answers.
+ */
+public record CatalogSnapshot(List<DatasetResponse.DatasetItem> datasets, List<SourceResponse.SourceItem> sources,
+                              boolean bundled, String datasetsVersion, String sourcesVersion,
+                              String datasetsPrompt, String sourcesPrompt, Instant createdAt) {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static CatalogSnapshot of(List<DatasetResponse.DatasetItem> datasets,
+                                     List<SourceResponse.SourceItem> sources, boolean bundled) {
+        String datasetsPrompt = CatalogPrompts.datasets(datasets);
+        String sourcesPrompt = CatalogPrompts.sources(sources);
+        return new CatalogSnapshot(List.copyOf(datasets), List.copyOf(sources), bundled,
+                md5(datasetsPrompt), md5(sourcesPrompt), datasetsPrompt, sourcesPrompt, Instant.now());
+    }
+
+    /**
+     * Reads the catalog files, falling back to the bundled {@code list.json} and {@code sources.json} for the
+     * ones not given. The snapshot counts as bundled when its datasets have the version of the bundled list,
+     * whether or not they were read from a configured file.
+     *
+     * @throws IOException if a file cannot be read, is not a JSON array of the expected items, or is empty
+     */
+    public static CatalogSnapshot read(Path datasetsFile, Path sourcesFile) throws IOException {
+        List<DatasetResponse.DatasetItem> bundledDatasets = bundled("list.json", DatasetResponse.DatasetItem[].class);
+        List<DatasetResponse.DatasetItem> datasets = datasetsFile != null
+                ? read(datasetsFile, DatasetResponse.DatasetItem[].class)
+                : bundledDatasets;
+        List<SourceResponse.SourceItem> sources = sourcesFile != null
+                ? read(sourcesFile, SourceResponse.SourceItem[].class)
+                : bundled("sources.json", SourceResponse.SourceItem[].class);
+        if (datasets.stream().anyMatch(item -> item.title() == null || item.title().isBlank())) {
+            throw new IOException("Every dataset in the catalog needs a title");
+        }
+        if (sources.stream().anyMatch(item -> item.source() == null || item.source().isBlank())) {
+            throw new IOException("Every source in the catalog needs a name");
+        }
+        // A configured copy of the bundled list has the same version, and keeps using the vectors already imported
+        boolean bundled = datasets == bundledDatasets
+                || CatalogPrompts.datasets(datasets).equals(CatalogPrompts.datasets(bundledDatasets));
+        return of(datasets, sources, bundled);
+    }
+
+    /** Identifies the whole catalog; changes whenever either prompt does. */
+    public String version() {
+        return md5(datasetsVersion + "\n" + sourcesVersion);
+    }
+
+    /**
+     * Weaviate class with the vectors of these datasets. The bundled catalog keeps the base class, so existing
+     * deployments need no re-import; other catalogs get a class per dataset version, built before it is used.
+     */
+    public String vectorClass(String baseClass) {
+        return bundled ? baseClass : baseClass + "_" + datasetsVersion.substring(0, 12);
+    }
+
+    private static <T> List<T> read(Path file, Class<T[]> type) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return items(in, type, file.toString());
+        }
+    }
+
+    private static <T> List<T> bundled(String resource, Class<T[]> type) throws IOException {
+        try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+            return items(in, type, resource);
+        }
+    }
+
+    private static <T> List<T> items(InputStream in, Class<T[]> type, String name) throws IOException {
+        T[] items = objectMapper.readValue(in, type);
+        if (items == null || items.length == 0) {
+            throw new IOException("Catalog file " + name + " is empty");
+        }
+        return Arrays.asList(items);
+    }
+
+    private static String md5(String value) {
+        return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
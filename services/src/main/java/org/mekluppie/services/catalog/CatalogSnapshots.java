@@ -0,0 +1,49 @@
+package org.mekluppie.services.catalog;
+
+import org.mekluppie.services.config.CatalogProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the catalog snapshot in use. Readers take {@link #current()} once per request and use that snapshot
+ * throughout, so they never lock and never mix two catalogs; {@link CatalogReloader} swaps in the next one.
+ */
+@Component
+public class CatalogSnapshots {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshots.class);
+
+    private final AtomicReference<CatalogSnapshot> current;
+
+    /**
+     * @throws UncheckedIOException if a configured catalog file is unusable; better not to start than to start
+     *                              with a catalog nobody asked for
+     */
+    public CatalogSnapshots(CatalogProperties properties) {
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.read(properties.getDatasets(), properties.getSources());
+            logger.info("Catalog {}: {} datasets and {} sources{}", snapshot.version(), snapshot.datasets().size(),
+                    snapshot.sources().size(), snapshot.bundled() ? " (bundled)" : "");
+            this.current = new AtomicReference<>(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the catalog", e);
+        }
+    }
+
+    public CatalogSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Publishes {@code next}; only to be called once everything it derives from is ready.
+     *
+     * @return the snapshot it replaces
+     */
+    CatalogSnapshot swap(CatalogSnapshot next) {
+        return current.getAndSet(next);
+    }
+}
@@ -0,0 +1,55 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for batch recommendation requests. Configure under {@code mekluppie.recommend.batch}
+ * in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.recommend.batch")
+public class BatchProperties {
+
+    /** Maximum number of queries accepted in one batch request. */
+    private int maxQueries = 1000;
+
+    /** Maximum number of queries packed into a single LLM call. */
+    private int maxQueriesPerCall = 10;
+
+    /** Estimated token budget for the queries packed into a single LLM call. */
+    private int maxQueryTokensPerCall = 1500;
+
+    /** Number of LLM calls a single batch runs in parallel. */
+    private int concurrency = 4;
+
+    public int getMaxQueries() {
+        return maxQueries;
+    }
+
+    public void setMaxQueries(int maxQueries) {
+        this.maxQueries = maxQueries;
+    }
+
+    public int getMaxQueriesPerCall() {
+        return maxQueriesPerCall;
+    }
+
+    public void setMaxQueriesPerCall(int maxQueriesPerCall) {
+        this.maxQueriesPerCall = maxQueriesPerCall;
+    }
+
+    public int getMaxQueryTokensPerCall() {
+        return maxQueryTokensPerCall;
+    }
+
+    public void setMaxQueryTokensPerCall(int maxQueryTokensPerCall) {
+        this.maxQueryTokensPerCall = maxQueryTokensPerCall;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+}
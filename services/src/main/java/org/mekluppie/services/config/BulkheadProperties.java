@@ -0,0 +1,86 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Concurrency limits per upstream dependency. Configure under {@code mekluppie.bulkheads} in
+ * services-application.yaml; upstreams without their own entry use {@code defaults}.
+ */
+@ConfigurationProperties(prefix = "mekluppie.bulkheads")
+public class BulkheadProperties {
+
+    public enum FullPolicy {
+        /** Fail at once when all permits are taken. */
+        REJECT,
+        /** Queue for a permit, up to {@code max-waiting} callers and {@code max-wait}, then fail. */
+        WAIT
+    }
+
+    public static class Settings {
+
+        private int maxConcurrent = 20;
+
+        private int maxWaiting = 20;
+
+        /** Longest a caller queues for a permit; the caller's deadline may shorten it. */
+        private Duration maxWait = Duration.ofSeconds(1);
+
+        private FullPolicy onFull = FullPolicy.WAIT;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxWaiting() {
+            return maxWaiting;
+        }
+
+        public void setMaxWaiting(int maxWaiting) {
+            this.maxWaiting = maxWaiting;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public FullPolicy getOnFull() {
+            return onFull;
+        }
+
+        public void setOnFull(FullPolicy onFull) {
+            this.onFull = onFull;
+        }
+    }
+
+    private Settings defaults = new Settings();
+
+    private Map<String, Settings> upstreams = new LinkedHashMap<>();
+
+    public Settings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Settings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Settings> getUpstreams() {
+        return upstreams;
+    }
+
+    public void setUpstreams(Map<String, Settings> upstreams) {
+        this.upstreams = upstreams;
+    }
+}
@@ -0,0 +1,76 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the dataset and source catalog and its hot reloading. Configure under {@code mekluppie.catalog}
+ * in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.catalog")
+public class CatalogProperties {
+
+    /** JSON array of datasets, watched for changes; the bundled list.json is used when unset. */
+    private Path datasets;
+
+    /** JSON array of terminology sources, watched for changes; the bundled sources.json is used when unset. */
+    private Path sources;
+
+    /** How often the catalog files are checked for changes. */
+    private Duration pollInterval = Duration.ofSeconds(30);
+
+    /**
+     * How long the Weaviate class of a replaced catalog is kept. Should cover the poll interval plus an import, so
+     * other replicas have moved on before it goes.
+     */
+    private Duration retireAfter = Duration.ofMinutes(10);
+
+    /** Most recently searched concepts that are searched again in a new Weaviate class before it is used. */
+    private int warmConcepts = 200;
+
+    public boolean isWatched() {
+        return datasets != null || sources != null;
+    }
+
+    public Path getDatasets() {
+        return datasets;
+    }
+
+    public void setDatasets(Path datasets) {
+        this.datasets = datasets;
+    }
+
+    public Path getSources() {
+        return sources;
+    }
+
+    public void setSources(Path sources) {
+        this.sources = sources;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getRetireAfter() {
+        return retireAfter;
+    }
+
+    public void setRetireAfter(Duration retireAfter) {
+        this.retireAfter = retireAfter;
+    }
+
+    public int getWarmConcepts() {
+        return warmConcepts;
+    }
+
+    public void setWarmConcepts(int warmConcepts) {
+        this.warmConcepts = warmConcepts;
+    }
+}
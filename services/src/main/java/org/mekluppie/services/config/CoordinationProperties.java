@@ -0,0 +1,149 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the leases that let exactly one replica run one-off work such as creating the Weaviate schema.
+ * Configure under {@code mekluppie.coordination} in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.coordination")
+public class CoordinationProperties {
+
+    public enum Backend {
+        /** Leases only coordinate within this JVM; for a single node and tests. */
+        IN_MEMORY,
+        /** A lease file on a volume all replicas mount. */
+        FILE,
+        /** A row in a database all replicas reach. */
+        JDBC,
+        /** An object in the Weaviate cluster the replicas already share. */
+        WEAVIATE
+    }
+
+    public enum BusyPolicy {
+        /** Wait until the holder is done, then take the lease and run the (by then usually no-op) work. */
+        WAIT,
+        /** Return at once without running the work. */
+        SKIP
+    }
+
+    public static class Jdbc {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /** Created when missing. */
+        private String table = "mekluppie_lease";
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public void setTable(String table) {
+            this.table = table;
+        }
+    }
+
+    private Backend backend = Backend.IN_MEMORY;
+
+    /** How long a lease lasts without renewal; the holder renews it every third of this. */
+    private Duration leaseTtl = Duration.ofMinutes(2);
+
+    private BusyPolicy onBusy = BusyPolicy.WAIT;
+
+    /** Longest a replica waits for another to finish before giving up without running the work. */
+    private Duration maxWait = Duration.ofMinutes(30);
+
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    /** Directory of the lease files for the {@code file} backend. */
+    private Path directory = Path.of("cache/leases");
+
+    private Jdbc jdbc = new Jdbc();
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public Duration getLeaseTtl() {
+        return leaseTtl;
+    }
+
+    public void setLeaseTtl(Duration leaseTtl) {
+        this.leaseTtl = leaseTtl;
+    }
+
+    public BusyPolicy getOnBusy() {
+        return onBusy;
+    }
+
+    public void setOnBusy(BusyPolicy onBusy) {
+        this.onBusy = onBusy;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public Jdbc getJdbc() {
+        return jdbc;
+    }
+
+    public void setJdbc(Jdbc jdbc) {
+        this.jdbc = jdbc;
+    }
+}
@@ -0,0 +1,117 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the near-caches of recommendation, term and SPARQL results and the backend they share across
+ * nodes. Configure under {@code mekluppie.cache} in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.cache")
+public class DistributedCacheProperties {
+
+    public enum Backend { IN_PROCESS, REDIS }
+
+    private Backend backend = Backend.IN_PROCESS;
+
+    private String redisUri = "redis://localhost:6379";
+
+    /** Prefix of all keys and of the invalidation channel, so several deployments can share one Redis. */
+    private String keyPrefix = "mekluppie";
+
+    /** How long to wait for Redis to connect or answer before treating a lookup as a miss. */
+    private Duration redisTimeout = Duration.ofSeconds(1);
+
+    /** Entries the in-process backend keeps per cache. */
+    private int inProcessMaxEntries = 10_000;
+
+    /** Entries each node keeps in memory per cache. */
+    private int localMaxEntries = 1000;
+
+    /** How long a node serves an entry from memory; bounds staleness should an invalidation be lost. */
+    private Duration localTtl = Duration.ofMinutes(5);
+
+    /** How long the shared backend keeps entries of caches without a ttl of their own. */
+    private Duration defaultTtl = Duration.ofHours(1);
+
+    private Map<String, Duration> ttl = new HashMap<>();
+
+    public Duration ttlFor(String cache) {
+        return ttl.getOrDefault(cache, defaultTtl);
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public String getRedisUri() {
+        return redisUri;
+    }
+
+    public void setRedisUri(String redisUri) {
+        this.redisUri = redisUri;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public Duration getRedisTimeout() {
+        return redisTimeout;
+    }
+
+    public void setRedisTimeout(Duration redisTimeout) {
+        this.redisTimeout = redisTimeout;
+    }
+
+    public int getInProcessMaxEntries() {
+        return inProcessMaxEntries;
+    }
+
+    public void setInProcessMaxEntries(int inProcessMaxEntries) {
+        this.inProcessMaxEntries = inProcessMaxEntries;
+    }
+
+    public int getLocalMaxEntries() {
+        return localMaxEntries;
+    }
+
+    public void setLocalMaxEntries(int localMaxEntries) {
+        this.localMaxEntries = localMaxEntries;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public void setLocalTtl(Duration localTtl) {
+        this.localTtl = localTtl;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Map<String, Duration> getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Map<String, Duration> ttl) {
+        this.ttl = ttl;
+    }
+}
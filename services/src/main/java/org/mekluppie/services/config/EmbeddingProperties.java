@@ -0,0 +1,88 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Selects the embedding backend used for dataset vector search. Configure under {@code mekluppie.embedding}
+ * in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.embedding")
+public class EmbeddingProperties {
+
+    public enum Provider { OPENAI, ONNX }
+
+    private Provider provider = Provider.OPENAI;
+
+    private final Onnx onnx = new Onnx();
+
+    public Provider getProvider() {
+        return provider;
+    }
+
+    public void setProvider(Provider provider) {
+        this.provider = provider;
+    }
+
+    public Onnx getOnnx() {
+        return onnx;
+    }
+
+    /** A sentence-transformer exported to ONNX, e.g. paraphrase-multilingual-MiniLM-L12-v2. */
+    public static class Onnx {
+
+        private Path model;
+
+        /** The model's tokenizer.json. */
+        private Path tokenizer;
+
+        private int batchSize = 32;
+
+        /** Tokens per input; longer inputs are truncated. */
+        private int maxLength = 128;
+
+        /** Threads ONNX Runtime uses within one inference; 0 uses all cores. */
+        private int intraOpThreads = 0;
+
+        public Path getModel() {
+            return model;
+        }
+
+        public void setModel(Path model) {
+            this.model = model;
+        }
+
+        public Path getTokenizer() {
+            return tokenizer;
+        }
+
+        public void setTokenizer(Path tokenizer) {
+            this.tokenizer = tokenizer;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        public int getIntraOpThreads() {
+            return intraOpThreads;
+        }
+
+        public void setIntraOpThreads(int intraOpThreads) {
+            this.intraOpThreads = intraOpThreads;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the precomputed recommendations of frequent queries. Configure under
+ * {@code mekluppie.recommend.hot-queries} in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.recommend.hot-queries")
+public class HotQueryProperties {
+
+    private boolean enabled = true;
+
+    /** Number of queries per endpoint whose recommendations are kept precomputed. */
+    private int topN = 50;
+
+    /** Times a query must have been seen, since counts were last halved, before it is precomputed. */
+    private long minCount = 3;
+
+    private int sketchWidth = 4096;
+
+    private int sketchDepth = 4;
+
+    /** Time between refreshes; every refresh also halves the query counts. */
+    private Duration refreshInterval = Duration.ofMinutes(10);
+
+    /** Precomputed recommendations older than this are no longer served, and recomputed at the next refresh. */
+    private Duration maxAge = Duration.ofHours(6);
+
+    /** File the precomputed recommendations are saved to, and loaded from at startup. */
+    private Path store = Path.of("cache/hot-queries.json");
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    public void setTopN(int topN) {
+        this.topN = topN;
+    }
+
+    public long getMinCount() {
+        return minCount;
+    }
+
+    public void setMinCount(long minCount) {
+        this.minCount = minCount;
+    }
+
+    public int getSketchWidth() {
+        return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+        this.sketchWidth = sketchWidth;
+    }
+
+    public int getSketchDepth() {
+        return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+        this.sketchDepth = sketchDepth;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Path getStore() {
+        return store;
+    }
+
+    public void setStore(Path store) {
+        this.store = store;
+    }
+}
@@ -0,0 +1,104 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for the thumbnail proxy in front of Beeldbank images. Configure under {@code mekluppie.images} in
+ * services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.images")
+public class ImageProxyProperties {
+
+    /** Directory holding the generated thumbnails. */
+    private Path cacheDir = Path.of("cache/thumbnails");
+
+    /** Total size of the thumbnails kept on disk; the least recently served are deleted first. */
+    private DataSize maxCacheSize = DataSize.ofMegabytes(512);
+
+    /** Longest edge, in pixels, of the thumbnails generated for every image. */
+    private List<Integer> sizes = new ArrayList<>(List.of(160, 320, 640));
+
+    /** Hosts (and their subdomains) the proxy will fetch images from. */
+    private List<String> allowedHosts = new ArrayList<>(List.of("uva.nl"));
+
+    /** Originals larger than this are refused. */
+    private DataSize maxSourceSize = DataSize.ofMegabytes(25);
+
+    private Duration fetchTimeout = Duration.ofSeconds(15);
+
+    /** JPEG quality of the thumbnails, between 0 and 1. */
+    private float quality = 0.85f;
+
+    /** {@code max-age} sent to clients; thumbnails are immutable for a given image URL and size. */
+    private Duration cacheMaxAge = Duration.ofDays(30);
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public DataSize getMaxCacheSize() {
+        return maxCacheSize;
+    }
+
+    public void setMaxCacheSize(DataSize maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    public List<Integer> getSizes() {
+        return sizes;
+    }
+
+    public void setSizes(List<Integer> sizes) {
+        this.sizes = sizes;
+    }
+
+    public List<String> getAllowedHosts() {
+        return allowedHosts;
+    }
+
+    public void setAllowedHosts(List<String> allowedHosts) {
+        this.allowedHosts = allowedHosts;
+    }
+
+    public DataSize getMaxSourceSize() {
+        return maxSourceSize;
+    }
+
+    public void setMaxSourceSize(DataSize maxSourceSize) {
+        this.maxSourceSize = maxSourceSize;
+    }
+
+    public Duration getFetchTimeout() {
+        return fetchTimeout;
+    }
+
+    public void setFetchTimeout(Duration fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    public float getQuality() {
+        return quality;
+    }
+
+    public void setQuality(float quality) {
+        this.quality = quality;
+    }
+
+    public Duration getCacheMaxAge() {
+        return cacheMaxAge;
+    }
+
+    public void setCacheMaxAge(Duration cacheMaxAge) {
+        this.cacheMaxAge = cacheMaxAge;
+    }
+}
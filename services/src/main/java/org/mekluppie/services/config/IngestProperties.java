@@ -0,0 +1,73 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for loading the dataset catalog into the search index. Configure under {@code mekluppie.ingest} in
+ * services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.ingest")
+public class IngestProperties {
+
+    /**
+     * Whether the Weaviate class of the current catalog is created and imported when it is missing at startup. The
+     * command line tools turn this off: they only read the index the web nodes build.
+     */
+    private boolean onStartup = true;
+
+    /** DCAT dump of the dataset register (any RDF syntax, optionally gzipped); list.json is used when unset. */
+    private Path dcatDump;
+
+    /** Objects sent to Weaviate per batch request. */
+    private int batchSize = 100;
+
+    /** Subjects kept open while streaming; a subject's triples are expected to lie within this window. */
+    private int window = 10_000;
+
+    /** Preferred literal languages for titles and descriptions, most preferred first. */
+    private List<String> languages = new ArrayList<>(List.of("nl", "en"));
+
+    public boolean isOnStartup() {
+        return onStartup;
+    }
+
+    public void setOnStartup(boolean onStartup) {
+        this.onStartup = onStartup;
+    }
+
+    public Path getDcatDump() {
+        return dcatDump;
+    }
+
+    public void setDcatDump(Path dcatDump) {
+        this.dcatDump = dcatDump;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public void setLanguages(List<String> languages) {
+        this.languages = languages;
+    }
+}
@@ -0,0 +1,77 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the on-disk store of LLM recommendation results. Configure under
+ * {@code mekluppie.recommend.result-store} in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.recommend.result-store")
+public class LlmCacheProperties {
+
+    private boolean enabled = true;
+
+    private Path directory = Path.of("cache/llm-results");
+
+    private DataSize maxSegmentSize = DataSize.ofMegabytes(64);
+
+    /** Results older than this are recomputed. */
+    private Duration ttl = Duration.ofDays(30);
+
+    /** Compaction runs once at least this share of the store is taken by overwritten or deleted results. */
+    private double compactionThreshold = 0.5;
+
+    private Duration compactionInterval = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getMaxSegmentSize() {
+        return maxSegmentSize;
+    }
+
+    public void setMaxSegmentSize(DataSize maxSegmentSize) {
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public void setCompactionThreshold(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+}
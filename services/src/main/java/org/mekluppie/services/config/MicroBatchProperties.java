@@ -0,0 +1,55 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for coalescing concurrent dataset recommendation requests into shared LLM calls.
+ * Configure under {@code mekluppie.recommend.micro-batch} in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.recommend.micro-batch")
+public class MicroBatchProperties {
+
+    private boolean enabled = true;
+
+    /** A batch is sent once no new request arrived for this long. */
+    private Duration window = Duration.ofMillis(20);
+
+    /** Upper bound on the time a request waits for its batch to be sent. */
+    private Duration maxDelay = Duration.ofMillis(100);
+
+    private int maxBatchSize = 8;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
@@ -0,0 +1,98 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Request and token budgets for OpenAI chat calls. Configure under {@code mekluppie.openai.rate-limit}
+ * in services-application.yaml; match the limits of the API key's tier.
+ */
+@ConfigurationProperties(prefix = "mekluppie.openai.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private int requestsPerMinute = 500;
+
+    private int tokensPerMinute = 200_000;
+
+    /** Completion tokens assumed per call when estimating its cost up front. */
+    private int expectedOutputTokens = 800;
+
+    /** Share of the budget batch calls must leave free for interactive calls. */
+    private double interactiveReserve = 0.2;
+
+    /** Factor the limits are multiplied with after a 429. */
+    private double backoffFactor = 0.7;
+
+    /** Share of the configured limit restored after every successful call. */
+    private double recoveryStep = 0.02;
+
+    /** Pause after a 429 that came without reset information. */
+    private Duration defaultRetryAfter = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public int getTokensPerMinute() {
+        return tokensPerMinute;
+    }
+
+    public void setTokensPerMinute(int tokensPerMinute) {
+        this.tokensPerMinute = tokensPerMinute;
+    }
+
+    public int getExpectedOutputTokens() {
+        return expectedOutputTokens;
+    }
+
+    public void setExpectedOutputTokens(int expectedOutputTokens) {
+        this.expectedOutputTokens = expectedOutputTokens;
+    }
+
+    public double getInteractiveReserve() {
+        return interactiveReserve;
+    }
+
+    public void setInteractiveReserve(double interactiveReserve) {
+        this.interactiveReserve = interactiveReserve;
+    }
+
+    public double getBackoffFactor() {
+        return backoffFactor;
+    }
+
+    public void setBackoffFactor(double backoffFactor) {
+        this.backoffFactor = backoffFactor;
+    }
+
+    public double getRecoveryStep() {
+        return recoveryStep;
+    }
+
+    public void setRecoveryStep(double recoveryStep) {
+        this.recoveryStep = recoveryStep;
+    }
+
+    public Duration getDefaultRetryAfter() {
+        return defaultRetryAfter;
+    }
+
+    public void setDefaultRetryAfter(Duration defaultRetryAfter) {
+        this.defaultRetryAfter = defaultRetryAfter;
+    }
+}
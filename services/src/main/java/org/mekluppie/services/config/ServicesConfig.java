@@ -1,24 +1,93 @@
 package org.mekluppie.services.config;
 
+import io.micrometer.observation.ObservationRegistry;
+import io.weaviate.client.WeaviateClient;
+import org.mekluppie.services.cache.CacheBackend;
+import org.mekluppie.services.cache.InProcessCacheBackend;
+import org.mekluppie.services.cache.RedisCacheBackend;
+import org.mekluppie.services.coordination.FileLeaseBackend;
+import org.mekluppie.services.coordination.InMemoryLeaseBackend;
+import org.mekluppie.services.coordination.JdbcLeaseBackend;
+import org.mekluppie.services.coordination.LeaseBackend;
+import org.mekluppie.services.coordination.WeaviateLeaseBackend;
+import org.mekluppie.services.embedding.OnnxEmbeddingModel;
+import org.mekluppie.services.ratelimit.RateLimitingAdvisor;
+import org.mekluppie.services.resilience.BulkheadAdvisor;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.openai.OpenAiEmbeddingModel;
 import org.springframework.ai.openai.api.OpenAiApi;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableConfigurationProperties({TermsProperties.class, TypeaheadProperties.class, BatchProperties.class,
+        MicroBatchProperties.class, RateLimitProperties.class, EmbeddingProperties.class,
+        VectorSearchProperties.class, IngestProperties.class, ImageProxyProperties.class,
+        HotQueryProperties.class, BulkheadProperties.class, LlmCacheProperties.class,
+        DistributedCacheProperties.class, CoordinationProperties.class, CatalogProperties.class})
 public class ServicesConfig {
 
+    /**
+     * The background jobs: typeahead harvesting, hot-query refreshes, catalog reloads, store compaction and cache
+     * sweeps. The command line tools turn them off with {@code mekluppie.scheduling.enabled=false}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "mekluppie.scheduling", name = "enabled", matchIfMissing = true)
+    static class SchedulingConfig {
+    }
+
+    @Bean
+    public ChatClient chatClient(ChatModel chatModel, BulkheadAdvisor bulkheadAdvisor, RateLimitingAdvisor rateLimitingAdvisor,
+                                 ObjectProvider<ObservationRegistry> observationRegistry) {
+        return ChatClient.builder(chatModel, observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP), null)
+                .defaultAdvisors(bulkheadAdvisor, rateLimitingAdvisor)
+                .build();
+    }
+
+    /**
+     * Primary over Spring AI's auto-configured OpenAI embedding model, so the configured provider is the one used.
+     * {@code OPENAI_API_KEY} is only required for the OpenAI provider.
+     */
+    @Bean
+    @Primary
+    public EmbeddingModel embeddingModel(Environment environment, EmbeddingProperties embeddingProperties)
+            throws Exception {
+        if (embeddingProperties.getProvider() == EmbeddingProperties.Provider.ONNX) {
+            return new OnnxEmbeddingModel(embeddingProperties.getOnnx());
+        }
+        return new OpenAiEmbeddingModel(OpenAiApi.builder()
+                .apiKey(environment.getRequiredProperty("OPENAI_API_KEY"))
+                .build());
+    }
+
     @Bean
-    public ChatClient chatClient(ChatModel chatModel) {
-        return ChatClient.builder(chatModel).build();
+    public CacheBackend cacheBackend(DistributedCacheProperties cacheProperties) {
+        if (cacheProperties.getBackend() == DistributedCacheProperties.Backend.REDIS) {
+            return new RedisCacheBackend(cacheProperties.getRedisUri(), cacheProperties.getKeyPrefix(),
+                    cacheProperties.getRedisTimeout());
+        }
+        return new InProcessCacheBackend(cacheProperties.getInProcessMaxEntries());
     }
 
     @Bean
-    public EmbeddingModel embeddingModel(@Value("${OPENAI_API_KEY}") String apiKey) {
-        return new OpenAiEmbeddingModel(OpenAiApi.builder().apiKey(apiKey).build());
+    public LeaseBackend leaseBackend(CoordinationProperties coordinationProperties,
+                                     ObjectProvider<WeaviateClient> weaviateClient) {
+        return switch (coordinationProperties.getBackend()) {
+            case IN_MEMORY -> new InMemoryLeaseBackend();
+            case FILE -> new FileLeaseBackend(coordinationProperties.getDirectory());
+            case JDBC -> new JdbcLeaseBackend(coordinationProperties.getJdbc().getUrl(),
+                    coordinationProperties.getJdbc().getUsername(), coordinationProperties.getJdbc().getPassword(),
+                    coordinationProperties.getJdbc().getTable());
+            case WEAVIATE -> new WeaviateLeaseBackend(weaviateClient.getObject());
+        };
     }
 }
@@ -0,0 +1,119 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the Termennetwerk gateway and the per-source deadlines, hedging and circuit breaking
+ * applied in front of it. Configure under {@code mekluppie.terms} in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.terms")
+public class TermsProperties {
+
+    private String endpoint = "https://termennetwerk-api.netwerkdigitaalerfgoed.nl/graphql";
+
+    /** Number of latency samples kept per source. */
+    private int windowSize = 128;
+
+    /** Samples needed before deadlines and hedging are derived from the window. */
+    private int minSamples = 10;
+
+    /** Deadline used for sources without enough samples. */
+    private Duration defaultDeadline = Duration.ofSeconds(5);
+
+    private Duration minDeadline = Duration.ofMillis(500);
+    private Duration maxDeadline = Duration.ofSeconds(10);
+
+    /** Factor applied to a source's p99 latency to get its deadline. */
+    private double deadlineMultiplier = 1.5;
+
+    /** Send a duplicate request when a source is still busy after its p95 latency. */
+    private boolean hedging = true;
+
+    /** Consecutive failures or timeouts before a source's circuit opens. */
+    private int failureThreshold = 5;
+
+    /** Time an open circuit waits before letting a single probe through. */
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public Duration getDefaultDeadline() {
+        return defaultDeadline;
+    }
+
+    public void setDefaultDeadline(Duration defaultDeadline) {
+        this.defaultDeadline = defaultDeadline;
+    }
+
+    public Duration getMinDeadline() {
+        return minDeadline;
+    }
+
+    public void setMinDeadline(Duration minDeadline) {
+        this.minDeadline = minDeadline;
+    }
+
+    public Duration getMaxDeadline() {
+        return maxDeadline;
+    }
+
+    public void setMaxDeadline(Duration maxDeadline) {
+        this.maxDeadline = maxDeadline;
+    }
+
+    public double getDeadlineMultiplier() {
+        return deadlineMultiplier;
+    }
+
+    public void setDeadlineMultiplier(double deadlineMultiplier) {
+        this.deadlineMultiplier = deadlineMultiplier;
+    }
+
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    public void setHedging(boolean hedging) {
+        this.hedging = hedging;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+}
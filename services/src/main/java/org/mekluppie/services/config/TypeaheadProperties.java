@@ -0,0 +1,88 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for the local typeahead index, harvested in the background from the Termennetwerk.
+ * Configure under {@code mekluppie.typeahead} in services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.typeahead")
+public class TypeaheadProperties {
+
+    private boolean enabled = true;
+
+    /** Source URIs whose labels are harvested. */
+    private List<String> sources = new ArrayList<>();
+
+    /** Search queries sent to every source to harvest its terms. */
+    private List<String> seedQueries = new ArrayList<>();
+
+    private List<String> languages = new ArrayList<>(List.of("nl", "en"));
+
+    /** Number of (source, seed query) pairs harvested per refresh; the next refresh continues where this one stopped. */
+    private int batchSize = 20;
+
+    /** Typos tolerated in a typeahead query. */
+    private int maxEdits = 1;
+
+    private int maxResults = 50;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getSources() {
+        return sources;
+    }
+
+    public void setSources(List<String> sources) {
+        this.sources = sources;
+    }
+
+    public List<String> getSeedQueries() {
+        return seedQueries;
+    }
+
+    public void setSeedQueries(List<String> seedQueries) {
+        this.seedQueries = seedQueries;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public void setLanguages(List<String> languages) {
+        this.languages = languages;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxEdits() {
+        return maxEdits;
+    }
+
+    public void setMaxEdits(int maxEdits) {
+        this.maxEdits = maxEdits;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+}
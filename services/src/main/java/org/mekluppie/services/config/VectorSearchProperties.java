@@ -0,0 +1,54 @@
+package org.mekluppie.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits and caching of dataset vector search. Configure under {@code mekluppie.vector-search} in
+ * services-application.yaml.
+ */
+@ConfigurationProperties(prefix = "mekluppie.vector-search")
+public class VectorSearchProperties {
+
+    /** Concepts accepted in one batched search. */
+    private int maxConcepts = 50;
+
+    /** Results fetched and cached per concept; requests with {@code offset + limit} up to this are served from cache. */
+    private int cacheDepth = 20;
+
+    /** Deepest result, {@code offset + limit}, a request may page to; each concept fetches at most this many. */
+    private int maxResults = 100;
+
+    private int cacheMaxEntries = 5000;
+
+    public int getMaxConcepts() {
+        return maxConcepts;
+    }
+
+    public void setMaxConcepts(int maxConcepts) {
+        this.maxConcepts = maxConcepts;
+    }
+
+    public int getCacheDepth() {
+        return cacheDepth;
+    }
+
+    public void setCacheDepth(int cacheDepth) {
+        this.cacheDepth = cacheDepth;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+}
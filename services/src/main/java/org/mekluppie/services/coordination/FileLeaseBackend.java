@@ -0,0 +1,94 @@
+package org.mekluppie.services.coordination;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Leases as files in a directory every replica mounts. Each file holds the owner and expiry of one lease; an OS
+ * file lock is held only while a replica reads and rewrites it, so a crashed holder never blocks the others
+ * beyond its lease's ttl.
+ */
+public class FileLeaseBackend implements LeaseBackend {
+
+    private final Path directory;
+
+    public FileLeaseBackend(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create lease directory " + directory, e);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String owner, Duration ttl) {
+        return update(name, (current, now) -> {
+            if (current != null && !current.owner().equals(owner) && current.expiresAt() > now) {
+                return null;
+            }
+            return new Entry(owner, now + ttl.toMillis());
+        });
+    }
+
+    @Override
+    public void release(String name, String owner) {
+        update(name, (current, now) -> current != null && current.owner().equals(owner) ? Entry.FREE : null);
+    }
+
+    private record Entry(String owner, long expiresAt) {
+        static final Entry FREE = new Entry("", 0);
+
+        static Entry parse(String content) {
+            int separator = content.lastIndexOf('\n');
+            if (separator < 0) {
+                return null;
+            }
+            try {
+                return new Entry(content.substring(0, separator), Long.parseLong(content.substring(separator + 1).strip()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        String format() {
+            return owner + "\n" + expiresAt;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Transition {
+        /** @return the entry to write, or {@code null} to leave the file as it is */
+        Entry next(Entry current, long now);
+    }
+
+    /** Reads, decides and rewrites the lease file under an exclusive lock. */
+    private boolean update(String name, Transition transition) {
+        Path file = directory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + ".lease");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 4096));
+            channel.read(buffer, 0);
+            Entry current = Entry.parse(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+            Entry next = transition.next(current, System.currentTimeMillis());
+            if (next == null) {
+                return false;
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(next.format().getBytes(StandardCharsets.UTF_8)), 0);
+            channel.force(true);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot update lease file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.mekluppie.services.coordination;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leases within one JVM: enough for a single node, and for tests in which several coordinators stand in for
+ * replicas.
+ */
+public class InMemoryLeaseBackend implements LeaseBackend {
+
+    private record Lease(String owner, long expiresAt) { }
+
+    private final Map<String, Lease> leases = new HashMap<>();
+
+    @Override
+    public synchronized boolean tryAcquire(String name, String owner, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Lease lease = leases.get(name);
+        if (lease != null && !lease.owner().equals(owner) && lease.expiresAt() > now) {
+            return false;
+        }
+        leases.put(name, new Lease(owner, now + ttl.toMillis()));
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String name, String owner) {
+        leases.computeIfPresent(name, (n, lease) -> lease.owner().equals(owner) ? null : lease);
+    }
+}
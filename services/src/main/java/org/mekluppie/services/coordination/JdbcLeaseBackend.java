@@ -0,0 +1,88 @@
+package org.mekluppie.services.coordination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Leases as rows of a table in a database every replica reaches. Taking a lease is a single conditional
+ * {@code UPDATE}, or an {@code INSERT} for a lease never taken before, so the database decides between
+ * replicas that race for it. The JDBC driver is expected on the classpath of the deployment.
+ */
+public class JdbcLeaseBackend implements LeaseBackend {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcLeaseBackend.class);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String table;
+
+    public JdbcLeaseBackend(String url, String username, String password, String table) {
+        if (!table.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid lease table name: " + table);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.table = table;
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table
+                    + " (name VARCHAR(200) PRIMARY KEY, owner VARCHAR(200) NOT NULL, expires_at BIGINT NOT NULL)");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot prepare lease table " + table, e);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String owner, Duration ttl) {
+        long now = System.currentTimeMillis();
+        try (Connection connection = connect()) {
+            try (PreparedStatement update = connection.prepareStatement("UPDATE " + table
+                    + " SET owner = ?, expires_at = ? WHERE name = ? AND (owner = ? OR expires_at < ?)")) {
+                update.setString(1, owner);
+                update.setLong(2, now + ttl.toMillis());
+                update.setString(3, name);
+                update.setString(4, owner);
+                update.setLong(5, now);
+                if (update.executeUpdate() == 1) {
+                    return true;
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+                    + " (name, owner, expires_at) VALUES (?, ?, ?)")) {
+                insert.setString(1, name);
+                insert.setString(2, owner);
+                insert.setLong(3, now + ttl.toMillis());
+                return insert.executeUpdate() == 1;
+            } catch (SQLException e) {
+                // another replica holds the row
+                return false;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot acquire lease " + name, e);
+        }
+    }
+
+    @Override
+    public void release(String name, String owner) {
+        try (Connection connection = connect();
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table
+                     + " WHERE name = ? AND owner = ?")) {
+            delete.setString(1, name);
+            delete.setString(2, owner);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            logger.warn("Cannot release lease {}, it expires by itself: {}", name, e.getMessage());
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+}
@@ -0,0 +1,22 @@
+package org.mekluppie.services.coordination;
+
+import java.time.Duration;
+
+/**
+ * Storage of named leases shared by all replicas. A lease is held by one owner until it is released or its ttl
+ * runs out without renewal.
+ */
+public interface LeaseBackend {
+
+    /**
+     * Takes the lease when it is free or expired, or extends it when {@code owner} already holds it.
+     *
+     * @return whether {@code owner} now holds the lease for {@code ttl}
+     */
+    boolean tryAcquire(String name, String owner, Duration ttl);
+
+    /**
+     * Frees the lease if {@code owner} still holds it.
+     */
+    void release(String name, String owner);
+}
@@ -0,0 +1,110 @@
+package org.mekluppie.services.coordination;
+
+import org.mekluppie.services.config.CoordinationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one-off work on one replica at a time, under a lease held for the duration of the work and renewed in
+ * the background. Replicas that find the lease taken wait for the holder, or skip, as configured.
+ * <p>
+ * When the work is done the renewal is stopped and waited for before the lease is released, so a renewal still
+ * in flight cannot take the lease again after the release.
+ */
+@Component
+public class LeaseCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(LeaseCoordinator.class);
+
+    private final LeaseBackend backend;
+    private final CoordinationProperties properties;
+    private final String owner;
+
+    @Autowired
+    public LeaseCoordinator(LeaseBackend backend, CoordinationProperties properties) {
+        this(backend, properties, hostName() + "/" + ProcessHandle.current().pid() + "/" + UUID.randomUUID());
+    }
+
+    LeaseCoordinator(LeaseBackend backend, CoordinationProperties properties, String owner) {
+        this.backend = backend;
+        this.properties = properties;
+        this.owner = owner;
+    }
+
+    /**
+     * Runs {@code work} while holding lease {@code name}. When another replica holds it, waits until it is
+     * released and then runs {@code work}, which should find by then that there is nothing left to do; with
+     * {@code on-busy: skip}, or after waiting {@code max-wait}, returns without running it.
+     *
+     * @return whether {@code work} ran on this replica
+     */
+    public boolean runExclusively(String name, Runnable work) throws InterruptedException {
+        Duration ttl = properties.getLeaseTtl();
+        long giveUpAt = System.nanoTime() + properties.getMaxWait().toNanos();
+        boolean announced = false;
+        while (!backend.tryAcquire(name, owner, ttl)) {
+            if (properties.getOnBusy() == CoordinationProperties.BusyPolicy.SKIP) {
+                logger.info("Lease {} is held by another replica, skipping", name);
+                return false;
+            }
+            if (System.nanoTime() > giveUpAt) {
+                logger.warn("Gave up waiting {} for lease {}", properties.getMaxWait(), name);
+                return false;
+            }
+            if (!announced) {
+                logger.info("Lease {} is held by another replica, waiting for it", name);
+                announced = true;
+            }
+            Thread.sleep(properties.getPollInterval());
+        }
+
+        CountDownLatch done = new CountDownLatch(1);
+        Thread renewal = Thread.ofVirtual().name("lease-" + name).start(() -> renew(name, ttl, done));
+        try {
+            work.run();
+            return true;
+        } finally {
+            done.countDown();
+            if (renewal.join(ttl)) {
+                backend.release(name, owner);
+            } else {
+                logger.warn("Renewal of lease {} did not finish within {}, leaving the lease to expire", name, ttl);
+            }
+        }
+    }
+
+    /** Extends the lease every third of its ttl until {@code done}; never interrupted mid-call to the backend. */
+    private void renew(String name, Duration ttl, CountDownLatch done) {
+        while (true) {
+            try {
+                if (done.await(ttl.toNanos() / 3, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+                if (!backend.tryAcquire(name, owner, ttl)) {
+                    logger.error("Lost lease {} to another replica while holding it", name);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Renewing lease {} failed, retrying: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.mekluppie.services.coordination;
+
+import io.weaviate.client.WeaviateClient;
+import io.weaviate.client.base.Result;
+import io.weaviate.client.v1.data.model.WeaviateObject;
+import io.weaviate.client.v1.schema.model.DataType;
+import io.weaviate.client.v1.schema.model.Property;
+import io.weaviate.client.v1.schema.model.WeaviateClass;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Leases as objects in the Weaviate cluster the replicas share anyway, one per lease under an id derived from
+ * its name. Creating an object whose id exists fails, which decides between replicas taking a free lease.
+ * <p>
+ * Weaviate has no conditional updates, so taking over an expired lease is a delete followed by a create and a
+ * re-read. In a narrow window two replicas may both get past it; work run under a lease must therefore still
+ * check whether it is needed, as the Weaviate initialisation does.
+ */
+public class WeaviateLeaseBackend implements LeaseBackend {
+
+    static final String LEASE_CLASS = "MekluppieLease";
+
+    private final WeaviateClient client;
+    private volatile boolean schemaReady;
+
+    public WeaviateLeaseBackend(WeaviateClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String owner, Duration ttl) {
+        ensureSchema();
+        String id = id(name);
+        long now = System.currentTimeMillis();
+        Map<String, Object> properties = Map.of("name", name, "owner", owner, "expiresAt", now + ttl.toMillis());
+
+        WeaviateObject current = read(id);
+        if (current != null) {
+            String holder = (String) current.getProperties().get("owner");
+            if (owner.equals(holder)) {
+                return !client.data().updater().withClassName(LEASE_CLASS).withID(id).withMerge()
+                        .withProperties(properties).run().hasErrors();
+            }
+            if (expiresAt(current) > now) {
+                return false;
+            }
+            client.data().deleter().withClassName(LEASE_CLASS).withID(id).run();
+        }
+        if (client.data().creator().withClassName(LEASE_CLASS).withID(id).withProperties(properties).run().hasErrors()) {
+            return false;
+        }
+        WeaviateObject created = read(id);
+        return created != null && owner.equals(created.getProperties().get("owner"));
+    }
+
+    @Override
+    public void release(String name, String owner) {
+        String id = id(name);
+        WeaviateObject current = read(id);
+        if (current != null && owner.equals(current.getProperties().get("owner"))) {
+            client.data().deleter().withClassName(LEASE_CLASS).withID(id).run();
+        }
+    }
+
+    private WeaviateObject read(String id) {
+        Result<List<WeaviateObject>> result = client.data().objectsGetter().withClassName(LEASE_CLASS).withID(id).run();
+        if (result.hasErrors() && result.getError().getStatusCode() != 404) {
+            throw new IllegalStateException("Cannot read lease " + id + ": " + result.getError());
+        }
+        return result.getResult() != null && !result.getResult().isEmpty() ? result.getResult().get(0) : null;
+    }
+
+    private static long expiresAt(WeaviateObject lease) {
+        return lease.getProperties().get("expiresAt") instanceof Number number ? number.longValue() : 0;
+    }
+
+    /** Leases are not searched, so the class has no vectorizer and costs no embeddings. */
+    private void ensureSchema() {
+        if (schemaReady) {
+            return;
+        }
+        Result<WeaviateClass> existing = client.schema().classGetter().withClassName(LEASE_CLASS).run();
+        if (existing.getResult() == null) {
+            WeaviateClass leaseClass = WeaviateClass.builder()
+                    .className(LEASE_CLASS)
+                    .description("Leases coordinating one-off work between replicas")
+                    .vectorizer("none")
+                    .properties(List.of(
+                            Property.builder().name("name").dataType(List.of(DataType.TEXT)).build(),
+                            Property.builder().name("owner").dataType(List.of(DataType.TEXT)).build(),
+                            Property.builder().name("expiresAt").dataType(List.of(DataType.NUMBER)).build()))
+                    .build();
+            Result<Boolean> created = client.schema().classCreator().withClass(leaseClass).run();
+            // another replica may have created it in the meantime
+            if (created.hasErrors() && client.schema().classGetter().withClassName(LEASE_CLASS).run().getResult() == null) {
+                throw new IllegalStateException("Cannot create lease class: " + created.getError());
+            }
+        }
+        schemaReady = true;
+    }
+
+    private static String id(String name) {
+        return UUID.nameUUIDFromBytes(("lease:" + name).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -0,0 +1,178 @@
+package org.mekluppie.services.deadline;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The time budget of the request being handled on the current thread.
+ * <p>
+ * A deadline is bound to a thread with {@link #callWithin}, and follows work onto executors that propagate
+ * context (see {@link ContextExecutorService}). Upstream calls use {@link #remainingOr} to size their timeouts
+ * and {@link #bound} to give up, and interrupt the call, once the deadline passes or the deadline is cancelled,
+ * for instance because the client disconnected.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor("mekluppie.deadline",
+                CURRENT::get, CURRENT::set, CURRENT::remove);
+        EXECUTOR = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    private final long expiresAt;
+    private final List<Runnable> cancelHooks = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static <T> T callWithin(Deadline deadline, Supplier<T> call) {
+        try (Scope scope = deadline.enter()) {
+            return call.get();
+        }
+    }
+
+    /** Binds this deadline to the current thread until the returned scope is closed. */
+    public Scope enter() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * The smaller of {@code timeout} and the time left on the current deadline; {@code timeout} without one.
+     */
+    public static Duration remainingOr(Duration timeout) {
+        return current().map(deadline -> {
+            Duration remaining = deadline.remaining();
+            return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+        }).orElse(timeout);
+    }
+
+    /** Throws when the current deadline has passed or was cancelled. */
+    public static void checkCurrent(String what) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded before " + what);
+        }
+    }
+
+    /**
+     * Runs a blocking call so that the caller is released when the current deadline passes or is cancelled; the
+     * call itself is then interrupted. Without a deadline the call runs on the calling thread.
+     */
+    public static <T> T bound(String what, Supplier<T> call) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return call.get();
+        }
+        checkCurrent(what);
+        Future<T> future = EXECUTOR.submit(call::get);
+        return deadline.await(what, future, () -> future.cancel(true));
+    }
+
+    /**
+     * Waits for a result that other code is computing, for no longer than the current deadline allows.
+     */
+    public static <T> T await(String what, CompletableFuture<T> future) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return future.join();
+        }
+        return deadline.await(what, future, () -> { });
+    }
+
+    public Duration remaining() {
+        return cancelled ? Duration.ZERO : Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return cancelled || System.nanoTime() - expiresAt >= 0;
+    }
+
+    /** Marks the deadline as passed and runs the registered cancel hooks. */
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            cancelHooks.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Registers work to abort when the deadline is cancelled; close the returned handle once the work is done.
+     */
+    public Registration onCancel(Runnable hook) {
+        cancelHooks.add(hook);
+        if (cancelled) {
+            hook.run();
+        }
+        return () -> cancelHooks.remove(hook);
+    }
+
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private <T> T await(String what, Future<T> future, Runnable abort) {
+        Runnable hook = () -> {
+            future.cancel(false);
+            abort.run();
+        };
+        cancelHooks.add(hook);
+        try {
+            return future.get(remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            abort.run();
+            throw new DeadlineExceededException("Deadline exceeded during " + what);
+        } catch (InterruptedException e) {
+            abort.run();
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Interrupted during " + what);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            cancelHooks.remove(hook);
+        }
+    }
+}
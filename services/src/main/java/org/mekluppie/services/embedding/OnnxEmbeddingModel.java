@@ -0,0 +1,207 @@
+package org.mekluppie.services.embedding;
+
+import ai.djl.huggingface.tokenizers.Encoding;
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import org.mekluppie.services.config.EmbeddingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Embeds text in process with a sentence-transformer exported to ONNX, so query embeddings need no network
+ * round-trip.
+ * <p>
+ * Inputs are tokenized and run in batches; the token id, attention mask and token type tensors are backed by
+ * pooled direct buffers that are reused across batches instead of being allocated per call. ONNX Runtime
+ * parallelises each inference over the configured number of threads, and concurrent callers share the session.
+ * Token embeddings are mean-pooled over the attention mask and L2-normalised.
+ */
+public class OnnxEmbeddingModel implements EmbeddingModel, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OnnxEmbeddingModel.class);
+
+    private final OrtEnvironment environment = OrtEnvironment.getEnvironment();
+    private final OrtSession session;
+    private final HuggingFaceTokenizer tokenizer;
+    private final int batchSize;
+    private final int maxLength;
+    private final boolean usesTokenTypes;
+    private final BlockingQueue<InputBuffers> bufferPool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    public OnnxEmbeddingModel(EmbeddingProperties.Onnx properties) throws IOException, OrtException {
+        this.batchSize = properties.getBatchSize();
+        this.maxLength = properties.getMaxLength();
+        this.tokenizer = HuggingFaceTokenizer.builder()
+                .optTokenizerPath(properties.getTokenizer())
+                .optMaxLength(maxLength)
+                .optTruncation(true)
+                .optPadding(true)
+                .build();
+
+        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+        options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+        if (properties.getIntraOpThreads() > 0) {
+            options.setIntraOpNumThreads(properties.getIntraOpThreads());
+        }
+        this.session = environment.createSession(properties.getModel().toString(), options);
+        this.usesTokenTypes = session.getInputNames().contains("token_type_ids");
+        logger.info("Loaded ONNX embedding model {} (inputs {})", properties.getModel(), session.getInputNames());
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> inputs = request.getInstructions();
+        List<Embedding> embeddings = new ArrayList<>(inputs.size());
+        for (int from = 0; from < inputs.size(); from += batchSize) {
+            List<float[]> vectors = embedBatch(inputs.subList(from, Math.min(inputs.size(), from + batchSize)));
+            for (float[] vector : vectors) {
+                embeddings.add(new Embedding(vector, embeddings.size()));
+            }
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public void close() throws OrtException {
+        session.close();
+        tokenizer.close();
+    }
+
+    private List<float[]> embedBatch(List<String> texts) {
+        Encoding[] encodings = tokenizer.batchEncode(texts);
+        int rows = encodings.length;
+        int length = encodings[0].getIds().length;
+        long[] shape = {rows, length};
+
+        InputBuffers buffers = borrowBuffers();
+        try {
+            for (Encoding encoding : encodings) {
+                buffers.ids.put(encoding.getIds());
+                buffers.mask.put(encoding.getAttentionMask());
+                buffers.types.put(encoding.getTypeIds());
+            }
+            buffers.flip();
+
+            try (OnnxTensor ids = OnnxTensor.createTensor(environment, buffers.ids, shape);
+                 OnnxTensor mask = OnnxTensor.createTensor(environment, buffers.mask, shape);
+                 OnnxTensor types = usesTokenTypes ? OnnxTensor.createTensor(environment, buffers.types, shape) : null) {
+                Map<String, OnnxTensor> inputs = new HashMap<>();
+                inputs.put("input_ids", ids);
+                inputs.put("attention_mask", mask);
+                if (types != null) {
+                    inputs.put("token_type_ids", types);
+                }
+                try (OrtSession.Result result = session.run(inputs)) {
+                    OnnxTensor output = (OnnxTensor) result.get(0);
+                    long[][] masks = new long[rows][];
+                    for (int row = 0; row < rows; row++) {
+                        masks[row] = encodings[row].getAttentionMask();
+                    }
+                    return pool(output.getFloatBuffer(), output.getInfo().getShape(), masks);
+                }
+            }
+        } catch (OrtException e) {
+            throw new IllegalStateException("ONNX inference failed", e);
+        } finally {
+            buffers.clear();
+            bufferPool.offer(buffers);
+        }
+    }
+
+    /** Mean-pools token embeddings {@code [rows, tokens, dim]}; models that already pool return {@code [rows, dim]}. */
+    static List<float[]> pool(FloatBuffer values, long[] shape, long[][] masks) {
+        int rows = (int) shape[0];
+        int dimensions = (int) shape[shape.length - 1];
+        int tokens = shape.length == 3 ? (int) shape[1] : 1;
+
+        List<float[]> vectors = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            float[] vector = new float[dimensions];
+            long[] mask = masks[row];
+            int counted = 0;
+            for (int token = 0; token < tokens; token++) {
+                if (shape.length == 3 && mask[token] == 0) {
+                    continue;
+                }
+                int offset = (row * tokens + token) * dimensions;
+                for (int d = 0; d < dimensions; d++) {
+                    vector[d] += values.get(offset + d);
+                }
+                counted++;
+            }
+            normalise(vector, Math.max(counted, 1));
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    private static void normalise(float[] vector, int count) {
+        double norm = 0;
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] /= count;
+            norm += vector[d] * vector[d];
+        }
+        float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 1;
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] *= scale;
+        }
+    }
+
+    private InputBuffers borrowBuffers() {
+        InputBuffers buffers = bufferPool.poll();
+        return buffers != null ? buffers : new InputBuffers(batchSize * maxLength);
+    }
+
+    private static final class InputBuffers {
+        final LongBuffer ids;
+        final LongBuffer mask;
+        final LongBuffer types;
+
+        InputBuffers(int capacity) {
+            this.ids = allocate(capacity);
+            this.mask = allocate(capacity);
+            this.types = allocate(capacity);
+        }
+
+        void flip() {
+            ids.flip();
+            mask.flip();
+            types.flip();
+        }
+
+        void clear() {
+            ids.clear();
+            mask.clear();
+            types.clear();
+        }
+
+        private static LongBuffer allocate(int capacity) {
+            return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.mekluppie.services.hotqueries;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-min sketch with conservative update: approximate frequencies of arbitrarily many strings in
+ * {@code width * depth} counters. Estimates never undercount; with conservative update they overcount far less
+ * than the textbook sketch for skewed traffic like search queries.
+ */
+class CountMinSketch {
+
+    private final int width;
+    private final long[][] counts;
+
+    CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.counts = new long[depth][width];
+    }
+
+    /**
+     * Counts one occurrence of {@code item} and returns its new estimate.
+     */
+    synchronized long add(String item) {
+        long hash = hash(item);
+        long estimate = estimate(hash) + 1;
+        for (int row = 0; row < counts.length; row++) {
+            int column = column(hash, row);
+            if (counts[row][column] < estimate) {
+                counts[row][column] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    synchronized long estimate(String item) {
+        return estimate(hash(item));
+    }
+
+    /**
+     * Halves every counter, so the sketch follows recent traffic rather than all traffic ever seen.
+     */
+    synchronized void halve() {
+        for (long[] row : counts) {
+            for (int column = 0; column < width; column++) {
+                row[column] >>>= 1;
+            }
+        }
+    }
+
+    private long estimate(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < counts.length; row++) {
+            min = Math.min(min, counts[row][column(hash, row)]);
+        }
+        return min;
+    }
+
+    /** Row indexes derived from two halves of one 64-bit hash (Kirsch-Mitzenmacher). */
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+
+    /** 64-bit FNV-1a. */
+    private static long hash(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,255 @@
+package org.mekluppie.services.hotqueries;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mekluppie.services.BatchRecommendationService;
+import org.mekluppie.services.DatasetSuggestionService;
+import org.mekluppie.services.Queries;
+import org.mekluppie.services.SourcesSuggestionService;
+import org.mekluppie.services.catalog.CatalogChangedEvent;
+import org.mekluppie.services.config.HotQueryProperties;
+import org.mekluppie.services.model.BatchResult;
+import org.mekluppie.services.model.DatasetResponse;
+import org.mekluppie.services.model.SourceResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Serves source and dataset recommendations for frequent queries from a materialised store.
+ * <p>
+ * Every query is counted in a count-min sketch. A background refresh precomputes recommendations for the
+ * {@code top-n} queries through {@link BatchRecommendationService}, drops queries that went cold and halves
+ * the counts. The store is saved to disk together with a fingerprint of the chat model and system prompts. At
+ * startup it is loaded back as is when the fingerprint still matches, and recomputed for the saved queries when
+ * the model or the catalog in the prompts changed. After a catalog reload the stored queries are recomputed the
+ * same way, while the previous answers keep being served.
+ */
+@Service
+public class HotQueryService {
+    private static final Logger logger = LoggerFactory.getLogger(HotQueryService.class);
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    record Entry<T>(T result, long computedAt) { }
+
+    record Snapshot(String fingerprint, Map<String, Entry<SourceResponse>> sources,
+                    Map<String, Entry<DatasetResponse>> datasets) { }
+
+    private final SourcesSuggestionService sourcesService;
+    private final DatasetSuggestionService datasetService;
+    private final BatchRecommendationService batchService;
+    private final HotQueryProperties properties;
+    private final String chatModel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HotQueryTracker sourceQueries;
+    private final HotQueryTracker datasetQueries;
+    private final Map<String, Entry<SourceResponse>> sources = new ConcurrentHashMap<>();
+    private final Map<String, Entry<DatasetResponse>> datasets = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public HotQueryService(SourcesSuggestionService sourcesService, DatasetSuggestionService datasetService,
+                           BatchRecommendationService batchService, HotQueryProperties properties,
+                           @Value("${spring.ai.openai.chat.options.model:}") String chatModel,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.sourcesService = sourcesService;
+        this.datasetService = datasetService;
+        this.batchService = batchService;
+        this.properties = properties;
+        this.chatModel = chatModel;
+        int candidates = properties.getTopN() * 4;
+        this.sourceQueries = new HotQueryTracker(properties.getSketchWidth(), properties.getSketchDepth(), candidates);
+        this.datasetQueries = new HotQueryTracker(properties.getSketchWidth(), properties.getSketchDepth(), candidates);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.hits = Counter.builder("mekluppie.hot-queries.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("mekluppie.hot-queries.requests").tag("result", "miss").register(registry);
+        registry.gauge("mekluppie.hot-queries.size", this, service -> service.sources.size() + service.datasets.size());
+    }
+
+    public SourceResponse recommendSources(String userQuery) {
+        return serve(userQuery, sourceQueries, sources, () -> sourcesService.recommendSources(userQuery));
+    }
+
+    public DatasetResponse suggestDataset(String userQuery) {
+        return serve(userQuery, datasetQueries, datasets, () -> datasetService.suggestDataset(userQuery));
+    }
+
+    private <T> T serve(String userQuery, HotQueryTracker tracker, Map<String, Entry<T>> store, Supplier<T> upstream) {
+        String key = normalize(userQuery);
+        if (!properties.isEnabled() || key == null) {
+            return upstream.get();
+        }
+        tracker.record(key);
+        Entry<T> entry = store.get(key);
+        // the refresh keeps entries while traffic stays below min-count, so they may be older than max-age
+        if (entry != null && entry.computedAt() >= System.currentTimeMillis() - properties.getMaxAge().toMillis()) {
+            hits.increment();
+            return entry.result();
+        }
+        misses.increment();
+        return upstream.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isEnabled() || !Files.exists(properties.getStore())) {
+            return;
+        }
+        Thread.ofVirtual().name("hot-queries-load").start(() -> {
+            try {
+                Snapshot snapshot = objectMapper.readValue(properties.getStore().toFile(),
+                        objectMapper.getTypeFactory().constructType(Snapshot.class));
+                if (fingerprint().equals(snapshot.fingerprint())) {
+                    sources.putAll(snapshot.sources());
+                    datasets.putAll(snapshot.datasets());
+                    logger.info("Loaded {} precomputed recommendations from {}",
+                            snapshot.sources().size() + snapshot.datasets().size(), properties.getStore());
+                } else {
+                    logger.info("Chat model or prompts changed; recomputing recommendations for saved queries");
+                    recompute(snapshot.sources().keySet(), snapshot.datasets().keySet());
+                }
+            } catch (Exception e) {
+                logger.warn("Could not load precomputed recommendations from {}: {}", properties.getStore(),
+                        e.getMessage());
+            }
+        });
+    }
+
+    @EventListener
+    public void catalogChanged(CatalogChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        boolean sourcesChanged = !event.current().sourcesVersion().equals(event.previous().sourcesVersion());
+        boolean datasetsChanged = !event.current().datasetsVersion().equals(event.previous().datasetsVersion());
+        Thread.ofVirtual().name("hot-queries-recompute").start(() -> {
+            try {
+                recompute(sourcesChanged ? Set.copyOf(sources.keySet()) : Set.of(),
+                        datasetsChanged ? Set.copyOf(datasets.keySet()) : Set.of());
+                logger.info("Recomputed precomputed recommendations for catalog {}", event.current().version());
+            } catch (Exception e) {
+                logger.warn("Could not recompute precomputed recommendations for catalog {}: {}",
+                        event.current().version(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Replaces the answers for these queries; the entries being replaced are served until then.
+     */
+    private synchronized void recompute(Set<String> sourceKeys, Set<String> datasetKeys) {
+        precompute(List.copyOf(sourceKeys), sources, batchService::recommendSources);
+        precompute(List.copyOf(datasetKeys), datasets, batchService::suggestDatasets);
+        save();
+    }
+
+    @Scheduled(initialDelayString = "${mekluppie.recommend.hot-queries.refresh-interval:PT10M}",
+            fixedDelayString = "${mekluppie.recommend.hot-queries.refresh-interval:PT10M}")
+    public synchronized void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int computed = refresh(sourceQueries, sources, batchService::recommendSources)
+                + refresh(datasetQueries, datasets, batchService::suggestDatasets);
+        sourceQueries.decay();
+        datasetQueries.decay();
+        if (computed > 0) {
+            save();
+        }
+        logger.info("Hot queries refreshed: {} recomputed, {} sources and {} dataset queries precomputed",
+                computed, sources.size(), datasets.size());
+    }
+
+    /**
+     * Makes the store hold exactly the current top queries. Without traffic since startup the loaded store is
+     * kept as it is.
+     */
+    private <T> int refresh(HotQueryTracker tracker, Map<String, Entry<T>> store,
+                            BiConsumer<List<String>, Consumer<BatchResult<T>>> batch) {
+        List<String> top = tracker.top(properties.getTopN(), properties.getMinCount());
+        if (top.isEmpty()) {
+            return 0;
+        }
+        Set<String> hot = new LinkedHashSet<>(top);
+        store.keySet().retainAll(hot);
+
+        long staleBefore = System.currentTimeMillis() - properties.getMaxAge().toMillis();
+        List<String> missing = top.stream()
+                .filter(query -> {
+                    Entry<T> entry = store.get(query);
+                    return entry == null || entry.computedAt() < staleBefore;
+                })
+                .toList();
+        return precompute(missing, store, batch);
+    }
+
+    private <T> int precompute(List<String> queries, Map<String, Entry<T>> store,
+                               BiConsumer<List<String>, Consumer<BatchResult<T>>> batch) {
+        if (queries.isEmpty()) {
+            return 0;
+        }
+        Map<String, Entry<T>> computed = new HashMap<>();
+        long now = System.currentTimeMillis();
+        batch.accept(queries, result -> {
+            if (result.result() != null) {
+                computed.put(result.query(), new Entry<>(result.result(), now));
+            }
+        });
+        store.putAll(computed);
+        return computed.size();
+    }
+
+    private void save() {
+        Path target = properties.getStore();
+        try {
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "hot-queries", ".tmp");
+            objectMapper.writeValue(temp.toFile(), new Snapshot(fingerprint(), Map.copyOf(sources), Map.copyOf(datasets)));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not save precomputed recommendations to {}: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * Changes with the chat model and with the catalog in either prompt.
+     */
+    private String fingerprint() {
+        return DigestUtils.md5DigestAsHex((chatModel + "\n" + sourcesService.promptVersion() + "\n"
+                + datasetService.promptVersion()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Very long queries are never hot.
+     */
+    static String normalize(String query) {
+        String normalized = Queries.normalize(query);
+        return normalized == null || normalized.length() > MAX_QUERY_LENGTH ? null : normalized;
+    }
+}
@@ -0,0 +1,61 @@
+package org.mekluppie.services.hotqueries;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the most frequent queries: a {@link CountMinSketch} estimates how often each query was seen, and a small
+ * candidate set keeps the queries with the highest estimates. A query enters the set once its estimate exceeds
+ * that of the weakest candidate.
+ */
+class HotQueryTracker {
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<String, Long> candidates = new HashMap<>();
+
+    HotQueryTracker(int width, int depth, int capacity) {
+        this.sketch = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+    }
+
+    synchronized void record(String query) {
+        long estimate = sketch.add(query);
+        if (candidates.containsKey(query) || candidates.size() < capacity) {
+            candidates.put(query, estimate);
+            return;
+        }
+        Map.Entry<String, Long> weakest = null;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (weakest == null || candidate.getValue() < weakest.getValue()) {
+                weakest = candidate;
+            }
+        }
+        if (estimate > weakest.getValue()) {
+            candidates.remove(weakest.getKey());
+            candidates.put(query, estimate);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} queries seen at least {@code minCount} times, most frequent first
+     */
+    synchronized List<String> top(int limit, long minCount) {
+        return candidates.entrySet().stream()
+                .filter(candidate -> candidate.getValue() >= minCount)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Halves all counts; candidates whose count drops to zero are forgotten.
+     */
+    synchronized void decay() {
+        sketch.halve();
+        candidates.replaceAll((query, count) -> sketch.estimate(query));
+        candidates.values().removeIf(count -> count == 0);
+    }
+}
@@ -0,0 +1,246 @@
+package org.mekluppie.services.images;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.observation.ObservationRegistry;
+import org.mekluppie.services.config.ImageProxyProperties;
+import org.mekluppie.services.deadline.Deadline;
+import org.mekluppie.services.resilience.Bulkhead;
+import org.mekluppie.services.resilience.Bulkheads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves Beeldbank images as JPEG thumbnails from a local disk cache.
+ * <p>
+ * On a miss the original is downloaded once and scaled to every configured size, so the other sizes of the same
+ * image are already cached when the UI asks for them. Concurrent requests for the same image share that work.
+ * Large originals are subsampled while decoding rather than decoded at full resolution.
+ */
+@Service
+public class ImageProxyService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageProxyService.class);
+
+    public record Thumbnail(Path file, long length, String etag) { }
+
+    private final ImageProxyProperties properties;
+    private final ThumbnailStore store;
+    private final RestTemplate restTemplate;
+    private final Bulkhead bulkhead;
+    private final ExecutorService executor = ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor());
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageProxyService(ImageProxyProperties properties, Bulkheads bulkheads,
+                             ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.properties = properties;
+        this.bulkhead = bulkheads.get(Bulkheads.IMAGES);
+        this.store = new ThumbnailStore(properties.getCacheDir(), properties.getMaxCacheSize().toBytes());
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+        requestFactory.setReadTimeout(properties.getFetchTimeout());
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.setObservationRegistry(observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    public List<Integer> sizes() {
+        return properties.getSizes();
+    }
+
+    /**
+     * Returns the cached thumbnail of {@code url} with the given longest edge, generating it if needed.
+     *
+     * @throws IllegalArgumentException when the size is not configured or the URL is not an allowed image host
+     * @throws UncheckedIOException when the original cannot be fetched or decoded
+     */
+    public Thumbnail thumbnail(String url, int size) {
+        if (!properties.getSizes().contains(size)) {
+            throw new IllegalArgumentException("size must be one of " + properties.getSizes());
+        }
+        URI source = checkSource(url);
+        String image = DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8));
+        String key = image + "-" + size;
+
+        ThumbnailStore.Entry entry = store.get(key).orElse(null);
+        // A second round only happens when the fresh thumbnail was evicted and deleted before this thread got to it.
+        for (int attempt = 0; entry == null && attempt < 2; attempt++) {
+            CompletableFuture<Void> generation = inFlight.computeIfAbsent(image, ignored ->
+                    CompletableFuture.runAsync(() -> generate(source, image), executor)
+                            .whenComplete((result, failure) -> inFlight.remove(image)));
+            try {
+                Deadline.await("thumbnail of " + source, generation);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            entry = store.get(key).orElse(null);
+        }
+        if (entry == null) {
+            throw new UncheckedIOException(
+                    new IOException("Thumbnail of " + source + " was evicted before it could be served"));
+        }
+        return new Thumbnail(entry.file(), entry.length(), '"' + key + '"');
+    }
+
+    private URI checkSource(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid image URL: " + url);
+        }
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        boolean allowed = properties.getAllowedHosts().stream()
+                .anyMatch(allowedHost -> host.equals(allowedHost) || host.endsWith("." + allowedHost));
+        if (!(scheme.equals("http") || scheme.equals("https")) || !allowed) {
+            throw new IllegalArgumentException("Images are only proxied from " + properties.getAllowedHosts());
+        }
+        return uri;
+    }
+
+    private void generate(URI source, String image) {
+        long start = System.nanoTime();
+        byte[] original = fetch(source);
+        try {
+            int largest = properties.getSizes().stream().mapToInt(Integer::intValue).max().orElseThrow();
+            BufferedImage decoded = decode(original, largest);
+            for (int size : properties.getSizes()) {
+                store.put(image + "-" + size, encode(scale(decoded, size)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create thumbnails of " + source, e);
+        }
+        logger.debug("Created thumbnails of {} ({} bytes) in {} ms", source, original.length,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private byte[] fetch(URI source) {
+        long maxBytes = properties.getMaxSourceSize().toBytes();
+        try {
+            byte[] body = bulkhead.call(() -> restTemplate.execute(source, HttpMethod.GET, null, response -> {
+                try (InputStream in = response.getBody()) {
+                    byte[] bytes = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxBytes + 1));
+                    if (bytes.length > maxBytes) {
+                        throw new IOException("Image exceeds " + properties.getMaxSourceSize());
+                    }
+                    return bytes;
+                }
+            }));
+            if (body == null || body.length == 0) {
+                throw new IOException("Empty response");
+            }
+            return body;
+        } catch (IOException | RestClientException e) {
+            throw new UncheckedIOException("Failed to fetch " + source,
+                    e instanceof IOException io ? io : new IOException(e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Decodes the image, skipping pixels while reading when it is more than twice the largest thumbnail.
+     */
+    private static BufferedImage decode(byte[] original, int largest) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = longest / (2 * largest);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales to the given longest edge in halving steps, which keeps bilinear filtering from aliasing. Images are
+     * never enlarged.
+     */
+    private static BufferedImage scale(BufferedImage image, int size) {
+        double factor = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        BufferedImage current = image;
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            if (current != image && width == current.getWidth() && height == current.getHeight()) {
+                break;
+            }
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getQuality());
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,171 @@
+package org.mekluppie.services.images;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded directory of thumbnails. An in-memory index of file sizes in access order answers lookups
+ * without touching the disk and decides which files to delete when the store outgrows its budget. The index is
+ * rebuilt from the directory on startup, oldest files first.
+ * <p>
+ * Paths handed out by {@link #get} are served after the lookup returns, by sendfile even after the request thread
+ * is done with them, so evicted files are only deleted once they have been out of the index for
+ * {@link #DELETE_AFTER}. Looking up a file in that window puts it back in the index.
+ */
+class ThumbnailStore {
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailStore.class);
+
+    private static final String SUFFIX = ".jpg";
+    private static final Duration DELETE_AFTER = Duration.ofMinutes(1);
+
+    record Entry(Path file, long length) { }
+
+    private record Evicted(long length, long evictedAt) { }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long deleteAfterNanos;
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    /** Evicted files still on disk, in eviction order. */
+    private final LinkedHashMap<String, Evicted> evicted = new LinkedHashMap<>();
+    private long totalBytes;
+
+    ThumbnailStore(Path directory, long maxBytes) {
+        this(directory, maxBytes, DELETE_AFTER);
+    }
+
+    ThumbnailStore(Path directory, long maxBytes, Duration deleteAfter) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.deleteAfterNanos = deleteAfter.toNanos();
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open thumbnail cache " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the file and its length. The file stays on disk for at least {@link #DELETE_AFTER}, even if it is
+     * evicted right after this returns.
+     */
+    synchronized Optional<Entry> get(String key) {
+        Long length = index.get(key);
+        if (length == null) {
+            Evicted recent = evicted.remove(key);
+            if (recent == null) {
+                return Optional.empty();
+            }
+            length = recent.length();
+            index.put(key, length);
+            totalBytes += length;
+            evict();
+        }
+        return Optional.of(new Entry(path(key), length));
+    }
+
+    /**
+     * Writes the thumbnail through a temporary file, so readers never see a partial image.
+     */
+    Path put(String key, byte[] data) throws IOException {
+        Path target = path(key);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        synchronized (this) {
+            evicted.remove(key);
+            Long previous = index.put(key, (long) data.length);
+            totalBytes += data.length - (previous != null ? previous : 0);
+            evict();
+            deleteEvicted(false);
+        }
+        return target;
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private Path path(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private void load() throws IOException {
+        record Found(Path path, long size, long modified) { }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> {
+                        try {
+                            if (path.getFileName().toString().endsWith(".tmp")) {
+                                Files.deleteIfExists(path);
+                                return null;
+                            }
+                            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                            return new Found(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    })
+                    .filter(found -> found != null && found.path().getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(Found::modified))
+                    .forEach(found -> {
+                        String name = found.path().getFileName().toString();
+                        index.put(name.substring(0, name.length() - SUFFIX.length()), found.size());
+                        totalBytes += found.size();
+                    });
+        }
+        evict();
+        deleteEvicted(true);
+        logger.info("Thumbnail cache {}: {} files, {} bytes", directory, index.size(), totalBytes);
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            evicted.put(entry.getKey(), new Evicted(entry.getValue(), now));
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Deletes the files evicted at least {@link #DELETE_AFTER} ago, or all of them when nothing can be serving
+     * them yet.
+     */
+    private void deleteEvicted(boolean all) {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Evicted>> oldest = evicted.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Evicted> entry = oldest.next();
+            if (!all && now - entry.getValue().evictedAt() < deleteAfterNanos) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(path(entry.getKey()));
+            } catch (IOException e) {
+                logger.warn("Failed to delete thumbnail {}: {}", entry.getKey(), e.getMessage());
+            }
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.mekluppie.services.ingest;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+import org.mekluppie.services.model.DatasetResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streams {@code dcat:Dataset} descriptions out of an RDF dump without loading it into a model.
+ * <p>
+ * The dump is parsed three times with RIOT. The first pass collects the IRIs used as publisher, the second their
+ * names, so names of other subjects are never kept. The last pass keeps a bounded window of subjects that are
+ * still being described, and emits each dataset once its subject leaves the window or the dump ends. Dumps group
+ * a subject's triples together, so memory stays constant in the number of datasets. The exceptions are the
+ * publishers with their names and 64-bit hashes of the IRIs and titles seen, which are kept for deduplication.
+ */
+public class DcatReader {
+
+    private static final Node DCAT_DATASET = NodeFactory.createURI("http://www.w3.org/ns/dcat#Dataset");
+    private static final Node FOAF_NAME = NodeFactory.createURI("http://xmlns.com/foaf/0.1/name");
+    private static final Node SCHEMA_NAME = NodeFactory.createURI("http://schema.org/name");
+    private static final Node SDO_NAME = NodeFactory.createURI("https://schema.org/name");
+
+    public record Stats(long datasets, long duplicates, long skipped) { }
+
+    private final int batchSize;
+    private final int window;
+    private final List<String> languages;
+
+    public DcatReader(int batchSize, int window, List<String> languages) {
+        this.batchSize = batchSize;
+        this.window = window;
+        this.languages = languages;
+    }
+
+    /**
+     * Reads the dump and hands the deduplicated datasets to {@code sink} in batches of at most {@code batchSize}.
+     */
+    public Stats read(Path dump, Consumer<List<DatasetResponse.DatasetItem>> sink) {
+        Publishers publishers = new Publishers();
+        RDFParser.source(dump).parse(publishers);
+        PublisherNames publisherNames = new PublisherNames(publishers.iris);
+        RDFParser.source(dump).parse(publisherNames);
+
+        DatasetCollector collector = new DatasetCollector(publisherNames.resolve(), sink);
+        RDFParser.source(dump).parse(collector);
+        return new Stats(collector.emitted, collector.duplicates, collector.skipped);
+    }
+
+    private int rank(Node literal) {
+        String language = literal.getLiteralLanguage().toLowerCase(Locale.ROOT);
+        int index = languages.indexOf(language.contains("-") ? language.substring(0, language.indexOf('-')) : language);
+        if (index >= 0) {
+            return index;
+        }
+        return language.isEmpty() ? languages.size() : languages.size() + 1;
+    }
+
+    /** First pass: the IRIs used as publisher. */
+    private static class Publishers extends StreamRDFBase {
+        private final Set<String> iris = new HashSet<>();
+
+        @Override
+        public void triple(Triple triple) {
+            if (triple.getPredicate().equals(DCTerms.publisher.asNode()) && triple.getObject().isURI()) {
+                iris.add(triple.getObject().getURI());
+            }
+        }
+    }
+
+    /** Second pass: the preferred name of each publisher. */
+    private class PublisherNames extends StreamRDFBase {
+        private final Set<String> publishers;
+        private final Map<String, Node> names = new HashMap<>();
+
+        PublisherNames(Set<String> publishers) {
+            this.publishers = publishers;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            Node predicate = triple.getPredicate();
+            if ((predicate.equals(FOAF_NAME) || predicate.equals(SCHEMA_NAME) || predicate.equals(SDO_NAME))
+                    && triple.getSubject().isURI() && triple.getObject().isLiteral()
+                    && publishers.contains(triple.getSubject().getURI())) {
+                names.merge(triple.getSubject().getURI(), triple.getObject(),
+                        (current, candidate) -> rank(candidate) < rank(current) ? candidate : current);
+            }
+        }
+
+        Map<String, String> resolve() {
+            Map<String, String> resolved = new HashMap<>();
+            names.forEach((publisher, name) -> resolved.put(publisher, name.getLiteralLexicalForm()));
+            return resolved;
+        }
+    }
+
+    private static final class Partial {
+        boolean dataset;
+        Node title;
+        Node description;
+        String publisher;
+    }
+
+    /** Last pass: assembles datasets within the subject window and emits them in batches. */
+    private class DatasetCollector extends StreamRDFBase {
+        private final Map<String, String> publisherNames;
+        private final Consumer<List<DatasetResponse.DatasetItem>> sink;
+        private final Set<Long> seen = new HashSet<>();
+        private final LinkedHashMap<Node, Partial> open = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Node, Partial> eldest) {
+                if (size() > window) {
+                    emit(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        private List<DatasetResponse.DatasetItem> batch = new ArrayList<>();
+        private long emitted;
+        private long duplicates;
+        private long skipped;
+
+        DatasetCollector(Map<String, String> publisherNames, Consumer<List<DatasetResponse.DatasetItem>> sink) {
+            this.publisherNames = publisherNames;
+            this.sink = sink;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            Node predicate = triple.getPredicate();
+            Node object = triple.getObject();
+            if (predicate.equals(RDF.type.asNode())) {
+                if (object.equals(DCAT_DATASET)) {
+                    partial(triple.getSubject()).dataset = true;
+                }
+            } else if (predicate.equals(DCTerms.title.asNode()) && object.isLiteral()) {
+                Partial partial = partial(triple.getSubject());
+                if (partial.title == null || rank(object) < rank(partial.title)) {
+                    partial.title = object;
+                }
+            } else if (predicate.equals(DCTerms.description.asNode()) && object.isLiteral()) {
+                Partial partial = partial(triple.getSubject());
+                if (partial.description == null || rank(object) < rank(partial.description)) {
+                    partial.description = object;
+                }
+            } else if (predicate.equals(DCTerms.publisher.asNode())) {
+                partial(triple.getSubject()).publisher = object.isURI()
+                        ? publisherNames.getOrDefault(object.getURI(), object.getURI())
+                        : object.isLiteral() ? object.getLiteralLexicalForm() : null;
+            }
+        }
+
+        @Override
+        public void finish() {
+            open.forEach(this::emit);
+            open.clear();
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+                batch = new ArrayList<>();
+            }
+        }
+
+        private Partial partial(Node subject) {
+            return open.computeIfAbsent(subject, s -> new Partial());
+        }
+
+        private void emit(Node subject, Partial partial) {
+            if (!partial.dataset) {
+                return;
+            }
+            if (partial.title == null) {
+                skipped++;
+                return;
+            }
+            String title = partial.title.getLiteralLexicalForm().strip();
+            String publisher = partial.publisher != null ? partial.publisher.strip() : "";
+            boolean newSubject = !subject.isURI() || seen.add(hash("iri:" + subject.getURI()));
+            boolean newContent = seen.add(hash("content:" + title.toLowerCase(Locale.ROOT) + "\n"
+                    + publisher.toLowerCase(Locale.ROOT)));
+            if (!newSubject || !newContent) {
+                duplicates++;
+                return;
+            }
+
+            batch.add(new DatasetResponse.DatasetItem(title,
+                    partial.description != null ? partial.description.getLiteralLexicalForm().strip() : "",
+                    publisher));
+            emitted++;
+            if (batch.size() >= batchSize) {
+                sink.accept(batch);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    /** 64-bit FNV-1a, so deduplication keeps a long per dataset rather than its strings. */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,227 @@
+package org.mekluppie.services.kvstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.mekluppie.services.Queries;
+import org.mekluppie.services.config.LlmCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Durable second-tier cache of LLM recommendation results, kept in a {@link LogStore} so they survive restarts
+ * and deploys.
+ * <p>
+ * Keys combine the namespace, the chat model, a version of the catalog the answer was drawn from and the
+ * normalised query. A new model or catalog therefore simply misses; results stored under other versions are
+ * deleted at startup and reclaimed by compaction.
+ */
+@Component
+public class LlmResultStore {
+    private static final Logger logger = LoggerFactory.getLogger(LlmResultStore.class);
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final LlmCacheProperties properties;
+    private final String chatModel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Namespace<?>> namespaces = new ConcurrentHashMap<>();
+    private final LogStore store;
+
+    public LlmResultStore(LlmCacheProperties properties, @Value("${spring.ai.openai.chat.options.model:}") String chatModel,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.chatModel = chatModel;
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.store = properties.isEnabled() ? open(properties) : null;
+        if (store != null) {
+            this.meterRegistry.gauge("mekluppie.result-store.size", store, LogStore::size);
+        }
+    }
+
+    private static LogStore open(LlmCacheProperties properties) {
+        try {
+            return LogStore.open(properties.getDirectory(), properties.getMaxSegmentSize().toBytes());
+        } catch (IOException e) {
+            logger.warn("LLM result store {} unavailable, continuing without it: {}", properties.getDirectory(),
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cheap enough to call per request: the namespace of each catalog version is created once.
+     *
+     * @param name           kind of result, e.g. {@code datasets}
+     * @param catalogVersion changes whenever the answers for the same query may change
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Namespace<T> namespace(String name, String catalogVersion, Class<T> type) {
+        String prefix = name + SEPARATOR + chatModel + SEPARATOR + catalogVersion + SEPARATOR;
+        return (Namespace<T>) namespaces.computeIfAbsent(prefix, key -> new Namespace<>(name, key, type));
+    }
+
+    /**
+     * Deletes results of models and catalogs no longer in use; runs once all namespaces have been registered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void purgeStale() {
+        if (store == null) {
+            return;
+        }
+        int before = store.size();
+        store.removeIf(key -> namespaces.keySet().stream().noneMatch(key::startsWith));
+        if (store.size() < before) {
+            logger.info("Deleted {} results of earlier models or catalogs", before - store.size());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${mekluppie.recommend.result-store.compaction-interval:PT10M}",
+            fixedDelayString = "${mekluppie.recommend.result-store.compaction-interval:PT10M}")
+    public void compactIfNeeded() {
+        if (store == null || store.garbageRatio() < properties.getCompactionThreshold()) {
+            return;
+        }
+        try {
+            store.compact();
+        } catch (IOException e) {
+            logger.warn("Compacting the LLM result store failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    public final class Namespace<T> {
+        private final String prefix;
+        private final Class<T> type;
+        private final Counter hits;
+        private final Counter misses;
+
+        private Namespace(String name, String prefix, Class<T> type) {
+            this.prefix = prefix;
+            this.type = type;
+            this.hits = Counter.builder("mekluppie.result-store.requests")
+                    .tag("namespace", name).tag("result", "hit").register(meterRegistry);
+            this.misses = Counter.builder("mekluppie.result-store.requests")
+                    .tag("namespace", name).tag("result", "miss").register(meterRegistry);
+        }
+
+        public Optional<T> get(String query) {
+            String key = key(query);
+            if (key == null) {
+                return Optional.empty();
+            }
+            Optional<T> result = read(key);
+            (result.isPresent() ? hits : misses).increment();
+            return result;
+        }
+
+        public void put(String query, T result) {
+            String key = key(query);
+            if (key == null || result == null) {
+                return;
+            }
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(result);
+                store.put(key, ByteBuffer.allocate(Long.BYTES + json.length)
+                        .putLong(System.currentTimeMillis())
+                        .put(json)
+                        .array());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not store result for '{}': {}", query, e.getMessage());
+            }
+        }
+
+        public T getOrCompute(String query, Supplier<T> compute) {
+            Optional<T> stored = get(query);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+            T result = compute.get();
+            put(query, result);
+            return result;
+        }
+
+        /**
+         * Looks up several queries at once and computes only the missing ones, in a single call.
+         *
+         * @param compute returns one result per query in input order, {@code null} where it has none
+         * @return one result per query in input order
+         */
+        public List<T> getOrComputeAll(List<String> queries, Function<List<String>, List<T>> compute) {
+            List<T> results = new ArrayList<>(queries.size());
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < queries.size(); i++) {
+                T stored = get(queries.get(i)).orElse(null);
+                results.add(stored);
+                if (stored == null) {
+                    missing.add(i);
+                }
+            }
+            if (missing.isEmpty()) {
+                return results;
+            }
+            List<T> computed = compute.apply(missing.stream().map(queries::get).toList());
+            for (int i = 0; i < missing.size(); i++) {
+                results.set(missing.get(i), computed.get(i));
+                put(queries.get(missing.get(i)), computed.get(i));
+            }
+            return results;
+        }
+
+        /**
+         * Key identifying the result of {@code query} in this namespace, also when the store itself is disabled;
+         * {@code null} for a blank query.
+         */
+        public String cacheKey(String query) {
+            String normalized = Queries.normalize(query);
+            return normalized != null ? prefix + normalized : null;
+        }
+
+        private Optional<T> read(String key) {
+            try {
+                Optional<byte[]> value = store.get(key);
+                if (value.isEmpty()) {
+                    return Optional.empty();
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(value.get());
+                if (System.currentTimeMillis() - buffer.getLong() > properties.getTtl().toMillis()) {
+                    store.delete(key);
+                    return Optional.empty();
+                }
+                return Optional.of(objectMapper.readValue(value.get(), Long.BYTES, value.get().length - Long.BYTES, type));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not read stored result {}: {}", key.substring(prefix.length()), e.getMessage());
+                return Optional.empty();
+            }
+        }
+
+        private String key(String query) {
+            return store != null ? cacheKey(query) : null;
+        }
+    }
+}
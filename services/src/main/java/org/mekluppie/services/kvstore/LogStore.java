@@ -0,0 +1,335 @@
+package org.mekluppie.services.kvstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded append-only key-value store in the style of Bitcask.
+ * <p>
+ * Writes are appended to the active segment file; deletes append a tombstone. An in-memory hash index maps
+ * every live key to the position of its value, so a read is one positional read. Segments are rolled at
+ * {@code maxSegmentBytes}. Compaction rewrites all closed segments into one holding only live records, without
+ * blocking readers or writers. On open the index is rebuilt by replaying the segments in order; a torn record at
+ * the end of a segment, left by a crash, ends that segment.
+ * <p>
+ * Record layout: {@code crc32 | keyLength | valueLength (-1 for a tombstone) | key | value}, the CRC covering
+ * everything after it.
+ */
+public class LogStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LogStore.class);
+
+    private static final int HEADER = 12;
+    private static final int TOMBSTONE = -1;
+    private static final Pattern SEGMENT = Pattern.compile("segment-(\\d{10})\\.log");
+
+    private record Location(Segment segment, long valueOffset, int valueLength, int recordLength) { }
+
+    private static final class Segment {
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        long size;
+
+        Segment(long id, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    /** Held shared by readers and exclusively while segments are replaced, so no read hits a closed channel. */
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    private final Object compactionLock = new Object();
+    private Segment active;
+    private long liveBytes;
+
+    private LogStore(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    public static LogStore open(Path directory, long maxSegmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        LogStore store = new LogStore(directory, maxSegmentBytes);
+        store.recover();
+        return store;
+    }
+
+    public Optional<byte[]> get(String key) {
+        segmentLock.readLock().lock();
+        try {
+            Location location = index.get(key);
+            if (location == null) {
+                return Optional.empty();
+            }
+            ByteBuffer value = ByteBuffer.allocate(location.valueLength());
+            readFully(location.segment().channel, value, location.valueOffset());
+            return Optional.of(value.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key + " from " + directory, e);
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+    }
+
+    public void put(String key, byte[] value) {
+        append(key, value);
+    }
+
+    public void delete(String key) {
+        if (index.containsKey(key)) {
+            append(key, null);
+        }
+    }
+
+    /**
+     * Deletes every key matching {@code filter}; the space is reclaimed by the next compaction.
+     */
+    public void removeIf(Predicate<String> filter) {
+        List<String> keys = index.keySet().stream().filter(filter).toList();
+        keys.forEach(this::delete);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /** Share of the bytes on disk that no longer hold a live value. */
+    public synchronized double garbageRatio() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size;
+        }
+        return total == 0 ? 0 : 1.0 - (double) liveBytes / total;
+    }
+
+    /**
+     * Rewrites all closed segments into a single segment holding only their live records. Writes keep going to
+     * the active segment meanwhile.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Segment> closed;
+            synchronized (this) {
+                roll();
+                closed = new ArrayList<>(segments.headMap(active.id).values());
+            }
+            if (closed.isEmpty()) {
+                return;
+            }
+            Segment newest = closed.get(closed.size() - 1);
+            Path compactedPath = directory.resolve(String.format("segment-%010d.compact", newest.id));
+
+            Map<String, Location> copied = new HashMap<>();
+            try (FileChannel out = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long position = 0;
+                for (Map.Entry<String, Location> entry : index.entrySet()) {
+                    Location location = entry.getValue();
+                    if (!closed.contains(location.segment())) {
+                        continue;
+                    }
+                    ByteBuffer record = ByteBuffer.allocate(location.recordLength());
+                    readFully(location.segment().channel, record,
+                            location.valueOffset() - (location.recordLength() - location.valueLength()));
+                    record.flip();
+                    while (record.hasRemaining()) {
+                        out.write(record);
+                    }
+                    copied.put(entry.getKey(), new Location(null, position + location.recordLength()
+                            - location.valueLength(), location.valueLength(), location.recordLength()));
+                    position += location.recordLength();
+                }
+                out.force(true);
+            }
+
+            // Older segments go first: after a crash in between, data is lost rather than deleted keys resurrected.
+            segmentLock.writeLock().lock();
+            try {
+                for (Segment segment : closed) {
+                    segment.channel.close();
+                    if (segment != newest) {
+                        Files.deleteIfExists(segment.path);
+                    }
+                }
+                Files.move(compactedPath, newest.path, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                FileChannel channel = FileChannel.open(newest.path, StandardOpenOption.READ);
+                Segment compacted = new Segment(newest.id, newest.path, channel, channel.size());
+                synchronized (this) {
+                    closed.forEach(segment -> segments.remove(segment.id));
+                    segments.put(compacted.id, compacted);
+                    liveBytes = 0;
+                    for (Map.Entry<String, Location> entry : index.entrySet()) {
+                        Location location = entry.getValue();
+                        Location moved = copied.get(entry.getKey());
+                        if (moved != null && closed.contains(location.segment())) {
+                            location = new Location(compacted, moved.valueOffset(), moved.valueLength(),
+                                    moved.recordLength());
+                            entry.setValue(location);
+                        }
+                        liveBytes += location.recordLength();
+                    }
+                }
+            } finally {
+                segmentLock.writeLock().unlock();
+            }
+            logger.info("Compacted {} segments of {} into {} bytes", closed.size(), directory,
+                    Files.size(newest.path));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.channel.force(true);
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        if (active.size == 0) {
+            Files.deleteIfExists(active.path);
+        }
+    }
+
+    private synchronized void append(String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = value != null ? value.length : TOMBSTONE;
+        int recordLength = HEADER + keyBytes.length + Math.max(0, valueLength);
+        ByteBuffer record = ByteBuffer.allocate(recordLength);
+        record.putInt(0).putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+        if (value != null) {
+            record.put(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, recordLength - 4);
+        record.putInt(0, (int) crc.getValue());
+        record.flip();
+
+        try {
+            if (active.size + recordLength > maxSegmentBytes && active.size > 0) {
+                roll();
+            }
+            long offset = active.size;
+            while (record.hasRemaining()) {
+                active.channel.write(record, offset + record.position());
+            }
+            active.size += recordLength;
+
+            Location previous = value != null
+                    ? index.put(key, new Location(active, offset + HEADER + keyBytes.length, valueLength, recordLength))
+                    : index.remove(key);
+            liveBytes += (value != null ? recordLength : 0) - (previous != null ? previous.recordLength() : 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + key + " to " + directory, e);
+        }
+    }
+
+    private synchronized void roll() throws IOException {
+        if (active != null && active.size == 0) {
+            return;
+        }
+        long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path path = directory.resolve(String.format("segment-%010d.log", id));
+        if (active != null) {
+            active.channel.force(true);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        active = new Segment(id, path, channel, 0);
+        segments.put(id, active);
+    }
+
+    private void recover() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.sorted().toList();
+        }
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            Matcher matcher = SEGMENT.matcher(name);
+            if (name.endsWith(".compact")) {
+                Files.deleteIfExists(path);
+            } else if (matcher.matches()) {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                Segment segment = new Segment(Long.parseLong(matcher.group(1)), path, channel, channel.size());
+                segments.put(segment.id, segment);
+                replay(segment);
+            }
+        }
+        roll();
+        logger.info("Opened {}: {} keys in {} segments", directory, index.size(), segments.size());
+    }
+
+    private void replay(Segment segment) throws IOException {
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (position + HEADER <= segment.size) {
+            header.clear();
+            readFully(segment.channel, header, position);
+            int checksum = header.getInt(0);
+            int keyLength = header.getInt(4);
+            int valueLength = header.getInt(8);
+            long recordLength = HEADER + (long) keyLength + Math.max(0, valueLength);
+            if (keyLength < 0 || valueLength < TOMBSTONE || position + recordLength > segment.size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate((int) recordLength - HEADER);
+            readFully(segment.channel, body, position + HEADER);
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 4, HEADER - 4);
+            crc.update(body.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            String key = new String(body.array(), 0, keyLength, StandardCharsets.UTF_8);
+            Location previous = valueLength == TOMBSTONE
+                    ? index.remove(key)
+                    : index.put(key, new Location(segment, position + HEADER + keyLength, valueLength, (int) recordLength));
+            liveBytes += (valueLength == TOMBSTONE ? 0 : recordLength) - (previous != null ? previous.recordLength() : 0);
+            position += recordLength;
+        }
+        if (position < segment.size) {
+            logger.warn("Truncating {} at {} of {} bytes: incomplete or corrupt record", segment.path, position,
+                    segment.size);
+            segment.channel.truncate(position);
+            segment.size = position;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+    }
+}
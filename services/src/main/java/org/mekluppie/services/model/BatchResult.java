@@ -0,0 +1,16 @@
+package org.mekluppie.services.model;
+
+/**
+ * Result for one query of a batch request. {@code index} is the query's position in the request;
+ * exactly one of {@code result} and {@code error} is set.
+ */
+public record BatchResult<T>(int index, String query, T result, String error) {
+
+    public static <T> BatchResult<T> success(int index, String query, T result) {
+        return new BatchResult<>(index, query, result, null);
+    }
+
+    public static <T> BatchResult<T> failure(int index, String query, String error) {
+        return new BatchResult<>(index, query, null, error);
+    }
+}
@@ -0,0 +1,10 @@
+package org.mekluppie.services.model;
+
+import java.util.List;
+
+/**
+ * One page of results. {@code nextCursor} is the key of the last item and can be passed as
+ * {@link PageRequest#after()} to fetch the following page.
+ */
+public record Page<T>(List<T> items, int limit, int offset, String nextCursor, boolean hasMore) {
+}
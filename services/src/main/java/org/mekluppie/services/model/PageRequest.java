@@ -0,0 +1,30 @@
+package org.mekluppie.services.model;
+
+/**
+ * Paging parameters for SPARQL results.
+ *
+ * @param limit  maximum number of rows to return
+ * @param offset number of rows to skip; ignored when {@code after} is set
+ * @param after  keyset cursor: only rows whose key sorts after this value are returned
+ */
+public record PageRequest(int limit, int offset, String after) {
+
+    public static final int MAX_LIMIT = 500;
+
+    public PageRequest {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative: " + offset);
+        }
+    }
+
+    public static PageRequest first(int limit) {
+        return new PageRequest(limit, 0, null);
+    }
+
+    public boolean isKeyset() {
+        return after != null && !after.isBlank();
+    }
+}
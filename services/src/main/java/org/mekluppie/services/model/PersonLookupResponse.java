@@ -0,0 +1,15 @@
+package org.mekluppie.services.model;
+
+import java.util.List;
+
+/**
+ * Books from the KB and images from the Beeldbank for one person, with the images that show one of the books.
+ */
+public record PersonLookupResponse(String person, List<AuthorQueryResponse> books, List<ImageQueryResponse> images,
+                                   List<Link> links, List<EndpointTiming> endpoints) {
+
+    public record Link(String book, String image) { }
+
+    /** @param error why the endpoint contributed no results, or {@code null} when it answered */
+    public record EndpointTiming(String endpoint, long elapsedMs, int results, String error) { }
+}
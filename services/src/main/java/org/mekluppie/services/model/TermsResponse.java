@@ -37,7 +37,8 @@ public record TermsResponse(TermsData data) {
     // Allow flexible mapping for result (TranslatedTerms or Error)
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record TermResult(
-            List<Term> terms
+            List<Term> terms,
+            String message
     ) {}
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -2,7 +2,11 @@ package org.mekluppie.services.model;
 
 import java.util.List;
 
-public record TermsSuggestResponse(List<TermsSuggestItem> terms) {
+public record TermsSuggestResponse(List<TermsSuggestItem> terms, List<SkippedSource> skippedSources) {
 
     public record TermsSuggestItem(String uri, String prefLabel, String scopeNote, String source) { }
+
+    public record SkippedSource(String source, SkipReason reason) { }
+
+    public enum SkipReason { CIRCUIT_OPEN, OVERLOADED, TIMEOUT, ERROR }
 }
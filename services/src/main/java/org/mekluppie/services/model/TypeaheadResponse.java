@@ -0,0 +1,8 @@
+package org.mekluppie.services.model;
+
+import java.util.List;
+
+public record TypeaheadResponse(List<TypeaheadItem> terms, int indexedTerms) {
+
+    public record TypeaheadItem(String uri, String prefLabel, String source, int edits) { }
+}
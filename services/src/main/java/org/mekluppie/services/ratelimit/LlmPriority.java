@@ -0,0 +1,28 @@
+package org.mekluppie.services.ratelimit;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority of LLM calls made on the current thread. Calls are {@link #INTERACTIVE} unless wrapped in
+ * {@link #callAs(LlmPriority, Supplier)}; bulk jobs run their calls as {@link #BATCH}.
+ */
+public enum LlmPriority {
+    INTERACTIVE,
+    BATCH;
+
+    private static final ThreadLocal<LlmPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static LlmPriority current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(LlmPriority priority, Supplier<T> call) {
+        LlmPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
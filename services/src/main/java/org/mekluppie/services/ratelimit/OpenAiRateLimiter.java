@@ -0,0 +1,272 @@
+package org.mekluppie.services.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mekluppie.services.config.RateLimitProperties;
+import org.mekluppie.services.deadline.DeadlineExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.metadata.RateLimit;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Client-side request and token budget for OpenAI calls.
+ * <p>
+ * Both budgets refill continuously up to the current per-minute limit. Callers queue for a permit by priority
+ * and then arrival, and batch callers must leave a reserve free so interactive requests rarely wait. The
+ * limits start at the configured values, drop multiplicatively on every 429, creep back additively after
+ * successful calls, and are corrected by the remaining counts OpenAI reports in its rate-limit headers.
+ */
+@Component
+public class OpenAiRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiRateLimiter.class);
+
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::sequence));
+    private final Map<LlmPriority, Timer> waitTimers = new EnumMap<>(LlmPriority.class);
+    private final Counter rateLimitedCounter;
+
+    private double requestLimit;
+    private double tokenLimit;
+    private double requestBudget;
+    private double tokenBudget;
+    private long lastRefill;
+    private long pausedUntil;
+    private long sequence;
+    private Duration lastReportedReset;
+
+    @Autowired
+    public OpenAiRateLimiter(RateLimitProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), System::nanoTime);
+    }
+
+    OpenAiRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.requestLimit = properties.getRequestsPerMinute();
+        this.tokenLimit = properties.getTokensPerMinute();
+        this.requestBudget = requestLimit;
+        this.tokenBudget = tokenLimit;
+        this.lastRefill = clock.getAsLong();
+        this.pausedUntil = lastRefill;
+
+        Gauge.builder("mekluppie.openai.queue.depth", this, OpenAiRateLimiter::queueDepth)
+                .description("Calls waiting for an OpenAI permit")
+                .register(meterRegistry);
+        Gauge.builder("mekluppie.openai.limit.requests", this, limiter -> limiter.read(() -> limiter.requestLimit))
+                .description("Current adaptive request limit per minute")
+                .register(meterRegistry);
+        Gauge.builder("mekluppie.openai.limit.tokens", this, limiter -> limiter.read(() -> limiter.tokenLimit))
+                .description("Current adaptive token limit per minute")
+                .register(meterRegistry);
+        for (LlmPriority priority : LlmPriority.values()) {
+            waitTimers.put(priority, Timer.builder("mekluppie.openai.queue.wait")
+                    .description("Time spent waiting for an OpenAI permit")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.rateLimitedCounter = Counter.builder("mekluppie.openai.rate-limited")
+                .description("Calls rejected by OpenAI with 429 Too Many Requests")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Blocks until a call of the given priority and estimated token cost fits the budget.
+     *
+     * @return the permit to hand back to {@link #complete} once the call's usage is known
+     */
+    public Permit acquire(LlmPriority priority, long estimatedTokens) throws InterruptedException {
+        return acquire(priority, estimatedTokens, null);
+    }
+
+    /**
+     * Like {@link #acquire(LlmPriority, long)}, but gives up after {@code maxWait}.
+     *
+     * @throws DeadlineExceededException when no permit became available within {@code maxWait}
+     */
+    public Permit acquire(LlmPriority priority, long estimatedTokens, Duration maxWait) throws InterruptedException {
+        long start = clock.getAsLong();
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(priority, sequence++);
+            queue.add(waiter);
+            try {
+                while (true) {
+                    long now = clock.getAsLong();
+                    refill(now);
+                    long waitNanos = queue.peek() == waiter ? waitNanos(priority, estimatedTokens, now) : -1;
+                    if (waitNanos == 0) {
+                        queue.poll();
+                        requestBudget -= 1;
+                        tokenBudget -= estimatedTokens;
+                        changed.signalAll();
+                        break;
+                    }
+                    long budget = maxWait != null ? start + maxWait.toNanos() - now : Long.MAX_VALUE;
+                    if (budget <= 0) {
+                        queue.remove(waiter);
+                        changed.signalAll();
+                        throw new DeadlineExceededException("Deadline exceeded waiting for an OpenAI permit");
+                    }
+                    if (waitNanos > 0 || maxWait != null) {
+                        changed.awaitNanos(waitNanos > 0 ? Math.min(waitNanos, budget) : budget);
+                    } else {
+                        changed.await();
+                    }
+                }
+            } catch (InterruptedException e) {
+                queue.remove(waiter);
+                changed.signalAll();
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        waitTimers.get(priority).record(clock.getAsLong() - start, TimeUnit.NANOSECONDS);
+        return new Permit(priority, estimatedTokens);
+    }
+
+    /**
+     * Settles a permit after a successful call: the token estimate is replaced by the actual usage, the
+     * budgets are capped by what OpenAI reports as remaining, and the limits recover one step.
+     *
+     * @param usedTokens total tokens the call consumed, or 0 when unknown
+     * @param rateLimit  rate-limit headers of the response, may be {@code null}
+     */
+    public void complete(Permit permit, long usedTokens, RateLimit rateLimit) {
+        lock.lock();
+        try {
+            refill(clock.getAsLong());
+            if (usedTokens > 0) {
+                tokenBudget += permit.estimatedTokens() - usedTokens;
+            }
+            requestLimit = Math.min(properties.getRequestsPerMinute(),
+                    requestLimit + properties.getRecoveryStep() * properties.getRequestsPerMinute());
+            tokenLimit = Math.min(properties.getTokensPerMinute(),
+                    tokenLimit + properties.getRecoveryStep() * properties.getTokensPerMinute());
+            if (rateLimit != null) {
+                adopt(rateLimit);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Backs off after a 429: both limits shrink, the budgets are emptied and no permits are handed out until
+     * the last reported reset, or the configured default, has passed.
+     */
+    public void onRateLimited() {
+        rateLimitedCounter.increment();
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            refill(now);
+            requestLimit = Math.max(1, requestLimit * properties.getBackoffFactor());
+            tokenLimit = Math.max(1, tokenLimit * properties.getBackoffFactor());
+            requestBudget = Math.min(requestBudget, 0);
+            tokenBudget = Math.min(tokenBudget, 0);
+            Duration pause = lastReportedReset != null ? lastReportedReset : properties.getDefaultRetryAfter();
+            pausedUntil = Math.max(pausedUntil, now + pause.toNanos());
+            logger.warn("OpenAI rate limit hit; pausing {} ms, limits now {} requests / {} tokens per minute",
+                    pause.toMillis(), Math.round(requestLimit), Math.round(tokenLimit));
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueDepth() {
+        return read(queue::size);
+    }
+
+    private void adopt(RateLimit rateLimit) {
+        if (rateLimit.getRequestsLimit() != null && rateLimit.getRequestsLimit() > 0) {
+            requestLimit = Math.min(requestLimit, rateLimit.getRequestsLimit());
+        }
+        if (rateLimit.getTokensLimit() != null && rateLimit.getTokensLimit() > 0) {
+            tokenLimit = Math.min(tokenLimit, rateLimit.getTokensLimit());
+        }
+        if (rateLimit.getRequestsRemaining() != null && rateLimit.getRequestsLimit() != null
+                && rateLimit.getRequestsLimit() > 0) {
+            requestBudget = Math.min(requestBudget, rateLimit.getRequestsRemaining());
+        }
+        if (rateLimit.getTokensRemaining() != null && rateLimit.getTokensLimit() != null
+                && rateLimit.getTokensLimit() > 0) {
+            tokenBudget = Math.min(tokenBudget, rateLimit.getTokensRemaining());
+        }
+        Duration reset = longest(rateLimit.getRequestsReset(), rateLimit.getTokensReset());
+        if (reset != null) {
+            lastReportedReset = reset;
+        }
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            requestBudget = Math.min(requestLimit, requestBudget + requestLimit * elapsed / NANOS_PER_MINUTE);
+            tokenBudget = Math.min(tokenLimit, tokenBudget + tokenLimit * elapsed / NANOS_PER_MINUTE);
+            lastRefill = now;
+        }
+    }
+
+    /** Nanoseconds until a call fits the budget, 0 when it fits now. */
+    private long waitNanos(LlmPriority priority, long estimatedTokens, long now) {
+        if (pausedUntil > now) {
+            return pausedUntil - now;
+        }
+        double reserve = priority == LlmPriority.BATCH ? properties.getInteractiveReserve() : 0;
+        double requestsNeeded = Math.min(requestLimit, 1 + reserve * requestLimit);
+        double tokensNeeded = Math.min(tokenLimit, estimatedTokens + reserve * tokenLimit);
+        double requestDeficit = requestsNeeded - requestBudget;
+        double tokenDeficit = tokensNeeded - tokenBudget;
+        if (requestDeficit <= 0 && tokenDeficit <= 0) {
+            return 0;
+        }
+        double nanos = Math.max(requestDeficit / requestLimit, tokenDeficit / tokenLimit) * NANOS_PER_MINUTE;
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(1), (long) Math.ceil(nanos));
+    }
+
+    private <T> T read(Supplier<T> value) {
+        lock.lock();
+        try {
+            return value.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Duration longest(Duration first, Duration second) {
+        if (first == null || first.isZero()) {
+            return second == null || second.isZero() ? null : second;
+        }
+        return second == null || second.compareTo(first) <= 0 ? first : second;
+    }
+
+    public record Permit(LlmPriority priority, long estimatedTokens) { }
+
+    private record Waiter(LlmPriority priority, long sequence) { }
+}
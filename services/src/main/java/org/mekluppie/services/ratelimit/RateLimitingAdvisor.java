@@ -0,0 +1,111 @@
+package org.mekluppie.services.ratelimit;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.mekluppie.services.config.RateLimitProperties;
+import org.mekluppie.services.deadline.Deadline;
+import org.mekluppie.services.deadline.DeadlineExceededException;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Routes every {@link org.springframework.ai.chat.client.ChatClient} call through the {@link OpenAiRateLimiter}.
+ * The token cost is estimated from the prompt length plus an allowance for the completion, and settled against
+ * the usage and rate-limit headers of the response.
+ */
+@Component
+public class RateLimitingAdvisor implements CallAdvisor {
+
+    private final OpenAiRateLimiter limiter;
+    private final RateLimitProperties properties;
+    private final ObservationRegistry observationRegistry;
+
+    public RateLimitingAdvisor(OpenAiRateLimiter limiter, RateLimitProperties properties,
+                               ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.observationRegistry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        Deadline.checkCurrent("OpenAI call");
+        if (!properties.isEnabled()) {
+            return Deadline.bound("OpenAI call", () -> chain.nextCall(request));
+        }
+
+        long estimatedTokens = estimateTokens(request.prompt().getContents(), properties.getExpectedOutputTokens());
+        LlmPriority priority = LlmPriority.current();
+        Observation waiting = Observation.createNotStarted("mekluppie.openai.permit", observationRegistry)
+                .contextualName("openai permit wait")
+                .lowCardinalityKeyValue("llm.priority", priority.name().toLowerCase())
+                .highCardinalityKeyValue("llm.tokens.estimated", String.valueOf(estimatedTokens))
+                .start();
+        OpenAiRateLimiter.Permit permit;
+        try {
+            permit = limiter.acquire(priority, estimatedTokens, Deadline.current().map(Deadline::remaining).orElse(null));
+        } catch (DeadlineExceededException e) {
+            waiting.error(e);
+            throw e;
+        } catch (InterruptedException e) {
+            waiting.error(e);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an OpenAI permit", e);
+        } finally {
+            waiting.stop();
+        }
+
+        ChatClientResponse response;
+        try {
+            response = Deadline.bound("OpenAI call", () -> chain.nextCall(request));
+        } catch (RuntimeException e) {
+            if (isRateLimited(e)) {
+                limiter.onRateLimited();
+            }
+            throw e;
+        }
+
+        ChatResponseMetadata metadata = response.chatResponse() != null ? response.chatResponse().getMetadata() : null;
+        Usage usage = metadata != null ? metadata.getUsage() : null;
+        long usedTokens = usage != null && usage.getTotalTokens() != null ? usage.getTotalTokens() : 0;
+        limiter.complete(permit, usedTokens, metadata != null ? metadata.getRateLimit() : null);
+        return response;
+    }
+
+    @Override
+    public String getName() {
+        return "RateLimitingAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /** About four characters per token for the prompt, plus the expected completion. */
+    static long estimateTokens(String prompt, int expectedOutputTokens) {
+        return prompt.length() / 4 + expectedOutputTokens;
+    }
+
+    /** OpenAI signals rate limiting with HTTP 429; Spring AI wraps it with the status code in the message. */
+    private static boolean isRateLimited(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientErrorException.TooManyRequests) {
+                return true;
+            }
+            String message = cause.getMessage();
+            if (message != null && (message.startsWith("429") || message.contains("HTTP 429"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package org.mekluppie.services.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.mekluppie.services.config.BulkheadProperties;
+import org.mekluppie.services.deadline.Deadline;
+import org.mekluppie.services.deadline.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrent calls to one upstream, so a slow upstream ties up at most its own permits
+ * rather than every request thread. Callers that find all permits taken either fail at once or queue, in
+ * arrival order, for a bounded time.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final BulkheadProperties.Settings settings;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejected;
+    private final Timer waitTime;
+
+    public Bulkhead(String name, BulkheadProperties.Settings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = settings.getMaxConcurrent();
+        this.settings = settings;
+        this.permits = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("mekluppie.bulkhead.active", this, Bulkhead::active)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("mekluppie.bulkhead.waiting", waiting, AtomicInteger::get)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        Gauge.builder("mekluppie.bulkhead.max", () -> maxConcurrent)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("mekluppie.bulkhead.rejected")
+                .tag("upstream", name)
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("mekluppie.bulkhead.wait")
+                .tag("upstream", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} holding one permit.
+     *
+     * @throws BulkheadFullException when no permit could be had
+     * @throws DeadlineExceededException when the current deadline passed before a permit could be had while
+     *                                   queueing, which says more about the caller's budget than about the upstream
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    private void acquire() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (settings.getOnFull() == BulkheadProperties.FullPolicy.REJECT) {
+            reject();
+        }
+        Deadline.checkCurrent("getting a " + name + " permit");
+        if (waiting.incrementAndGet() > settings.getMaxWaiting()) {
+            waiting.decrementAndGet();
+            reject();
+        }
+        long start = System.nanoTime();
+        try {
+            Duration maxWait = Deadline.remainingOr(settings.getMaxWait());
+            if (maxWait.compareTo(settings.getMaxWait()) > 0) {
+                maxWait = settings.getMaxWait();
+            }
+            if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                Deadline.checkCurrent("getting a " + name + " permit");
+                reject();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name);
+        } finally {
+            waiting.decrementAndGet();
+            waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void reject() {
+        rejected.increment();
+        throw new BulkheadFullException(name);
+    }
+}
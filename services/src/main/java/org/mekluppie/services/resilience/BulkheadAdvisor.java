@@ -0,0 +1,37 @@
+package org.mekluppie.services.resilience;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds a permit of the OpenAI bulkhead for the whole chat call, including the wait for a rate-limit permit,
+ * so requests stuck behind OpenAI cannot take more than their share of threads.
+ */
+@Component
+public class BulkheadAdvisor implements CallAdvisor {
+
+    private final Bulkhead bulkhead;
+
+    public BulkheadAdvisor(Bulkheads bulkheads) {
+        this.bulkhead = bulkheads.get(Bulkheads.OPENAI);
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        return bulkhead.call(() -> chain.nextCall(request));
+    }
+
+    @Override
+    public String getName() {
+        return "BulkheadAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
@@ -0,0 +1,15 @@
+package org.mekluppie.services.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an upstream's bulkhead has no permit for the caller.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String upstream) {
+        super("Too many concurrent calls to " + upstream);
+    }
+}
@@ -0,0 +1,42 @@
+package org.mekluppie.services.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mekluppie.services.config.BulkheadProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link Bulkhead} per upstream, created on first use from its configured settings.
+ */
+@Component
+public class Bulkheads {
+
+    public static final String OPENAI = "openai";
+    public static final String WEAVIATE = "weaviate";
+    public static final String TERMENNETWERK = "termennetwerk";
+    public static final String IMAGES = "images";
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public Bulkheads(BulkheadProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public Bulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Bulkhead get(String upstream) {
+        return bulkheads.computeIfAbsent(upstream, name -> new Bulkhead(name,
+                properties.getUpstreams().getOrDefault(name, properties.getDefaults()), meterRegistry));
+    }
+}
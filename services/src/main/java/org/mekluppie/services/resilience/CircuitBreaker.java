@@ -0,0 +1,86 @@
+package org.mekluppie.services.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker with half-open probing.
+ * <p>
+ * The circuit opens after {@code failureThreshold} failures in a row. Once {@code openDuration} has passed,
+ * exactly one call is let through as a probe: success closes the circuit, failure opens it again. A call that
+ * ends without telling anything about the upstream, such as one rejected locally, must still report back through
+ * {@link #onIgnored()}, or a probe would never finish.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return true if the caller may go ahead with the call, false if it should be skipped
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Ends a call whose outcome says nothing about the upstream. The state is left as it is; if the call was the
+     * half-open probe, the next call may probe instead.
+     */
+    public synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,48 @@
+package org.mekluppie.services.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedged calls: start a duplicate of a slow call and take whichever attempt succeeds first.
+ */
+public final class Hedging {
+
+    private Hedging() {
+    }
+
+    /**
+     * Runs {@code call} on {@code executor} and, if it has not completed after {@code hedgeDelay},
+     * starts a second attempt. The returned future completes with the first successful result and only
+     * fails when every started attempt failed.
+     */
+    public static <T> CompletableFuture<T> hedged(Supplier<T> call, Duration hedgeDelay, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(call, executor);
+        primary.whenComplete((value, error) -> settle(result, pending, value, error));
+
+        CompletableFuture.delayedExecutor(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS, executor).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            pending.incrementAndGet();
+            CompletableFuture.supplyAsync(call, executor)
+                    .whenComplete((value, error) -> settle(result, pending, value, error));
+        });
+        return result;
+    }
+
+    private static <T> void settle(CompletableFuture<T> result, AtomicInteger pending, T value, Throwable error) {
+        if (error == null) {
+            result.complete(value);
+        } else if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(error);
+        }
+    }
+}
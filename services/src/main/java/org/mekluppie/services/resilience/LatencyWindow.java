@@ -0,0 +1,53 @@
+package org.mekluppie.services.resilience;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Fixed-size rolling window of latency samples in milliseconds.
+ * Once full, every new sample overwrites the oldest one.
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyWindow(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + size);
+        }
+        this.samples = new long[size];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Returns the nearest-rank percentile of the current window.
+     *
+     * @param percentile value between 0 and 100
+     * @return the percentile, or empty when no samples were recorded yet
+     */
+    public OptionalLong percentile(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (count == 0) {
+                return OptionalLong.empty();
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return OptionalLong.of(sorted[Math.max(0, Math.min(rank, sorted.length) - 1)]);
+    }
+}
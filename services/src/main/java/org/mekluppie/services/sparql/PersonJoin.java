@@ -0,0 +1,93 @@
+package org.mekluppie.services.sparql;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.mekluppie.services.model.AuthorQueryResponse;
+import org.mekluppie.services.model.ImageQueryResponse;
+import org.mekluppie.services.model.PersonLookupResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Joins the results of the KB and Beeldbank queries for a person in an in-memory Jena dataset.
+ * <p>
+ * Each endpoint's rows go into a named graph of their own, attached to a node labelled with the person. A SPARQL
+ * query over both graphs then links the books and images of the same person where the image label mentions the
+ * book title, e.g. an engraving of a title page.
+ */
+public final class PersonJoin {
+
+    private static final String KB = "urn:mekluppie:kb";
+    private static final String BEELDBANK = "urn:mekluppie:beeldbank";
+    private static final Property AUTHOR = ResourceFactory.createProperty("http://schema.org/author");
+    private static final Property ABOUT = ResourceFactory.createProperty("http://schema.org/about");
+    private static final Property NAME = ResourceFactory.createProperty("http://schema.org/name");
+
+    private static final Query LINKS = QueryFactory.create("""
+            prefix schema: <http://schema.org/>
+            prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#>
+            select distinct ?book ?image where {
+              graph <%s> { ?book schema:author ?author; schema:name ?title . ?author rdfs:label ?person }
+              graph <%s> { ?image schema:about ?subject; rdfs:label ?label . ?subject rdfs:label ?person }
+              filter(strlen(?title) > 3 && contains(lcase(?label), lcase(?title)))
+            }
+            order by ?book ?image
+            """.formatted(KB, BEELDBANK));
+
+    private PersonJoin() {
+    }
+
+    public static List<PersonLookupResponse.Link> links(String person, List<AuthorQueryResponse> books,
+                                                        List<ImageQueryResponse> images) {
+        if (books.isEmpty() || images.isEmpty()) {
+            return List.of();
+        }
+        String label = person.strip().toLowerCase(Locale.ROOT);
+        Dataset dataset = DatasetFactory.createTxnMem();
+        dataset.executeWrite(() -> {
+            Model kb = dataset.getNamedModel(KB);
+            Resource author = kb.createResource().addProperty(RDFS.label, label);
+            for (AuthorQueryResponse book : books) {
+                if (book.book().isEmpty()) {
+                    continue;
+                }
+                kb.createResource(book.book()).addProperty(AUTHOR, author).addProperty(NAME, book.title());
+            }
+
+            Model beeldbank = dataset.getNamedModel(BEELDBANK);
+            Resource subject = beeldbank.createResource().addProperty(RDFS.label, label);
+            for (ImageQueryResponse image : images) {
+                if (image.image().isEmpty()) {
+                    continue;
+                }
+                beeldbank.createResource(image.image()).addProperty(ABOUT, subject)
+                        .addProperty(RDFS.label, image.widgetLabel());
+            }
+        });
+
+        List<PersonLookupResponse.Link> links = new ArrayList<>();
+        dataset.executeRead(() -> {
+            try (QueryExecution execution = QueryExecution.dataset(dataset).query(LINKS).build()) {
+                ResultSet results = execution.execSelect();
+                while (results.hasNext()) {
+                    QuerySolution solution = results.next();
+                    links.add(new PersonLookupResponse.Link(solution.getResource("book").getURI(),
+                            solution.getResource("image").getURI()));
+                }
+            }
+        });
+        return links;
+    }
+}
@@ -0,0 +1,97 @@
+package org.mekluppie.services.sparql;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.E_GreaterThan;
+import org.apache.jena.sparql.expr.E_Str;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.syntaxtransform.QueryTransformOps;
+import org.mekluppie.services.model.PageRequest;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A SPARQL query parsed once with Jena ARQ and reused for every call.
+ * <p>
+ * Parameters are unbound variables in the template (e.g. {@code ?authorName}) and are replaced with RDF
+ * terms on each call, so user input never ends up in the query text as raw SPARQL. Templates with a key
+ * variable support keyset paging; the template should {@code ORDER BY} that variable.
+ */
+public final class SparqlTemplate {
+
+    private final String name;
+    private final Query query;
+    private final Var keyVar;
+
+    private SparqlTemplate(String name, Query query, Var keyVar) {
+        this.name = name;
+        this.query = query;
+        this.keyVar = keyVar;
+    }
+
+    public static SparqlTemplate parse(String name, String sparql, String keyVar) {
+        return new SparqlTemplate(name, QueryFactory.create(sparql), keyVar != null ? Var.alloc(keyVar) : null);
+    }
+
+    public static SparqlTemplate fromClasspath(String resource, String keyVar) {
+        try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+            return parse(resource, new String(in.readAllBytes(), StandardCharsets.UTF_8), keyVar);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load SPARQL template " + resource, e);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String keyVar() {
+        return keyVar != null ? keyVar.getVarName() : null;
+    }
+
+    /**
+     * Binds the parameters and applies the page. The template itself is left untouched.
+     * Fetches one row more than the page limit so callers can tell whether another page exists.
+     */
+    public Query bind(Map<String, Node> parameters, PageRequest page) {
+        Map<Var, Node> substitutions = new HashMap<>();
+        parameters.forEach((param, value) -> substitutions.put(Var.alloc(param), value));
+
+        Query bound = QueryTransformOps.shallowCopy(QueryTransformOps.replaceVars(query, substitutions));
+        if (page.isKeyset()) {
+            if (keyVar == null) {
+                throw new IllegalArgumentException("Template " + name + " does not support keyset paging");
+            }
+            bound.setQueryPattern(withKeysetFilter(bound.getQueryPattern(), page.after()));
+            bound.setOffset(Query.NOLIMIT);
+        } else {
+            bound.setOffset(page.offset() > 0 ? page.offset() : Query.NOLIMIT);
+        }
+        bound.setLimit(page.limit() + 1L);
+        return bound;
+    }
+
+    private Element withKeysetFilter(Element pattern, String after) {
+        ElementGroup group = new ElementGroup();
+        if (pattern instanceof ElementGroup existing) {
+            existing.getElements().forEach(group::addElement);
+        } else {
+            group.addElement(pattern);
+        }
+        group.addElement(new ElementFilter(
+                new E_GreaterThan(new E_Str(new ExprVar(keyVar)), NodeValue.makeString(after))));
+        return group;
+    }
+}
@@ -0,0 +1,187 @@
+package org.mekluppie.services.typeahead;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable prefix index over term labels.
+ * <p>
+ * Labels are normalised (accents stripped, lower-cased) and kept in one sorted array, which doubles as an
+ * implicit trie: the keys below a prefix form a contiguous range, and the children of a prefix are found
+ * by binary search within that range. Exact prefix lookups are a pair of binary searches; fuzzy lookups walk
+ * the implicit trie with a Levenshtein row and prune branches that exceed the edit budget.
+ */
+public final class TypeaheadIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    public static final TypeaheadIndex EMPTY = build(List.of());
+
+    private final String[] keys;
+    private final int[] entryOf;
+    private final Entry[] entries;
+
+    private TypeaheadIndex(String[] keys, int[] entryOf, Entry[] entries) {
+        this.keys = keys;
+        this.entryOf = entryOf;
+        this.entries = entries;
+    }
+
+    /**
+     * A term as it is stored in the index. All of {@code labels} are searchable; {@code prefLabel} is
+     * what gets displayed.
+     */
+    public record Entry(String uri, String prefLabel, String source, List<String> labels) { }
+
+    /**
+     * A search hit; {@code edits} is the number of typos that were tolerated to match it.
+     */
+    public record Match(Entry entry, int edits) { }
+
+    public static TypeaheadIndex build(List<Entry> entries) {
+        Entry[] entryArray = entries.toArray(Entry[]::new);
+        List<long[]> pairs = new ArrayList<>();
+        List<String> normalised = new ArrayList<>();
+        for (int e = 0; e < entryArray.length; e++) {
+            for (String label : entryArray[e].labels()) {
+                String key = normalise(label);
+                if (!key.isEmpty()) {
+                    pairs.add(new long[]{normalised.size(), e});
+                    normalised.add(key);
+                }
+            }
+        }
+        pairs.sort(Comparator.comparing(pair -> normalised.get((int) pair[0])));
+
+        String[] keys = new String[pairs.size()];
+        int[] entryOf = new int[pairs.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = normalised.get((int) pairs.get(i)[0]);
+            entryOf[i] = (int) pairs.get(i)[1];
+        }
+        return new TypeaheadIndex(keys, entryOf, entryArray);
+    }
+
+    public static String normalise(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public int keyCount() {
+        return keys.length;
+    }
+
+    public List<Entry> entries() {
+        return List.of(entries);
+    }
+
+    /**
+     * Finds terms whose label starts with {@code query}, allowing up to {@code maxEdits} typos in the
+     * query. Exact prefix matches rank first, then fewer edits, then shorter labels.
+     */
+    public List<Match> search(String query, int limit, int maxEdits) {
+        String prefix = normalise(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<int[]> hits = new ArrayList<>();
+        int budget = limit * 4;
+        int lo = lowerBound(prefix, 0, keys.length);
+        for (int i = lo; i < keys.length && keys[i].startsWith(prefix) && hits.size() < budget; i++) {
+            hits.add(new int[]{i, 0});
+        }
+        if (maxEdits > 0 && hits.size() < budget) {
+            int[] row = new int[prefix.length() + 1];
+            Arrays.setAll(row, i -> i);
+            collectFuzzy(prefix, 0, 0, keys.length, row, maxEdits, hits, budget);
+        }
+
+        hits.sort(Comparator.<int[]>comparingInt(hit -> hit[1]).thenComparingInt(hit -> keys[hit[0]].length()));
+        Map<String, Match> matches = new LinkedHashMap<>();
+        for (int[] hit : hits) {
+            Entry entry = entries[entryOf[hit[0]]];
+            matches.putIfAbsent(entry.source() + " " + entry.uri(), new Match(entry, hit[1]));
+            if (matches.size() == limit) {
+                break;
+            }
+        }
+        return List.copyOf(matches.values());
+    }
+
+    private void collectFuzzy(String prefix, int depth, int lo, int hi, int[] row, int maxEdits,
+                              List<int[]> hits, int budget) {
+        int i = lo;
+        while (i < hi && keys[i].length() == depth) {
+            i++;
+        }
+        while (i < hi && hits.size() < budget) {
+            char c = keys[i].charAt(depth);
+            int end = childEnd(depth, c, i, hi);
+
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            int best = next[0];
+            for (int j = 1; j < row.length; j++) {
+                int cost = prefix.charAt(j - 1) == c ? 0 : 1;
+                next[j] = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+                best = Math.min(best, next[j]);
+            }
+
+            // distance 0 means an exact prefix match, which the range scan already collected
+            int distance = next[row.length - 1];
+            if (distance > 0 && distance <= maxEdits) {
+                for (int k = i; k < end && hits.size() < budget; k++) {
+                    hits.add(new int[]{k, distance});
+                }
+            } else if (distance > 0 && best <= maxEdits) {
+                collectFuzzy(prefix, depth + 1, i, end, next, maxEdits, hits, budget);
+            }
+            i = end;
+        }
+    }
+
+    /** First index in [from, to) whose key does not have {@code c} at {@code depth}. */
+    private int childEnd(int depth, char c, int from, int to) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].length() > depth && keys[mid].charAt(depth) <= c) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int lowerBound(String key, int from, int to) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,100 @@
+package org.mekluppie.services.typeahead;
+
+import org.mekluppie.services.TermsSuggestionService;
+import org.mekluppie.services.config.TypeaheadProperties;
+import org.mekluppie.services.model.TermsResponse;
+import org.mekluppie.services.model.TypeaheadResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Answers typeahead queries from a local {@link TypeaheadIndex} instead of the Termennetwerk gateway.
+ * <p>
+ * A background job harvests pref- and altLabels for the configured sources by sending seed queries through
+ * {@link TermsSuggestionService}. Each refresh handles the next batch of (source, seed) pairs, merges the
+ * results with what was harvested before, builds a new index off to the side and swaps it in atomically.
+ */
+@Service
+public class TypeaheadService {
+    private static final Logger logger = LoggerFactory.getLogger(TypeaheadService.class);
+
+    private final TermsSuggestionService termsSuggestionService;
+    private final TypeaheadProperties properties;
+    private final AtomicReference<TypeaheadIndex> index = new AtomicReference<>(TypeaheadIndex.EMPTY);
+    private final Map<String, TypeaheadIndex.Entry> harvested = new HashMap<>();
+    private int cursor;
+
+    public TypeaheadService(TermsSuggestionService termsSuggestionService, TypeaheadProperties properties) {
+        this.termsSuggestionService = termsSuggestionService;
+        this.properties = properties;
+    }
+
+    public TypeaheadResponse suggest(String query, int limit) {
+        TypeaheadIndex current = index.get();
+        var items = current.search(query, Math.min(limit, properties.getMaxResults()), properties.getMaxEdits())
+                .stream()
+                .map(match -> new TypeaheadResponse.TypeaheadItem(match.entry().uri(), match.entry().prefLabel(),
+                        match.entry().source(), match.edits()))
+                .toList();
+        return new TypeaheadResponse(items, current.size());
+    }
+
+    @Scheduled(initialDelayString = "${mekluppie.typeahead.initial-delay:PT30S}",
+            fixedDelayString = "${mekluppie.typeahead.refresh-interval:PT15M}")
+    public synchronized void refresh() {
+        List<String> sources = properties.getSources();
+        List<String> seeds = properties.getSeedQueries();
+        if (!properties.isEnabled() || sources.isEmpty() || seeds.isEmpty()) {
+            return;
+        }
+
+        int pairs = sources.size() * seeds.size();
+        int batch = Math.min(properties.getBatchSize(), pairs);
+        int added = 0;
+        for (int k = 0; k < batch; k++) {
+            int pair = (cursor + k) % pairs;
+            String source = sources.get(pair / seeds.size());
+            String seed = seeds.get(pair % seeds.size());
+            added += harvest(source, seed);
+        }
+        cursor = (cursor + batch) % pairs;
+
+        TypeaheadIndex next = TypeaheadIndex.build(List.copyOf(harvested.values()));
+        index.set(next);
+        logger.info("Typeahead index refreshed: {} new or updated terms, {} terms, {} labels",
+                added, next.size(), next.keyCount());
+    }
+
+    private int harvest(String source, String seed) {
+        try {
+            int count = 0;
+            for (TermsResponse.Term term : termsSuggestionService.fetchSourceTerms(source, seed, properties.getLanguages())) {
+                List<String> labels = new ArrayList<>();
+                Stream.of(term.prefLabel(), term.altLabel())
+                        .filter(list -> list != null)
+                        .flatMap(List::stream)
+                        .map(TermsResponse.Label::value)
+                        .forEach(labels::add);
+                if (labels.isEmpty()) {
+                    continue;
+                }
+                harvested.put(source + " " + term.uri(), new TypeaheadIndex.Entry(term.uri(), labels.get(0), source,
+                        List.copyOf(labels)));
+                count++;
+            }
+            return count;
+        } catch (Exception e) {
+            logger.warn("Harvesting '{}' from {} failed: {}", seed, source, e.getMessage());
+            return 0;
+        }
+    }
+}
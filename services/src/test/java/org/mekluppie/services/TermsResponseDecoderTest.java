@@ -0,0 +1,80 @@
+package org.mekluppie.services;
+
+import org.junit.jupiter.api.Test;
+import org.mekluppie.services.model.TermsSuggestResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TermsResponseDecoderTest {
+
+    private static final String SOURCE = "http://vocab.getty.edu/aat";
+
+    @Test
+    void decodesItemsWithLabelsInBestLanguage() throws Exception {
+        TermsResponseDecoder.Decoded decoded = new TermsResponseDecoder(List.of("nl", "en")).decode(json("""
+                {"data": {"terms": [{
+                  "source": {"name": "AAT", "uri": "http://vocab.getty.edu/aat", "creators": [{"name": "Getty"}]},
+                  "result": {"terms": [
+                    {"uri": "https://example.org/molen",
+                     "prefLabel": [{"language": "en", "value": "windmill"}, {"language": "nl-NL", "value": "molen"}],
+                     "altLabel": [{"language": "nl", "value": "windmolen"}],
+                     "scopeNote": [{"language": "fr", "value": "moulin"}],
+                     "broader": [{"uri": "https://example.org/gebouw", "prefLabel": [{"language": "nl", "value": "gebouw"}]}],
+                     "seeAlso": ["https://example.org"]},
+                    {"uri": "https://example.org/brug", "prefLabel": [], "scopeNote": null}
+                  ]},
+                  "responseTimeMs": 42
+                }]}}
+                """), SOURCE);
+
+        assertEquals(List.of(
+                new TermsSuggestResponse.TermsSuggestItem("https://example.org/molen", "molen", "moulin", "AAT"),
+                new TermsSuggestResponse.TermsSuggestItem("https://example.org/brug", "N/A", "N/A", "AAT")),
+                decoded.items());
+        assertEquals(List.of(42L), decoded.responseTimesMs());
+    }
+
+    @Test
+    void skipsNullAndScalarElementsWithoutLosingLaterTerms() throws Exception {
+        TermsResponseDecoder.Decoded decoded = new TermsResponseDecoder(List.of("nl")).decode(json("""
+                {"data": {"terms": [null, {
+                  "result": {"terms": [
+                    null,
+                    {"uri": {"value": "https://example.org/molen"},
+                     "prefLabel": [null, "molen", [], {"language": "nl", "value": "molen"}],
+                     "scopeNote": [{"language": ["nl"], "value": "gebouw met wieken"}]},
+                    "brug",
+                    {"uri": "https://example.org/brug", "prefLabel": [{"language": "nl", "value": "brug"}]}
+                  ]},
+                  "source": {"name": {"nl": "AAT"}},
+                  "responseTimeMs": 7
+                }]}}
+                """), SOURCE);
+
+        assertEquals(List.of(
+                new TermsSuggestResponse.TermsSuggestItem(null, "molen", "gebouw met wieken", null),
+                new TermsSuggestResponse.TermsSuggestItem("https://example.org/brug", "brug", "N/A", null)),
+                decoded.items());
+        assertEquals(List.of(7L), decoded.responseTimesMs());
+    }
+
+    @Test
+    void failsWhenSourceReturnsError() {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+                new TermsResponseDecoder(List.of("en")).decode(json("""
+                        {"data": {"terms": [{"result": {"__typename": "Error", "message": "timeout"},
+                                             "source": {"name": "AAT"}, "responseTimeMs": 5000}]}}
+                        """), SOURCE));
+        assertEquals("Source " + SOURCE + " failed: timeout", error.getMessage());
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
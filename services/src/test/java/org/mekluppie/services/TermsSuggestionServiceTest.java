@@ -1,15 +1,34 @@
 package org.mekluppie.services;
 
 
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mekluppie.services.cache.DistributedCaches;
+import org.mekluppie.services.cache.InProcessCacheBackend;
+import org.mekluppie.services.config.BulkheadProperties;
+import org.mekluppie.services.config.DistributedCacheProperties;
+import org.mekluppie.services.config.TermsProperties;
+import org.mekluppie.services.deadline.Deadline;
+import org.mekluppie.services.model.TermsSuggestResponse;
+import org.mekluppie.services.resilience.Bulkheads;
+import org.mekluppie.services.resilience.CircuitBreaker;
 
+import java.time.Duration;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class TermsSuggestionServiceTest {
 
     @Test
     void getTermSuggestionsTest() throws Exception {
-        TermsSuggestionService service = new TermsSuggestionService();
+        TermsProperties properties = new TermsProperties();
+        TermsSuggestionService service = new TermsSuggestionService(properties, new TermsSourceMonitor(properties),
+                new Bulkheads(new BulkheadProperties(), new SimpleMeterRegistry()),
+                new DistributedCaches(new InProcessCacheBackend(), new DistributedCacheProperties(), new SimpleMeterRegistry()),
+                ObservationRegistry.NOOP);
 
         var response = service.fetchTerms(
                 List.of("http://vocab.getty.edu/aat#processes-and-techniques", "http://vocab.getty.edu/aat"),
@@ -19,4 +38,53 @@ class TermsSuggestionServiceTest {
 
         System.out.println(response);
     }
-}
\ No newline at end of file
+
+    @Test
+    void probeRejectedByTheBulkheadDoesNotKeepTheCircuitOpen() throws Exception {
+        TermsProperties properties = new TermsProperties();
+        properties.setOpenDuration(Duration.ofMillis(1));
+        TermsSourceMonitor monitor = new TermsSourceMonitor(properties);
+        BulkheadProperties.Settings full = new BulkheadProperties.Settings();
+        full.setMaxConcurrent(0);
+        full.setOnFull(BulkheadProperties.FullPolicy.REJECT);
+        BulkheadProperties bulkheads = new BulkheadProperties();
+        bulkheads.getUpstreams().put(Bulkheads.TERMENNETWERK, full);
+        TermsSuggestionService service = new TermsSuggestionService(properties, monitor,
+                new Bulkheads(bulkheads, new SimpleMeterRegistry()),
+                new DistributedCaches(new InProcessCacheBackend(), new DistributedCacheProperties(), new SimpleMeterRegistry()),
+                ObservationRegistry.NOOP);
+        String source = "http://vocab.getty.edu/aat";
+        for (int i = 0; i < properties.getFailureThreshold(); i++) {
+            monitor.recordFailure(source);
+        }
+        Thread.sleep(5);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            TermsSuggestResponse response = service.fetchTerms(List.of(source), "molen", List.of("nl"));
+            assertEquals(TermsSuggestResponse.SkipReason.OVERLOADED, response.skippedSources().get(0).reason());
+        }
+        assertEquals(CircuitBreaker.State.HALF_OPEN, monitor.stats().get(0).circuit());
+    }
+
+    @Test
+    void probeCutShortByTheRequestDeadlineDoesNotKeepTheCircuitOpen() throws Exception {
+        TermsProperties properties = new TermsProperties();
+        properties.setOpenDuration(Duration.ofMillis(1));
+        TermsSourceMonitor monitor = new TermsSourceMonitor(properties);
+        TermsSuggestionService service = new TermsSuggestionService(properties, monitor,
+                new Bulkheads(new BulkheadProperties(), new SimpleMeterRegistry()),
+                new DistributedCaches(new InProcessCacheBackend(), new DistributedCacheProperties(), new SimpleMeterRegistry()),
+                ObservationRegistry.NOOP);
+        String source = "http://vocab.getty.edu/aat";
+        for (int i = 0; i < properties.getFailureThreshold(); i++) {
+            monitor.recordFailure(source);
+        }
+        Thread.sleep(5);
+
+        try (Deadline.Scope scope = Deadline.after(Duration.ZERO).enter()) {
+            TermsSuggestResponse response = service.fetchTerms(List.of(source), "molen", List.of("nl"));
+            assertEquals(TermsSuggestResponse.SkipReason.TIMEOUT, response.skippedSources().get(0).reason());
+        }
+        assertTrue(monitor.tryAcquire(source));
+    }
+}
@@ -0,0 +1,50 @@
+package org.mekluppie.services.batching;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MicroBatcherTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void coalescesRequestsWithinWindow() {
+        try (MicroBatcher<String, String> batcher = batcher(Duration.ofMillis(200), 10)) {
+            CompletableFuture<String> a = batcher.submit("a");
+            CompletableFuture<String> b = batcher.submit("b");
+
+            assertEquals("A", a.join());
+            assertEquals("B", b.join());
+            assertEquals(List.of(List.of("a", "b")), batches);
+        }
+    }
+
+    @Test
+    void dispatchesFullBatchImmediately() {
+        try (MicroBatcher<String, String> batcher = batcher(Duration.ofSeconds(30), 2)) {
+            CompletableFuture<String> a = batcher.submit("a");
+            CompletableFuture<String> b = batcher.submit("b");
+            CompletableFuture<String> c = batcher.submit("c");
+
+            assertEquals("A", a.orTimeout(5, TimeUnit.SECONDS).join());
+            assertEquals("B", b.join());
+            assertEquals(List.of("a", "b"), batches.get(0));
+            batcher.close();
+            assertEquals("C", c.join());
+        }
+    }
+
+    private MicroBatcher<String, String> batcher(Duration window, int maxBatchSize) {
+        return new MicroBatcher<>("test", window, window, maxBatchSize, requests -> {
+            batches.add(requests);
+            return requests.stream().map(String::toUpperCase).toList();
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package org.mekluppie.services.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InProcessCacheBackendTest {
+
+    private final InProcessCacheBackend backend = new InProcessCacheBackend(2);
+
+    @Test
+    void dropsTheLeastRecentlyUsedBeyondTheLimit() {
+        backend.put("sources", "a", new byte[] {1}, Duration.ofDays(7));
+        backend.put("sources", "b", new byte[] {2}, Duration.ofDays(7));
+        backend.get("sources", "a");
+        backend.put("sources", "c", new byte[] {3}, Duration.ofDays(7));
+
+        assertEquals(2, backend.size("sources"));
+        assertArrayEquals(new byte[] {1}, backend.get("sources", "a").orElseThrow());
+        assertEquals(Optional.empty(), backend.get("sources", "b"));
+    }
+
+    @Test
+    void sweepRemovesExpiredEntriesThatAreNeverReadAgain() {
+        backend.put("terms", "expired", new byte[] {1}, Duration.ofMillis(-1));
+        backend.put("terms", "fresh", new byte[] {2}, Duration.ofHours(1));
+
+        backend.sweep();
+
+        assertEquals(1, backend.size("terms"));
+    }
+}
@@ -0,0 +1,50 @@
+package org.mekluppie.services.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mekluppie.services.config.DistributedCacheProperties;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NearCacheTest {
+
+    private final InProcessCacheBackend backend = new InProcessCacheBackend();
+    private final NearCache<String> nodeA = node().get("terms", String.class);
+    private final NearCache<String> nodeB = node().get("terms", String.class);
+
+    @Test
+    void sharesComputedValuesAcrossNodes() {
+        AtomicInteger computations = new AtomicInteger();
+        assertEquals("molens 1", nodeA.get("molen", () -> "molens " + computations.incrementAndGet()));
+        assertEquals("molens 1", nodeB.get("molen", () -> "molens " + computations.incrementAndGet()));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void invalidationReachesEveryNode() {
+        nodeA.put("molen", "molens");
+        assertEquals(Optional.of("molens"), nodeB.get("molen"));
+
+        nodeA.invalidate("molen");
+        assertEquals(Optional.empty(), nodeB.get("molen"));
+        assertEquals(0, nodeB.localSize());
+    }
+
+    @Test
+    void invalidateAllClearsLocalCopies() {
+        nodeA.put("molen", "molens");
+        nodeA.put("kerk", "kerken");
+        nodeB.get("molen");
+
+        nodeB.invalidateAll();
+        assertEquals(0, nodeA.localSize());
+        assertEquals(Optional.empty(), nodeA.get("kerk"));
+    }
+
+    private DistributedCaches node() {
+        return new DistributedCaches(backend, new DistributedCacheProperties(), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,88 @@
+package org.mekluppie.services.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsConfiguredDatasetsAndFallsBackToBundledSources() throws Exception {
+        Path datasets = write("datasets.json", """
+                [{"title": "Kadaster", "description": "Parcels", "publisher": "Kadaster"},
+                 {"title": "Beeldbank", "description": "Photos", "publisher": "UvA"}]""");
+
+        CatalogSnapshot snapshot = CatalogSnapshot.read(datasets, null);
+
+        assertEquals(2, snapshot.datasets().size());
+        assertFalse(snapshot.bundled());
+        assertTrue(snapshot.datasetsPrompt().contains("2 datasets"));
+        assertTrue(snapshot.datasetsPrompt().contains("\"title\" : \"Beeldbank\""));
+        assertEquals(CatalogSnapshot.read(null, null).sourcesVersion(), snapshot.sourcesVersion());
+        assertTrue(snapshot.vectorClass("Dataset").startsWith("Dataset_"));
+    }
+
+    @Test
+    void bundledCatalogKeepsTheBaseClass() throws Exception {
+        CatalogSnapshot snapshot = CatalogSnapshot.read(null, null);
+
+        assertTrue(snapshot.bundled());
+        assertFalse(snapshot.datasets().isEmpty());
+        assertFalse(snapshot.sources().isEmpty());
+        assertEquals("Dataset", snapshot.vectorClass("Dataset"));
+    }
+
+    @Test
+    void configuredCopyOfTheBundledListCountsAsBundled() throws Exception {
+        Path copy = directory.resolve("list.json");
+        try (InputStream in = new ClassPathResource("list.json").getInputStream()) {
+            Files.copy(in, copy);
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.read(copy, null);
+
+        assertTrue(snapshot.bundled());
+        assertEquals(CatalogSnapshot.read(null, null).datasetsVersion(), snapshot.datasetsVersion());
+        assertEquals("Dataset", snapshot.vectorClass("Dataset"));
+    }
+
+    @Test
+    void versionIgnoresFormattingButNotContent() throws Exception {
+        CatalogSnapshot compact = CatalogSnapshot.read(
+                write("a.json", "[{\"title\":\"Kadaster\",\"description\":\"Parcels\"}]"), null);
+        CatalogSnapshot reformatted = CatalogSnapshot.read(
+                write("b.json", "[\n  {\n    \"title\": \"Kadaster\",\n    \"description\": \"Parcels\"\n  }\n]\n"), null);
+        CatalogSnapshot changed = CatalogSnapshot.read(
+                write("c.json", "[{\"title\":\"Kadaster\",\"description\":\"Land parcels\"}]"), null);
+
+        assertEquals(compact.version(), reformatted.version());
+        assertNotEquals(compact.version(), changed.version());
+        assertEquals(compact.sourcesVersion(), changed.sourcesVersion());
+    }
+
+    @Test
+    void rejectsUnusableFiles() throws Exception {
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(write("empty.json", "[]"), null));
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(write("truncated.json", "[{\"title\":"), null));
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(write("untitled.json", "[{\"description\":\"x\"}]"), null));
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(null, directory.resolve("missing.json")));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
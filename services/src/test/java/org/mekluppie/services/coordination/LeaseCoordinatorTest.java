@@ -0,0 +1,150 @@
+package org.mekluppie.services.coordination;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mekluppie.services.config.CoordinationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaseCoordinatorTest {
+
+    private final InMemoryLeaseBackend backend = new InMemoryLeaseBackend();
+
+    @Test
+    void waitingReplicaRunsAfterHolderAndFindsNothingToDo() throws Exception {
+        CoordinationProperties properties = properties(CoordinationProperties.BusyPolicy.WAIT);
+        LeaseCoordinator first = new LeaseCoordinator(backend, properties, "first");
+        LeaseCoordinator second = new LeaseCoordinator(backend, properties, "second");
+        AtomicInteger imports = new AtomicInteger();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try {
+                first.runExclusively("init", () -> {
+                    holding.countDown();
+                    await(finish);
+                    imports.incrementAndGet();
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holding.await();
+        Thread.ofVirtual().start(finish::countDown);
+
+        assertTrue(second.runExclusively("init", () -> {
+            if (imports.get() == 0) {
+                imports.incrementAndGet();
+            }
+        }));
+        holder.join();
+        assertEquals(1, imports.get());
+    }
+
+    @Test
+    void skippingReplicaReturnsWhileLeaseIsHeld() throws Exception {
+        CoordinationProperties properties = properties(CoordinationProperties.BusyPolicy.SKIP);
+        assertTrue(backend.tryAcquire("init", "first", Duration.ofMinutes(1)));
+
+        assertFalse(new LeaseCoordinator(backend, properties, "second").runExclusively("init", () -> { }));
+
+        backend.release("init", "first");
+        assertTrue(new LeaseCoordinator(backend, properties, "second").runExclusively("init", () -> { }));
+    }
+
+    @Test
+    void renewalInFlightDoesNotRetakeTheReleasedLease() throws Exception {
+        CoordinationProperties properties = properties(CoordinationProperties.BusyPolicy.SKIP);
+        properties.setLeaseTtl(Duration.ofSeconds(3));
+        CountDownLatch renewing = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        CountDownLatch renewed = new CountDownLatch(1);
+        LeaseBackend slowRenewal = new LeaseBackend() {
+            private final AtomicInteger calls = new AtomicInteger();
+
+            @Override
+            public boolean tryAcquire(String name, String owner, Duration ttl) {
+                if (calls.incrementAndGet() != 2) {
+                    return backend.tryAcquire(name, owner, ttl);
+                }
+                renewing.countDown();
+                awaitUninterruptibly(proceed);
+                boolean acquired = backend.tryAcquire(name, owner, ttl);
+                renewed.countDown();
+                return acquired;
+            }
+
+            @Override
+            public void release(String name, String owner) {
+                backend.release(name, owner);
+            }
+        };
+
+        assertTrue(new LeaseCoordinator(slowRenewal, properties, "first").runExclusively("init", () -> {
+            await(renewing);
+            Thread.ofVirtual().start(() -> {
+                sleep(50);
+                proceed.countDown();
+            });
+        }));
+
+        assertTrue(renewed.await(10, TimeUnit.SECONDS));
+        assertTrue(backend.tryAcquire("init", "second", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void fileLeasesExpireWithoutRenewal(@TempDir Path directory) throws Exception {
+        FileLeaseBackend files = new FileLeaseBackend(directory);
+        assertTrue(files.tryAcquire("init", "first", Duration.ofMillis(50)));
+        assertFalse(files.tryAcquire("init", "second", Duration.ofMinutes(1)));
+        assertTrue(files.tryAcquire("init", "first", Duration.ofMillis(50)));
+
+        Thread.sleep(100);
+        assertTrue(files.tryAcquire("init", "second", Duration.ofMinutes(1)));
+        files.release("init", "first");
+        assertFalse(files.tryAcquire("init", "first", Duration.ofMinutes(1)));
+    }
+
+    private static CoordinationProperties properties(CoordinationProperties.BusyPolicy onBusy) {
+        CoordinationProperties properties = new CoordinationProperties();
+        properties.setOnBusy(onBusy);
+        properties.setPollInterval(Duration.ofMillis(10));
+        properties.setMaxWait(Duration.ofSeconds(10));
+        return properties;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (latch.getCount() > 0) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                // like a JDBC call, the renewal does not stop when interrupted
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
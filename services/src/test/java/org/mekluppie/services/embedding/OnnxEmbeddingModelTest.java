@@ -0,0 +1,38 @@
+package org.mekluppie.services.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OnnxEmbeddingModelTest {
+
+    @Test
+    void meanPoolsTokensUnderTheAttentionMaskAndNormalises() {
+        // two rows of three tokens of two dimensions; the second row's last token is padding
+        FloatBuffer output = FloatBuffer.wrap(new float[] {
+                1, 0, 0, 1, 1, 1,
+                3, 4, 3, 4, 100, 100});
+
+        List<float[]> vectors = OnnxEmbeddingModel.pool(output, new long[] {2, 3, 2},
+                new long[][] {{1, 1, 1}, {1, 1, 0}});
+
+        assertEquals(2, vectors.size());
+        assertArrayEquals(new float[] {0.7071068f, 0.7071068f}, vectors.get(0), 1e-6f);
+        assertArrayEquals(new float[] {0.6f, 0.8f}, vectors.get(1), 1e-6f);
+    }
+
+    @Test
+    void normalisesOutputThatIsAlreadyPooled() {
+        FloatBuffer output = FloatBuffer.wrap(new float[] {0, 5, 0, 0, 0, 0});
+
+        List<float[]> vectors = OnnxEmbeddingModel.pool(output, new long[] {2, 3},
+                new long[][] {{1, 0}, {1, 1}});
+
+        assertArrayEquals(new float[] {0, 1, 0}, vectors.get(0), 1e-6f);
+        assertArrayEquals(new float[] {0, 0, 0}, vectors.get(1), 1e-6f);
+    }
+}
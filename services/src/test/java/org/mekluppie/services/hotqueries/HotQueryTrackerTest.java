@@ -0,0 +1,40 @@
+package org.mekluppie.services.hotqueries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotQueryTrackerTest {
+
+    @Test
+    void keepsMostFrequentQueriesAmongManyRareOnes() {
+        HotQueryTracker tracker = new HotQueryTracker(1024, 4, 8);
+        for (int round = 0; round < 20; round++) {
+            tracker.record("molens");
+            tracker.record("molens");
+            tracker.record("kerken");
+            for (int rare = 0; rare < 20; rare++) {
+                tracker.record("query " + round + " " + rare);
+            }
+        }
+
+        assertEquals(List.of("molens", "kerken"), tracker.top(2, 10));
+    }
+
+    @Test
+    void decayForgetsQueriesThatWentCold() {
+        HotQueryTracker tracker = new HotQueryTracker(1024, 4, 8);
+        tracker.record("molens");
+        tracker.record("molens");
+        tracker.record("kerken");
+
+        tracker.decay();
+
+        assertEquals(List.of("molens"), tracker.top(10, 1));
+        tracker.decay();
+        assertTrue(tracker.top(10, 1).isEmpty());
+    }
+}
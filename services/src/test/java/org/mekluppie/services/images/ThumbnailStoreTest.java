@@ -0,0 +1,64 @@
+package org.mekluppie.services.images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThumbnailStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void evictsLeastRecentlyServedWhenOverBudget() throws Exception {
+        ThumbnailStore store = new ThumbnailStore(directory, 25, Duration.ZERO);
+        store.put("a", new byte[10]);
+        store.put("b", new byte[10]);
+        assertTrue(store.get("a").isPresent());
+
+        store.put("c", new byte[10]);
+
+        assertTrue(store.get("a").isPresent());
+        assertFalse(store.get("b").isPresent());
+        assertFalse(Files.exists(directory.resolve("b.jpg")));
+        assertEquals(20, store.totalBytes());
+    }
+
+    @Test
+    void keepsEvictedFilesWhileTheyMayStillBeServed() throws Exception {
+        ThumbnailStore store = new ThumbnailStore(directory, 25, Duration.ofMinutes(1));
+        store.put("a", new byte[10]);
+        ThumbnailStore.Entry served = store.get("a").orElseThrow();
+        store.put("b", new byte[10]);
+        store.put("c", new byte[10]);
+
+        assertTrue(Files.exists(served.file()));
+        assertEquals(10, Files.size(served.file()));
+        assertEquals(20, store.totalBytes());
+
+        assertTrue(store.get("a").isPresent());
+        assertEquals(20, store.totalBytes());
+        assertTrue(store.get("c").isPresent());
+        assertTrue(Files.exists(directory.resolve("b.jpg")));
+    }
+
+    @Test
+    void rebuildsIndexFromDirectory() throws Exception {
+        ThumbnailStore store = new ThumbnailStore(directory, 100);
+        store.put("a", new byte[10]);
+        Files.write(directory.resolve("partial.tmp"), new byte[5]);
+
+        ThumbnailStore reopened = new ThumbnailStore(directory, 100);
+
+        assertTrue(reopened.get("a").isPresent());
+        assertEquals(10, reopened.totalBytes());
+        assertFalse(Files.exists(directory.resolve("partial.tmp")));
+    }
+}
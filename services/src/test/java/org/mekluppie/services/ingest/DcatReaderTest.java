@@ -0,0 +1,61 @@
+package org.mekluppie.services.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mekluppie.services.model.DatasetResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DcatReaderTest {
+
+    private static final String DUMP = """
+            @prefix dcat: <http://www.w3.org/ns/dcat#> .
+            @prefix dct: <http://purl.org/dc/terms/> .
+            @prefix foaf: <http://xmlns.com/foaf/0.1/> .
+
+            <urn:ds:1> a dcat:Dataset ;
+                dct:title "Beeldbank"@en, "Beeldbank UvA"@nl ;
+                dct:description "Digitised images"@en ;
+                dct:publisher <urn:org:uva> .
+
+            <urn:ds:2> a dcat:Dataset ;
+                dct:title "Amateurfilm collectie" ;
+                dct:publisher "Beeld en Geluid" .
+
+            <urn:ds:3> a dcat:Dataset ;
+                dct:title "beeldbank uva"@nl ;
+                dct:publisher <urn:org:uva> .
+
+            <urn:ds:4> a dcat:Dataset ;
+                dct:description "No title" .
+
+            <urn:ds:5> a dcat:Dataset ;
+                dct:title "Kaarten" ;
+                dct:publisher <urn:org:uva> .
+
+            <urn:org:uva> foaf:name "Universiteit van Amsterdam"@nl .
+            """;
+
+    @Test
+    void streamsDeduplicatedDatasetsInBatches(@TempDir Path dir) throws Exception {
+        Path dump = dir.resolve("register.ttl");
+        Files.writeString(dump, DUMP);
+
+        List<List<DatasetResponse.DatasetItem>> batches = new ArrayList<>();
+        DcatReader.Stats stats = new DcatReader(2, 2, List.of("nl", "en")).read(dump, batches::add);
+
+        assertEquals(new DcatReader.Stats(3, 1, 1), stats);
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+
+        List<DatasetResponse.DatasetItem> items = batches.stream().flatMap(List::stream).toList();
+        assertEquals(new DatasetResponse.DatasetItem("Beeldbank UvA", "Digitised images", "Universiteit van Amsterdam"),
+                items.get(0));
+        assertEquals(List.of("Beeldbank UvA", "Amateurfilm collectie", "Kaarten"),
+                items.stream().map(DatasetResponse.DatasetItem::title).toList());
+    }
+}
@@ -0,0 +1,96 @@
+package org.mekluppie.services.kvstore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void survivesReopenWithOverwritesAndDeletes() throws Exception {
+        try (LogStore store = LogStore.open(directory, 1024)) {
+            store.put("a", bytes("one"));
+            store.put("b", bytes("two"));
+            store.put("a", bytes("three"));
+            store.delete("b");
+        }
+
+        try (LogStore store = LogStore.open(directory, 1024)) {
+            assertEquals("three", string(store.get("a")));
+            assertTrue(store.get("b").isEmpty());
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveRecords() throws Exception {
+        try (LogStore store = LogStore.open(directory, 64)) {
+            for (int i = 0; i < 50; i++) {
+                store.put("key" + (i % 5), bytes("value" + i));
+            }
+            assertTrue(store.garbageRatio() > 0.5);
+
+            store.compact();
+
+            assertTrue(store.garbageRatio() < 0.01);
+            for (int k = 0; k < 5; k++) {
+                assertEquals("value" + (45 + k), string(store.get("key" + k)));
+            }
+        }
+
+        try (LogStore store = LogStore.open(directory, 64)) {
+            assertEquals(5, store.size());
+            assertEquals("value49", string(store.get("key4")));
+        }
+    }
+
+    @Test
+    void ignoresTornRecordAtEndOfSegment() throws Exception {
+        try (LogStore store = LogStore.open(directory, 1024)) {
+            store.put("a", bytes("one"));
+            store.put("b", bytes("two"));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> Files.isRegularFile(path) && sizeOf(path) > 0).findFirst().orElseThrow();
+        }
+        Files.write(segment, new byte[] {1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        try (LogStore store = LogStore.open(directory, 1024)) {
+            assertEquals("one", string(store.get("a")));
+            assertEquals("two", string(store.get("b")));
+            store.put("c", bytes("three"));
+        }
+        try (LogStore store = LogStore.open(directory, 1024)) {
+            assertEquals(3, store.size());
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(Optional<byte[]> value) {
+        return new String(value.orElseThrow(), StandardCharsets.UTF_8);
+    }
+}
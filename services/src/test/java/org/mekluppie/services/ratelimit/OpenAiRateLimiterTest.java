@@ -0,0 +1,137 @@
+package org.mekluppie.services.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mekluppie.services.config.RateLimitProperties;
+import org.mekluppie.services.deadline.DeadlineExceededException;
+import org.springframework.ai.chat.metadata.RateLimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenAiRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OpenAiRateLimiter limiter = new OpenAiRateLimiter(properties(), registry, clock::get);
+
+    @Test
+    void estimatesPromptTokensPlusCompletion() {
+        assertEquals(800, RateLimitingAdvisor.estimateTokens("", 800));
+        assertEquals(1050, RateLimitingAdvisor.estimateTokens("x".repeat(1000), 800));
+    }
+
+    @Test
+    void requestBudgetRefillsOverTheMinute() throws Exception {
+        for (int i = 0; i < 60; i++) {
+            take(LlmPriority.INTERACTIVE, 10);
+        }
+        assertThrows(DeadlineExceededException.class, () -> take(LlmPriority.INTERACTIVE, 10));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertDoesNotThrow(() -> take(LlmPriority.INTERACTIVE, 10));
+        assertThrows(DeadlineExceededException.class, () -> take(LlmPriority.INTERACTIVE, 10));
+    }
+
+    @Test
+    void settlesTheTokenEstimateAgainstActualUsage() throws Exception {
+        OpenAiRateLimiter.Permit permit = take(LlmPriority.INTERACTIVE, 6_000);
+        assertThrows(DeadlineExceededException.class, () -> take(LlmPriority.INTERACTIVE, 6_000));
+
+        limiter.complete(permit, 1_000, null);
+        assertDoesNotThrow(() -> take(LlmPriority.INTERACTIVE, 6_000));
+    }
+
+    @Test
+    void batchCallsLeaveTheInteractiveReserve() throws Exception {
+        take(LlmPriority.INTERACTIVE, 8_500);
+
+        assertThrows(DeadlineExceededException.class, () -> take(LlmPriority.BATCH, 100));
+        assertDoesNotThrow(() -> take(LlmPriority.INTERACTIVE, 100));
+    }
+
+    @Test
+    void backsOffOnRateLimitAndRecoversAdditively() throws Exception {
+        limiter.onRateLimited();
+        assertEquals(42, requestLimit(), 1e-9);
+        assertEquals(7_000, tokenLimit(), 1e-9);
+
+        // paused for the default retry-after even though the budget has refilled meanwhile
+        clock.addAndGet(Duration.ofMillis(1_900).toNanos());
+        assertThrows(DeadlineExceededException.class, () -> take(LlmPriority.INTERACTIVE, 10));
+        clock.addAndGet(Duration.ofMillis(200).toNanos());
+        OpenAiRateLimiter.Permit permit = take(LlmPriority.INTERACTIVE, 10);
+
+        limiter.complete(permit, 10, null);
+        assertEquals(42 + 0.02 * 60, requestLimit(), 1e-9);
+        assertEquals(7_000 + 0.02 * 10_000, tokenLimit(), 1e-9);
+    }
+
+    @Test
+    void pausesUntilTheReportedResetAfterA429() throws Exception {
+        OpenAiRateLimiter.Permit permit = take(LlmPriority.INTERACTIVE, 10);
+        limiter.complete(permit, 10, new Headers(Duration.ofSeconds(5)));
+
+        limiter.onRateLimited();
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThrows(DeadlineExceededException.class, () -> take(LlmPriority.INTERACTIVE, 10));
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertDoesNotThrow(() -> take(LlmPriority.INTERACTIVE, 10));
+    }
+
+    private OpenAiRateLimiter.Permit take(LlmPriority priority, long tokens) throws InterruptedException {
+        return limiter.acquire(priority, tokens, Duration.ZERO);
+    }
+
+    private double requestLimit() {
+        return registry.get("mekluppie.openai.limit.requests").gauge().value();
+    }
+
+    private double tokenLimit() {
+        return registry.get("mekluppie.openai.limit.tokens").gauge().value();
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRequestsPerMinute(60);
+        properties.setTokensPerMinute(10_000);
+        return properties;
+    }
+
+    /** Rate-limit headers reporting no limits, only when they reset. */
+    private record Headers(Duration reset) implements RateLimit {
+        @Override
+        public Long getRequestsLimit() {
+            return null;
+        }
+
+        @Override
+        public Long getRequestsRemaining() {
+            return null;
+        }
+
+        @Override
+        public Duration getRequestsReset() {
+            return reset;
+        }
+
+        @Override
+        public Long getTokensLimit() {
+            return null;
+        }
+
+        @Override
+        public Long getTokensRemaining() {
+            return null;
+        }
+
+        @Override
+        public Duration getTokensReset() {
+            return reset;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.mekluppie.services.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mekluppie.services.config.BulkheadProperties;
+import org.mekluppie.services.deadline.Deadline;
+import org.mekluppie.services.deadline.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadTest {
+
+    @Test
+    void rejectsWhenFullAndPolicyIsReject() throws Exception {
+        Bulkhead bulkhead = bulkhead(BulkheadProperties.FullPolicy.REJECT, Duration.ZERO);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> bulkhead.call(() -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        holding.await();
+
+        assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "second"));
+
+        release.countDown();
+        holder.join();
+        assertEquals("third", bulkhead.call(() -> "third"));
+    }
+
+    @Test
+    void queuedCallerGetsPermitOnceReleased() throws Exception {
+        Bulkhead bulkhead = bulkhead(BulkheadProperties.FullPolicy.WAIT, Duration.ofSeconds(5));
+        CountDownLatch holding = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> bulkhead.call(() -> {
+            holding.countDown();
+            sleep(100);
+            return null;
+        }));
+        holding.await();
+
+        assertEquals("queued", bulkhead.call(() -> "queued"));
+        holder.join();
+    }
+
+    @Test
+    void queueingPastTheDeadlineFailsWithTheDeadline() throws Exception {
+        Bulkhead bulkhead = bulkhead(BulkheadProperties.FullPolicy.WAIT, Duration.ofSeconds(5));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> bulkhead.call(() -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        holding.await();
+
+        try (Deadline.Scope expired = Deadline.after(Duration.ZERO).enter()) {
+            assertThrows(DeadlineExceededException.class, () -> bulkhead.call(() -> "expired"));
+        }
+        try (Deadline.Scope shortBudget = Deadline.after(Duration.ofMillis(50)).enter()) {
+            assertThrows(DeadlineExceededException.class, () -> bulkhead.call(() -> "too slow"));
+        }
+
+        release.countDown();
+        holder.join();
+    }
+
+    private static Bulkhead bulkhead(BulkheadProperties.FullPolicy policy, Duration maxWait) {
+        BulkheadProperties.Settings settings = new BulkheadProperties.Settings();
+        settings.setMaxConcurrent(1);
+        settings.setMaxWaiting(1);
+        settings.setMaxWait(maxWait);
+        settings.setOnFull(policy);
+        return new Bulkhead("test", settings, new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
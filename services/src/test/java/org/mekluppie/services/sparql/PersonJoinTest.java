@@ -0,0 +1,31 @@
+package org.mekluppie.services.sparql;
+
+import org.junit.jupiter.api.Test;
+import org.mekluppie.services.model.AuthorQueryResponse;
+import org.mekluppie.services.model.ImageQueryResponse;
+import org.mekluppie.services.model.PersonLookupResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PersonJoinTest {
+
+    @Test
+    void linksImagesThatMentionABookTitle() {
+        List<PersonLookupResponse.Link> links = PersonJoin.links("Vondel",
+                List.of(new AuthorQueryResponse("http://data.bibliotheken.nl/id/nbt/1", "Gysbreght van Aemstel"),
+                        new AuthorQueryResponse("http://data.bibliotheken.nl/id/nbt/2", "Lucifer")),
+                List.of(new ImageQueryResponse("https://hdl.handle.net/11245/1", "Titelpagina van Gysbreght van Aemstel, Vondel", "a.jpg"),
+                        new ImageQueryResponse("https://hdl.handle.net/11245/2", "Portret van Joost van den Vondel", "b.jpg")));
+
+        assertEquals(List.of(new PersonLookupResponse.Link("http://data.bibliotheken.nl/id/nbt/1",
+                "https://hdl.handle.net/11245/1")), links);
+    }
+
+    @Test
+    void linksNothingWithoutResultsFromBothEndpoints() {
+        assertEquals(List.of(), PersonJoin.links("Vondel", List.of(),
+                List.of(new ImageQueryResponse("https://hdl.handle.net/11245/2", "Portret van Vondel", "b.jpg"))));
+    }
+}
@@ -0,0 +1,52 @@
+package org.mekluppie.services.sparql;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.junit.jupiter.api.Test;
+import org.mekluppie.services.model.PageRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparqlTemplateTest {
+
+    private final SparqlTemplate template = SparqlTemplate.fromClasspath("AuthorQuery.rq", "boek");
+
+    @Test
+    void bindsParametersAsLiterals() {
+        Query query = template.bind(
+                Map.of("authorName", NodeFactory.createLiteralString("Mulisch\") } #")),
+                PageRequest.first(10));
+
+        String sparql = query.serialize();
+        assertTrue(sparql.contains("\"Mulisch\\\") } #\""), sparql);
+        assertFalse(sparql.contains("?authorName"), sparql);
+        assertEquals(11, query.getLimit());
+    }
+
+    @Test
+    void appliesOffsetAndKeysetPaging() {
+        Query offsetPage = template.bind(Map.of("authorName", NodeFactory.createLiteralString("Mulisch")),
+                new PageRequest(20, 40, null));
+        assertEquals(40, offsetPage.getOffset());
+        assertEquals(21, offsetPage.getLimit());
+
+        Query keysetPage = template.bind(Map.of("authorName", NodeFactory.createLiteralString("Mulisch")),
+                new PageRequest(20, 0, "http://data.bibliotheken.nl/id/nbt/p123"));
+        String sparql = keysetPage.serialize();
+        assertTrue(sparql.contains("str(?boek) > \"http://data.bibliotheken.nl/id/nbt/p123\""), sparql);
+        assertEquals(Query.NOLIMIT, keysetPage.getOffset());
+    }
+
+    @Test
+    void leavesTemplateUntouched() {
+        template.bind(Map.of("authorName", NodeFactory.createLiteralString("Hermans")), new PageRequest(5, 0, "x"));
+
+        Query fresh = template.bind(Map.of("authorName", NodeFactory.createLiteralString("Reve")), PageRequest.first(5));
+        assertFalse(fresh.serialize().contains("Hermans"));
+        assertFalse(fresh.serialize().contains("str(?boek)"));
+    }
+}
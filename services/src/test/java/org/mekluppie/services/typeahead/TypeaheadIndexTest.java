@@ -0,0 +1,55 @@
+package org.mekluppie.services.typeahead;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypeaheadIndexTest {
+
+    private final TypeaheadIndex index = TypeaheadIndex.build(List.of(
+            entry("1", "Molens", "windmolens"),
+            entry("2", "Molenaars"),
+            entry("3", "Café", "koffiehuis"),
+            entry("4", "Kerken"),
+            entry("5", "Kerkhoven")));
+
+    @Test
+    void matchesPrefixesOfAllLabels() {
+        assertEquals(List.of("2"), uris(index.search("molena", 10, 0)));
+        assertEquals(List.of("1"), uris(index.search("windm", 10, 0)));
+        assertEquals(List.of("4", "5"), uris(index.search("ker", 10, 0)));
+    }
+
+    @Test
+    void ignoresAccentsAndCase() {
+        assertEquals(List.of("3"), uris(index.search("CAFE", 10, 0)));
+        assertEquals(List.of("3"), uris(index.search("café", 10, 0)));
+    }
+
+    @Test
+    void toleratesSingleTypo() {
+        assertTrue(uris(index.search("kerkj", 10, 0)).isEmpty());
+
+        List<TypeaheadIndex.Match> matches = index.search("kerkj", 10, 1);
+        assertEquals(List.of("4", "5"), uris(matches));
+        assertEquals(1, matches.get(0).edits());
+    }
+
+    @Test
+    void ranksExactPrefixesBeforeFuzzyMatches() {
+        List<TypeaheadIndex.Match> matches = index.search("molen", 10, 1);
+        assertEquals(0, matches.get(0).edits());
+        assertEquals(List.of("1", "2"), uris(matches).stream().sorted().toList());
+    }
+
+    private static TypeaheadIndex.Entry entry(String uri, String... labels) {
+        return new TypeaheadIndex.Entry(uri, labels[0], "test", List.of(labels));
+    }
+
+    private static List<String> uris(List<TypeaheadIndex.Match> matches) {
+        return matches.stream().map(match -> match.entry().uri()).toList();
+    }
+}